@@ -0,0 +1,99 @@
+package com.cliapp.collections;
+
+import com.cliapp.domain.GlossaryEntry;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookup throughput with seven reader threads and one thread making occasional edits. Compares the
+ * stamped-lock collection against a plain collection behind a single monitor, which is what sharing
+ * one GlossaryCollection would otherwise need.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class ConcurrentGlossaryBenchmark {
+
+    private static final int SIZE = 1000;
+    private static final String[] QUERIES = {"commit", "branch", "merge", "remote", "stash"};
+
+    private ConcurrentGlossaryCollection stamped;
+    private GlossaryCollection locked;
+    private final Object lock = new Object();
+
+    @Setup
+    public void setUp() {
+        locked = new GlossaryCollection();
+        for (int i = 0; i < SIZE; i++) {
+            locked.add(entry(i, "version 0"));
+        }
+        stamped = new ConcurrentGlossaryCollection(locked);
+    }
+
+    private static GlossaryEntry entry(int i, String note) {
+        String topic = QUERIES[i % QUERIES.length];
+        return new GlossaryEntry(
+                "git " + topic + " " + i,
+                "How to " + topic + " things, " + note,
+                "git " + topic,
+                "Category " + (i % 10));
+    }
+
+    private static int randomIndex() {
+        return ThreadLocalRandom.current().nextInt(SIZE);
+    }
+
+    @Benchmark
+    @Group("stamped")
+    @GroupThreads(7)
+    public List<GlossaryEntry> stampedRead() {
+        stamped.getByCommand("git commit " + randomIndex());
+        return stamped.searchEntries(QUERIES[randomIndex() % QUERIES.length]);
+    }
+
+    @Benchmark
+    @Group("stamped")
+    @GroupThreads(1)
+    public boolean stampedWrite() throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(1);
+        int i = randomIndex();
+        return stamped.update(entry(i, "").getCommand(), entry(i, "edited"));
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(7)
+    public List<GlossaryEntry> lockedRead() {
+        synchronized (lock) {
+            locked.getByCommand("git commit " + randomIndex());
+            return locked.searchEntries(QUERIES[randomIndex() % QUERIES.length]);
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public boolean lockedWrite() throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(1);
+        int i = randomIndex();
+        synchronized (lock) {
+            return locked.update(entry(i, "").getCommand(), entry(i, "edited"));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.cliapp.collections;
+
+import com.cliapp.domain.GlossaryEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Typo lookup through the BK-tree against a distance computation per command. The BK-tree cost
+ * should grow much more slowly than the glossary size while the scan grows linearly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FuzzyLookupBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private GlossaryCollection collection;
+    private List<String> commands;
+    private String query;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        collection = new GlossaryCollection();
+        commands = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            String command = "git " + randomWord(random);
+            collection.add(new GlossaryEntry(command, "definition", "example", "Category"));
+            commands.add(command);
+        }
+        String target = commands.get(size / 2);
+        query = target.substring(0, target.length() - 1);
+    }
+
+    @Benchmark
+    public List<GlossaryEntry> bkTree() {
+        return collection.searchFuzzy(query, 1);
+    }
+
+    @Benchmark
+    public List<String> linearScan() {
+        List<String> matches = new ArrayList<>();
+        for (String command : commands) {
+            if (BKTree.levenshtein(query, command) <= 1) {
+                matches.add(command);
+            }
+        }
+        return matches;
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int length = 5 + random.nextInt(8);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+}
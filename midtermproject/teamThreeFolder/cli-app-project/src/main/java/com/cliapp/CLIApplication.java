@@ -4,6 +4,7 @@ import com.cliapp.commands.BadgeCommand;
 import com.cliapp.commands.ContinueCommand;
 import com.cliapp.commands.GlossaryCommand;
 import com.cliapp.commands.QuestListCommand;
+import com.cliapp.commands.SearchCommand;
 import com.cliapp.exceptions.InvalidInputException;
 import com.cliapp.exceptions.NoSavedGameException;
 import com.cliapp.io.Console;
@@ -13,6 +14,10 @@ import com.cliapp.services.BadgeManager;
 import com.cliapp.services.BadgeService;
 import com.cliapp.services.GlossaryService;
 import com.cliapp.services.QuestService;
+import com.cliapp.services.QuestionBank;
+import com.cliapp.services.QuestionDeck;
+import com.cliapp.services.SearchService;
+import java.util.Arrays;
 
 /** Main CLI Application Entry Point Implements User Stories 1, 2, and 3 */
 public class CLIApplication {
@@ -24,6 +29,8 @@ public class CLIApplication {
     private GlossaryService glossaryService;
     private BadgeManager badgeManager;
     private BadgeService badgeService;
+    private SearchService searchService;
+    private final QuestionDeck questionDeck;
 
     public CLIApplication() {
         this(new SystemConsole());
@@ -35,9 +42,10 @@ public class CLIApplication {
         this.isRunning = false;
         this.userSession = new UserSession();
         this.questService = new QuestService();
-        this.glossaryService = new GlossaryService();
+        this.glossaryService = GlossaryService.shared();
         this.badgeService = new BadgeService();
         this.badgeManager = new BadgeManager(this.badgeService, this.questService);
+        this.questionDeck = new QuestionDeck();
     }
 
     public static void main(String[] args) {
@@ -60,6 +68,10 @@ public class CLIApplication {
     public void stop() {
         this.isRunning = false;
         userSession.endSession();
+        if (searchService != null) {
+            searchService.close();
+            searchService = null;
+        }
         console.println("\n👋 Thanks for using Git Training CLI! Keep practicing!");
         console.close();
     }
@@ -82,7 +94,9 @@ public class CLIApplication {
         console.println("2. ▶️  Continue - Resume your current quest");
         console.println("3. 🏆 Badges - View your achievements");
         console.println("4. 📖 Glossary - Browse Git command references");
+        console.println("   (e.g. '4 git stash' to look one up, '4 --page 2' for the next page)");
         console.println("5. 🚪 Quit - Exit the application");
+        console.println("   (or 'search <words>' to search quests, questions and the glossary)");
         console.print("\nEnter your choice (1-5): ");
     }
 
@@ -94,7 +108,14 @@ public class CLIApplication {
                 throw InvalidInputException.forEmptyInput();
             }
 
-            switch (input) {
+            // The first word picks the menu entry; the rest are passed to its command
+            String[] words = input.split("\\s+");
+            String[] args = Arrays.copyOfRange(words, 1, words.length);
+            if (args.length > 0 && !words[0].equals("4") && !words[0].equals("search")) {
+                throw InvalidInputException.forInvalidMenuChoice(input);
+            }
+
+            switch (words[0]) {
                 case "1":
                     executeQuestCommand();
                     break;
@@ -105,7 +126,10 @@ public class CLIApplication {
                     executeBadgeCommand();
                     break;
                 case "4":
-                    executeGlossaryCommand();
+                    executeGlossaryCommand(args);
+                    break;
+                case "search":
+                    executeSearchCommand(args);
                     break;
                 case "5":
                     console.println("Exiting application...");
@@ -128,6 +152,7 @@ public class CLIApplication {
                         questService.getQuestCollection(),
                         badgeManager,
                         console,
+                        questionDeck,
                         false); // Interactive mode for production
         questCommand.execute(new String[] {});
 
@@ -153,8 +178,17 @@ public class CLIApplication {
         badgeCommand.execute(new String[] {});
     }
 
-    private void executeGlossaryCommand() {
-        GlossaryCommand glossaryCommand = new GlossaryCommand(glossaryService);
-        glossaryCommand.execute(new String[] {});
+    private void executeGlossaryCommand(String[] args) {
+        GlossaryCommand glossaryCommand = new GlossaryCommand(glossaryService, userSession);
+        glossaryCommand.execute(args);
+    }
+
+    /** The search index is built on first use and then follows the shared glossary */
+    private void executeSearchCommand(String[] args) {
+        if (searchService == null) {
+            searchService =
+                    new SearchService(questService, QuestionBank.defaultSource(), glossaryService);
+        }
+        new SearchCommand(searchService).execute(args);
     }
 }
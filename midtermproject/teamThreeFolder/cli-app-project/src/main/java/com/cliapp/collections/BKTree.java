@@ -0,0 +1,316 @@
+package com.cliapp.collections;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Burkhard-Keller tree of distinct keys under Levenshtein distance. Each child hangs off its parent
+ * at their edit distance, so by the triangle inequality a query within distance k only has to
+ * descend into children whose edge lies in [d - k, d + k]. Removed keys are tombstoned and the tree
+ * is rebuilt once tombstones outnumber live keys.
+ */
+public class BKTree {
+
+    private static final int MIN_TOMBSTONES_BEFORE_REBUILD = 64;
+
+    private Node root;
+    private int size;
+    private int tombstones;
+    private final LongAdder distanceComputations = new LongAdder();
+
+    /** Add a key; returns false if it was already present */
+    public boolean add(String key) {
+        if (root == null) {
+            root = new Node(key);
+            size++;
+            return true;
+        }
+
+        Node node = root;
+        while (true) {
+            int distance = distance(key, node.key);
+            if (distance == 0) {
+                if (node.removed) {
+                    node.removed = false;
+                    tombstones--;
+                    size++;
+                    return true;
+                }
+                return false;
+            }
+
+            Node child = node.child(distance);
+            if (child == null) {
+                node.addChild(distance, new Node(key));
+                size++;
+                return true;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Add many keys; returns how many were not already present. A batch at least as large as the
+     * tree rebuilds it once from every live key, computing each key's distance to one node per
+     * level and sizing every child array exactly; a smaller batch is added key by key.
+     */
+    public int addAll(Collection<String> keys) {
+        if (keys.size() < size) {
+            int added = 0;
+            for (String key : keys) {
+                if (add(key)) {
+                    added++;
+                }
+            }
+            return added;
+        }
+
+        Set<String> all = new LinkedHashSet<>(liveKeys());
+        int before = all.size();
+        all.addAll(keys);
+        build(new ArrayList<>(all));
+        return all.size() - before;
+    }
+
+    /** Remove a key; returns false if it was not present */
+    public boolean remove(String key) {
+        Node node = root;
+        while (node != null) {
+            int distance = distance(key, node.key);
+            if (distance == 0) {
+                if (node.removed) {
+                    return false;
+                }
+                node.removed = true;
+                tombstones++;
+                size--;
+                if (tombstones >= MIN_TOMBSTONES_BEFORE_REBUILD && tombstones > size) {
+                    rebuild();
+                }
+                return true;
+            }
+            node = node.child(distance);
+        }
+        return false;
+    }
+
+    /** Live keys within maxDistance of the query, closest first, then alphabetically */
+    public List<Match> search(String query, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        if (root == null || query == null || maxDistance < 0) {
+            return matches;
+        }
+
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            // Past maxEdge + maxDistance no child can qualify, so the exact value stops mattering
+            int distance = distance(query, node.key, node.maxEdge + maxDistance);
+            if (distance <= maxDistance && !node.removed) {
+                matches.add(new Match(node.key, distance));
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                if (Math.abs(node.distances[i] - distance) <= maxDistance) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+
+        matches.sort(Comparator.comparingInt(Match::getDistance).thenComparing(Match::getKey));
+        return matches;
+    }
+
+    /** Number of live keys */
+    public int size() {
+        return size;
+    }
+
+    /** Total edit distances computed so far, for measuring how much of the tree a query visits */
+    public long getDistanceComputations() {
+        return distanceComputations.sum();
+    }
+
+    private void rebuild() {
+        build(liveKeys());
+    }
+
+    private List<String> liveKeys() {
+        List<String> live = new ArrayList<>(size);
+        if (root == null) {
+            return live;
+        }
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (!node.removed) {
+                live.add(node.key);
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                pending.push(node.children[i]);
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Replace the tree with one over the distinct keys, built top-down: the keys under a node are
+     * grouped by their distance to it and each group becomes one child subtree
+     */
+    private void build(List<String> keys) {
+        root = null;
+        size = keys.size();
+        tombstones = 0;
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        root = new Node(keys.get(0));
+        Deque<Node> nodes = new ArrayDeque<>();
+        Deque<List<String>> below = new ArrayDeque<>();
+        nodes.push(root);
+        below.push(keys.subList(1, keys.size()));
+        while (!nodes.isEmpty()) {
+            Node node = nodes.pop();
+            Map<Integer, List<String>> groups = new TreeMap<>();
+            for (String key : below.pop()) {
+                groups.computeIfAbsent(distance(key, node.key), d -> new ArrayList<>()).add(key);
+            }
+            node.distances = new int[Math.max(2, groups.size())];
+            node.children = new Node[node.distances.length];
+            for (Map.Entry<Integer, List<String>> group : groups.entrySet()) {
+                List<String> subtree = group.getValue();
+                Node child = new Node(subtree.get(0));
+                node.addChild(group.getKey(), child);
+                if (subtree.size() > 1) {
+                    nodes.push(child);
+                    below.push(subtree.subList(1, subtree.size()));
+                }
+            }
+        }
+    }
+
+    private int distance(String a, String b) {
+        return distance(a, b, Integer.MAX_VALUE);
+    }
+
+    private int distance(String a, String b, int limit) {
+        distanceComputations.increment();
+        return levenshtein(a, b, limit);
+    }
+
+    /** Edit distance between two strings */
+    static int levenshtein(String a, String b) {
+        return levenshtein(a, b, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Two-row dynamic programming edit distance that gives up with {@code limit + 1} as soon as a
+     * whole row exceeds the limit. Shared prefixes and suffixes ("git ...") are skipped first.
+     */
+    static int levenshtein(String a, String b, int limit) {
+        int start = 0;
+        int endA = a.length();
+        int endB = b.length();
+        while (start < endA && start < endB && a.charAt(start) == b.charAt(start)) {
+            start++;
+        }
+        while (endA > start && endB > start && a.charAt(endA - 1) == b.charAt(endB - 1)) {
+            endA--;
+            endB--;
+        }
+
+        int lengthA = endA - start;
+        int lengthB = endB - start;
+        if (Math.abs(lengthA - lengthB) > limit) {
+            return limit + 1;
+        }
+
+        int[] previous = new int[lengthB + 1];
+        int[] current = new int[lengthB + 1];
+        for (int j = 0; j <= lengthB; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= lengthA; i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            char charA = a.charAt(start + i - 1);
+            for (int j = 1; j <= lengthB; j++) {
+                int substitution = previous[j - 1] + (charA == b.charAt(start + j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[lengthB];
+    }
+
+    /** A key found by {@link #search} and its edit distance from the query */
+    public static final class Match {
+        private final String key;
+        private final int distance;
+
+        public Match(String key, int distance) {
+            this.key = key;
+            this.distance = distance;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    private static final class Node {
+        private final String key;
+        private boolean removed;
+        private int[] distances = new int[2];
+        private Node[] children = new Node[2];
+        private int childCount;
+        private int maxEdge;
+
+        private Node(String key) {
+            this.key = key;
+        }
+
+        private Node child(int distance) {
+            for (int i = 0; i < childCount; i++) {
+                if (distances[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private void addChild(int distance, Node child) {
+            if (childCount == children.length) {
+                distances = Arrays.copyOf(distances, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            distances[childCount] = distance;
+            children[childCount] = child;
+            childCount++;
+            maxEdge = Math.max(maxEdge, distance);
+        }
+    }
+}
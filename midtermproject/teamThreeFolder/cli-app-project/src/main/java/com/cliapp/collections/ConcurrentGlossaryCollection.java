@@ -0,0 +1,289 @@
+package com.cliapp.collections;
+
+import com.cliapp.domain.GlossaryEntry;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe glossary collection for sharing one glossary between many sessions. It guards a
+ * single mutable {@link GlossaryCollection} with a {@link StampedLock} instead of inheriting one:
+ * writers take the write lock and change it in place, at the cost of one ordinary change, and use
+ * {@link #apply} to make a batch visible at once. Point reads (lookups, size, version) run
+ * optimistically without locking and are retried under the read lock if a write overlapped them;
+ * searches and listings take the read lock, so readers only wait while a write is in progress.
+ *
+ * <p>Change listeners are told after the write lock is released, in the order the changes were
+ * made, so they may read the collection.
+ */
+public class ConcurrentGlossaryCollection extends GlossaryCollection {
+
+    private final StampedLock lock = new StampedLock();
+    private final GlossaryCollection entries;
+    private final Queue<Change> changes = new ConcurrentLinkedQueue<>();
+    private final Object deliveryLock = new Object();
+    private volatile long version;
+    private long changeCount;
+
+    public ConcurrentGlossaryCollection() {
+        this(new GlossaryCollection());
+    }
+
+    /** Start from a copy of the given entries */
+    public ConcurrentGlossaryCollection(Iterable<GlossaryEntry> entries) {
+        this(copyOf(entries));
+    }
+
+    private ConcurrentGlossaryCollection(GlossaryCollection entries) {
+        super(false);
+        this.entries = entries;
+        // Built once up front; writes then keep it current, so reads never build it
+        entries.buildCrossReferences();
+        entries.addChangeListener(
+                (key, entry) -> {
+                    changeCount++;
+                    changes.add(new Change(key, entry));
+                });
+    }
+
+    /**
+     * Guard an already built collection without copying it. The caller hands it over and must not
+     * use it directly afterwards.
+     */
+    public static ConcurrentGlossaryCollection wrap(GlossaryCollection entries) {
+        return new ConcurrentGlossaryCollection(entries);
+    }
+
+    private static GlossaryCollection copyOf(Iterable<GlossaryEntry> entries) {
+        GlossaryCollection copy = new GlossaryCollection();
+        for (GlossaryEntry entry : entries) {
+            copy.add(entry);
+        }
+        return copy;
+    }
+
+    /**
+     * Apply a batch of changes under one write lock, so readers see none or all of them. The
+     * consumer gets the guarded collection and must not call back into this one.
+     */
+    public void apply(Consumer<GlossaryCollection> batch) {
+        write(
+                () -> {
+                    batch.accept(entries);
+                    return true;
+                });
+    }
+
+    /** Run a change under the write lock, bump the version if it changed anything, then notify */
+    private <T> T write(Supplier<T> change) {
+        T result;
+        long stamp = lock.writeLock();
+        try {
+            long before = changeCount;
+            result = change.get();
+            if (changeCount != before) {
+                version++;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        deliverChanges();
+        return result;
+    }
+
+    /**
+     * Changes are queued under the write lock, so the queue holds them in order; whoever drains it
+     * delivers every queued change, keeping that order across writers
+     */
+    private void deliverChanges() {
+        synchronized (deliveryLock) {
+            for (Change change = changes.poll(); change != null; change = changes.poll()) {
+                fireChanged(change.key, change.entry);
+            }
+        }
+    }
+
+    private <T> T read(Supplier<T> read) {
+        long stamp = lock.readLock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Read without locking and keep the result if no write started meanwhile; otherwise, or if the
+     * overlapping write made the read fail, read again under the read lock. Only for reads that
+     * touch a few fields and cannot loop on inconsistent state.
+     */
+    private <T> T readOptimistically(Supplier<T> read) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = read.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Saw a write half done; the locked read below gets a consistent answer
+            }
+        }
+        return read(read);
+    }
+
+    @Override
+    public boolean add(GlossaryEntry entry) {
+        return write(() -> entries.add(entry));
+    }
+
+    @Override
+    public int putAll(Collection<GlossaryEntry> batch) {
+        return write(() -> entries.putAll(batch));
+    }
+
+    @Override
+    public boolean remove(GlossaryEntry entry) {
+        return write(() -> entries.remove(entry));
+    }
+
+    @Override
+    public boolean update(String command, GlossaryEntry newEntry) {
+        return write(() -> entries.update(command, newEntry));
+    }
+
+    @Override
+    public GlossaryEntry getByCommand(String command) {
+        return readOptimistically(() -> entries.getByCommand(command));
+    }
+
+    @Override
+    public List<String> completeCommand(String prefix, int limit) {
+        return read(() -> entries.completeCommand(prefix, limit));
+    }
+
+    @Override
+    public List<GlossaryEntry> searchFuzzy(String command, int maxDistance) {
+        return read(() -> entries.searchFuzzy(command, maxDistance));
+    }
+
+    @Override
+    public List<GlossaryEntry> getAllEntries() {
+        return read(entries::getAllEntries);
+    }
+
+    /** Cursors are sequence numbers kept by removals and compaction, so they survive writes */
+    @Override
+    public Page getPage(int cursor, int limit) {
+        return read(() -> entries.getPage(cursor, limit));
+    }
+
+    @Override
+    public List<GlossaryEntry> getEntriesByCategory(String category) {
+        return read(() -> entries.getEntriesByCategory(category));
+    }
+
+    /** Read-only copy of the categories in use at the time of the call */
+    @Override
+    public Set<String> getCategories() {
+        return read(
+                () -> Collections.unmodifiableSet(new LinkedHashSet<>(entries.getCategories())));
+    }
+
+    @Override
+    public int getCategorySize(String category) {
+        return read(() -> entries.getCategorySize(category));
+    }
+
+    @Override
+    public List<GlossaryEntry> searchEntries(String keyword) {
+        return read(() -> entries.searchEntries(keyword));
+    }
+
+    @Override
+    public List<GlossaryEntry> searchEntriesByScan(String keyword) {
+        return read(() -> entries.searchEntriesByScan(keyword));
+    }
+
+    @Override
+    List<GlossaryEntry> scanEntries(String keyword) {
+        return read(() -> entries.scanEntries(keyword));
+    }
+
+    /** Evaluates the whole query under one read lock, so every access path sees the same entries */
+    @Override
+    public List<GlossaryEntry> query(GlossaryQuery query) {
+        return read(() -> entries.query(query));
+    }
+
+    @Override
+    List<String> explain(GlossaryQuery query) {
+        return read(() -> entries.explain(query));
+    }
+
+    /** Unguarded; only {@link #query} and {@link #explain} use it, under the read lock */
+    @Override
+    GlossaryQuery.Source querySource() {
+        return entries.querySource();
+    }
+
+    @Override
+    public List<GlossaryEntry> searchRanked(String query, int limit) {
+        return read(() -> entries.searchRanked(query, limit));
+    }
+
+    @Override
+    public List<GlossaryEntry> getRelated(String command) {
+        return read(() -> entries.getRelated(command));
+    }
+
+    /** The graph is built when the collection is created and kept current by every write */
+    @Override
+    public void buildCrossReferences() {}
+
+    /** Bumped once per write or batch that changed an entry */
+    @Override
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public int size() {
+        return readOptimistically(entries::size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return readOptimistically(entries::isEmpty);
+    }
+
+    @Override
+    int getSlotCount() {
+        return read(entries::getSlotCount);
+    }
+
+    /** Iterates a copy taken when the iterator was created; remove() is not supported */
+    @Override
+    public Iterator<GlossaryEntry> iterator() {
+        return Collections.unmodifiableList(getAllEntries()).iterator();
+    }
+
+    /** A change seen on the guarded collection, waiting to be passed on */
+    private static final class Change {
+        private final String key;
+        private final GlossaryEntry entry;
+
+        private Change(String key, GlossaryEntry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+}
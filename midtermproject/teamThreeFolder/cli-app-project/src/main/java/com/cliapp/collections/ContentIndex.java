@@ -0,0 +1,191 @@
+package com.cliapp.collections;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One BM25 index over every kind of searchable content, so a query is answered by a single pass
+ * over one set of posting lists and a single top-K heap instead of a search per content type.
+ * Documents are addressed by their type and a caller-chosen key; putting a key again replaces its
+ * document. Document ids are reissued once retired ids outnumber the live documents.
+ */
+public class ContentIndex {
+
+    private static final int MIN_GARBAGE_BEFORE_COMPACTION = 64;
+
+    /** Kind of content a hit points at */
+    public enum Type {
+        QUEST,
+        MODULE,
+        QUESTION,
+        GLOSSARY
+    }
+
+    private InvertedIndex textIndex;
+    private final Map<Integer, Document> documents;
+    private final Map<Type, Map<String, Integer>> docIds;
+    private int nextDocId;
+
+    public ContentIndex() {
+        this.textIndex = new InvertedIndex();
+        this.documents = new HashMap<>();
+        this.docIds = new EnumMap<>(Type.class);
+        for (Type type : Type.values()) {
+            docIds.put(type, new HashMap<>());
+        }
+    }
+
+    /**
+     * Index a document under its type and key, replacing the previous one; the title is searched
+     * too
+     */
+    public void put(Type type, String key, String title, String... fields) {
+        if (type == null || key == null) {
+            return;
+        }
+        removeDocument(docIds.get(type).get(key));
+
+        String[] text = new String[fields.length + 1];
+        text[0] = title;
+        System.arraycopy(fields, 0, text, 1, fields.length);
+        int docId = nextDocId++;
+        textIndex.add(docId, text);
+        documents.put(docId, new Document(type, key, title, text));
+        docIds.get(type).put(key, docId);
+        compactIfSparse();
+    }
+
+    /** Remove a document; returns false if none was indexed under the type and key */
+    public boolean remove(Type type, String key) {
+        if (type == null || key == null) {
+            return false;
+        }
+        Integer docId = docIds.get(type).remove(key);
+        if (docId == null) {
+            return false;
+        }
+        removeDocument(docId);
+        compactIfSparse();
+        return true;
+    }
+
+    /** Whether a document is indexed under the type and key */
+    public boolean contains(Type type, String key) {
+        return type != null && docIds.get(type).containsKey(key);
+    }
+
+    /** Keys of the documents of one type */
+    public Set<String> keys(Type type) {
+        return Collections.unmodifiableSet(docIds.get(type).keySet());
+    }
+
+    /** Number of documents of every type */
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Rank every type of content against the query words and return the best {@code limit} hits,
+     * best first, each tagged with its type and key.
+     */
+    public List<Hit> search(String query, int limit) {
+        List<Hit> hits = new ArrayList<>();
+        for (InvertedIndex.Hit hit : textIndex.search(query, limit)) {
+            Document document = documents.get(hit.getDocId());
+            hits.add(new Hit(document.type, document.key, document.title, hit.getScore()));
+        }
+        return hits;
+    }
+
+    private void removeDocument(Integer docId) {
+        if (docId != null) {
+            textIndex.remove(docId);
+            documents.remove(docId);
+        }
+    }
+
+    /** Re-add the live documents under fresh ids once retired ids outweigh them */
+    private void compactIfSparse() {
+        int garbage = nextDocId - documents.size();
+        if (garbage < MIN_GARBAGE_BEFORE_COMPACTION || garbage <= documents.size()) {
+            return;
+        }
+
+        // Re-add in old id order so ties between equal scores still break the same way
+        List<Integer> oldIds = new ArrayList<>(documents.keySet());
+        Collections.sort(oldIds);
+        List<Document> live = new ArrayList<>(oldIds.size());
+        for (int docId : oldIds) {
+            live.add(documents.get(docId));
+        }
+
+        textIndex = new InvertedIndex();
+        documents.clear();
+        nextDocId = 0;
+        for (Type type : Type.values()) {
+            docIds.get(type).clear();
+        }
+        for (Document document : live) {
+            int docId = nextDocId++;
+            textIndex.add(docId, document.text);
+            documents.put(docId, document);
+            docIds.get(document.type).put(document.key, docId);
+        }
+    }
+
+    /** Indexed document: its address, title and the text it was indexed from */
+    private static final class Document {
+        private final Type type;
+        private final String key;
+        private final String title;
+        private final String[] text;
+
+        private Document(Type type, String key, String title, String[] text) {
+            this.type = type;
+            this.key = key;
+            this.title = title;
+            this.text = text;
+        }
+    }
+
+    /** A ranked search result pointing at one piece of content */
+    public static final class Hit {
+        private final Type type;
+        private final String key;
+        private final String title;
+        private final double score;
+
+        public Hit(Type type, String key, String title, double score) {
+            this.type = type;
+            this.key = key;
+            this.title = title;
+            this.score = score;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + key + " (" + score + ")";
+        }
+    }
+}
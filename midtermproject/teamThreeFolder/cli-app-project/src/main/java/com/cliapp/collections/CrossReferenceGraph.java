@@ -0,0 +1,640 @@
+package com.cliapp.collections;
+
+import com.cliapp.domain.GlossaryEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+/**
+ * "See also" graph between glossary entries, keyed by lowercased command. An entry mentions another
+ * when its definition contains the other's command words without the leading "git" (so "Download
+ * and merge changes" mentions "git merge"), or when its example contains the other's whole command.
+ *
+ * <p>Edges are stored in both directions as CSR arrays: one offsets array and one flat array of
+ * node ids per direction, so a lookup reads one contiguous slice in place and costs O(degree).
+ * Changes are applied incrementally: a node whose edges changed gets a private sorted row that
+ * shadows its CSR slice, found through token postings rather than by rescanning the glossary. Words
+ * are interned to term ids, so nodes hold int arrays and each posting is a sorted int array indexed
+ * by term id. Once shadowed rows or removed nodes outweigh the rest, everything is packed back into
+ * fresh CSR arrays and the terms are renumbered.
+ */
+public class CrossReferenceGraph {
+
+    private static final int MIN_GARBAGE_BEFORE_COMPACTION = 64;
+    private static final String GIT = "git";
+    private static final int[] NO_EDGES = new int[0];
+
+    private final Map<String, Integer> nodeIds;
+    private final List<Node> nodes;
+    private final Map<String, Integer> termIds;
+    private IdList[] nodesByNameStart;
+    private IdList[] nodesByTextToken;
+    private int liveCount;
+
+    private final Rows out;
+    private final Rows in;
+
+    public CrossReferenceGraph() {
+        this.nodeIds = new HashMap<>();
+        this.nodes = new ArrayList<>();
+        this.termIds = new HashMap<>();
+        this.nodesByNameStart = new IdList[0];
+        this.nodesByTextToken = new IdList[0];
+        this.out = new Rows();
+        this.in = new Rows();
+    }
+
+    /** Build the graph over all entries at once; a later entry for the same command wins */
+    public static CrossReferenceGraph of(Iterable<GlossaryEntry> entries) {
+        Map<String, GlossaryEntry> latest = new LinkedHashMap<>();
+        for (GlossaryEntry entry : entries) {
+            if (entry != null && entry.getCommand() != null) {
+                latest.put(entry.getCommand().toLowerCase(), entry);
+            }
+        }
+
+        CrossReferenceGraph graph = new CrossReferenceGraph();
+        for (Map.Entry<String, GlossaryEntry> entry : latest.entrySet()) {
+            graph.addNode(entry.getKey(), entry.getValue());
+        }
+        int[][] rows = new int[graph.nodes.size()][];
+        for (int id = 0; id < rows.length; id++) {
+            rows[id] = graph.mentionsOf(id);
+        }
+        graph.pack(rows);
+        return graph;
+    }
+
+    /** Add or replace the entry under its lowercased command key, updating only affected rows */
+    public void put(String key, GlossaryEntry entry) {
+        Integer existing = nodeIds.get(key);
+        if (existing != null) {
+            Node node = nodes.get(existing);
+            if (node.entry == entry) {
+                return;
+            }
+            unindexText(existing);
+            node.setText(entry, this::termId);
+            indexText(existing);
+            setOutEdges(existing, mentionsOf(existing));
+            return;
+        }
+
+        int id = addNode(key, entry);
+        setOutEdges(id, mentionsOf(id));
+        // Entries already mentioning the new command contain the first word of its name
+        Node node = nodes.get(id);
+        IdList candidates = nodesByTextToken[node.name[0]];
+        for (int i = 0; candidates != null && i < candidates.size; i++) {
+            int source = candidates.ids[i];
+            if (source != id && nodes.get(source).mentions(node)) {
+                out.insert(source, id);
+                in.insert(id, source);
+            }
+        }
+    }
+
+    /** Remove the entry under the key and every edge touching it */
+    public boolean remove(String key) {
+        Integer id = nodeIds.remove(key);
+        if (id == null) {
+            return false;
+        }
+        int[] sources = in.array(id);
+        for (int i = in.from(id); i < in.to(id); i++) {
+            out.delete(sources[i], id);
+        }
+        in.set(id, NO_EDGES);
+        setOutEdges(id, NO_EDGES);
+        unindexText(id);
+        nodesByNameStart[nodes.get(id).name[0]].remove(id);
+        nodes.set(id, null);
+        liveCount--;
+        compactIfSparse();
+        return true;
+    }
+
+    /** Entries whose command the given command's entry mentions */
+    public List<GlossaryEntry> getMentions(String command) {
+        Integer id = command == null ? null : nodeIds.get(command.toLowerCase());
+        List<GlossaryEntry> result = new ArrayList<>();
+        if (id != null) {
+            addEntries(result, out, id, null, -1);
+        }
+        return result;
+    }
+
+    /** Entries that mention the given command */
+    public List<GlossaryEntry> getMentionedBy(String command) {
+        Integer id = command == null ? null : nodeIds.get(command.toLowerCase());
+        List<GlossaryEntry> result = new ArrayList<>();
+        if (id != null) {
+            addEntries(result, in, id, null, -1);
+        }
+        return result;
+    }
+
+    /** Entries the command mentions, then entries mentioning it, each listed once */
+    public List<GlossaryEntry> getRelated(String command) {
+        Integer id = command == null ? null : nodeIds.get(command.toLowerCase());
+        List<GlossaryEntry> related = new ArrayList<>();
+        if (id != null) {
+            addEntries(related, out, id, null, -1);
+            addEntries(related, in, id, out, id);
+        }
+        return related;
+    }
+
+    /** Number of commands in the graph */
+    public int size() {
+        return liveCount;
+    }
+
+    /** Number of mention edges */
+    public int getEdgeCount() {
+        int edges = 0;
+        for (int id = 0; id < nodes.size(); id++) {
+            if (nodes.get(id) != null) {
+                edges += out.to(id) - out.from(id);
+            }
+        }
+        return edges;
+    }
+
+    /** Append the entries of a row read in place, skipping ids also in the row {@code skipId} */
+    private void addEntries(
+            List<GlossaryEntry> result, Rows rows, int id, Rows skipRows, int skipId) {
+        int[] ids = rows.array(id);
+        for (int i = rows.from(id); i < rows.to(id); i++) {
+            if (skipRows == null || !skipRows.contains(skipId, ids[i])) {
+                result.add(nodes.get(ids[i]).entry);
+            }
+        }
+    }
+
+    private int termId(String term) {
+        Integer existing = termIds.get(term);
+        if (existing != null) {
+            return existing;
+        }
+        int id = termIds.size();
+        termIds.put(term, id);
+        if (id == nodesByNameStart.length) {
+            int capacity = Math.max(16, id * 2);
+            nodesByNameStart = Arrays.copyOf(nodesByNameStart, capacity);
+            nodesByTextToken = Arrays.copyOf(nodesByTextToken, capacity);
+        }
+        return id;
+    }
+
+    private int addNode(String key, GlossaryEntry entry) {
+        int id = nodes.size();
+        Node node = new Node(key, entry, this::termId);
+        nodes.add(node);
+        nodeIds.put(key, id);
+        postings(nodesByNameStart, node.name[0]).add(id);
+        indexText(id);
+        liveCount++;
+        return id;
+    }
+
+    private static IdList postings(IdList[] byTerm, int term) {
+        if (byTerm[term] == null) {
+            byTerm[term] = new IdList();
+        }
+        return byTerm[term];
+    }
+
+    private void indexText(int id) {
+        for (int term : nodes.get(id).textTerms) {
+            postings(nodesByTextToken, term).add(id);
+        }
+    }
+
+    private void unindexText(int id) {
+        for (int term : nodes.get(id).textTerms) {
+            nodesByTextToken[term].remove(id);
+        }
+    }
+
+    /** Sorted ids of the live nodes the node's text mentions */
+    private int[] mentionsOf(int id) {
+        Node node = nodes.get(id);
+        int[] found = NO_EDGES;
+        int count = 0;
+        for (int term : node.textTerms) {
+            IdList candidates = nodesByNameStart[term];
+            for (int i = 0; candidates != null && i < candidates.size; i++) {
+                int target = candidates.ids[i];
+                if (target != id && node.mentions(nodes.get(target))) {
+                    if (count == found.length) {
+                        found = Arrays.copyOf(found, Math.max(4, count * 2));
+                    }
+                    found[count++] = target;
+                }
+            }
+        }
+        return sortedDistinct(found, count);
+    }
+
+    /** Sorted copy of the first {@code count} values without repeats */
+    private static int[] sortedDistinct(int[] values, int count) {
+        if (count == 0) {
+            return NO_EDGES;
+        }
+        int[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int distinct = 1;
+        for (int i = 1; i < count; i++) {
+            if (sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return distinct == count ? sorted : Arrays.copyOf(sorted, distinct);
+    }
+
+    /** Replace the node's outgoing edges and fix the incoming rows of the targets that changed */
+    private void setOutEdges(int id, int[] targets) {
+        int[] previous = out.array(id);
+        int from = out.from(id);
+        int to = out.to(id);
+        if (Arrays.equals(previous, from, to, targets, 0, targets.length)) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            if (Arrays.binarySearch(targets, previous[i]) < 0) {
+                in.delete(previous[i], id);
+            }
+        }
+        for (int target : targets) {
+            if (Arrays.binarySearch(previous, from, to, target) < 0) {
+                in.insert(target, id);
+            }
+        }
+        out.set(id, targets);
+    }
+
+    /**
+     * Renumber the live nodes and their terms densely and pack every row into CSR arrays once
+     * shadowed rows and removed nodes outnumber the live nodes. O(nodes + edges + words), run at
+     * most once per O(nodes) changes.
+     */
+    private void compactIfSparse() {
+        int garbage = out.shadowCount + (nodes.size() - liveCount);
+        if (garbage < MIN_GARBAGE_BEFORE_COMPACTION || garbage <= liveCount) {
+            return;
+        }
+
+        int[] newIds = new int[nodes.size()];
+        List<Node> live = new ArrayList<>(liveCount);
+        for (int id = 0; id < nodes.size(); id++) {
+            newIds[id] = nodes.get(id) == null ? -1 : live.size();
+            if (nodes.get(id) != null) {
+                live.add(nodes.get(id));
+            }
+        }
+        int[][] rows = new int[live.size()][];
+        for (int id = 0; id < nodes.size(); id++) {
+            if (newIds[id] >= 0) {
+                // Renumbering keeps the order, so rows stay sorted
+                int[] row = Arrays.copyOfRange(out.array(id), out.from(id), out.to(id));
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = newIds[row[i]];
+                }
+                rows[newIds[id]] = row;
+            }
+        }
+
+        String[] terms = new String[termIds.size()];
+        for (Map.Entry<String, Integer> term : termIds.entrySet()) {
+            terms[term.getValue()] = term.getKey();
+        }
+        int[] newTerms = new int[terms.length];
+        Arrays.fill(newTerms, -1);
+        termIds.clear();
+        nodesByNameStart = new IdList[0];
+        nodesByTextToken = new IdList[0];
+        nodes.clear();
+        nodes.addAll(live);
+        nodeIds.clear();
+        IntUnaryOperator renumber =
+                term -> {
+                    if (newTerms[term] < 0) {
+                        newTerms[term] = termId(terms[term]);
+                    }
+                    return newTerms[term];
+                };
+        for (int id = 0; id < nodes.size(); id++) {
+            Node node = nodes.get(id);
+            node.renumberTerms(renumber);
+            nodeIds.put(node.key, id);
+            postings(nodesByNameStart, node.name[0]).add(id);
+            indexText(id);
+        }
+        pack(rows);
+    }
+
+    /** Lay the rows out as forward and reverse CSR arrays, dropping every shadowed row */
+    private void pack(int[][] rows) {
+        int nodeCount = rows.length;
+        int edgeCount = 0;
+        int[] inDegrees = new int[nodeCount];
+        for (int[] row : rows) {
+            edgeCount += row.length;
+            for (int target : row) {
+                inDegrees[target]++;
+            }
+        }
+
+        int[] outOffsets = new int[nodeCount + 1];
+        int[] outTargets = new int[edgeCount];
+        int[] inOffsets = new int[nodeCount + 1];
+        int[] inTargets = new int[edgeCount];
+        for (int id = 0; id < nodeCount; id++) {
+            outOffsets[id + 1] = outOffsets[id] + rows[id].length;
+            System.arraycopy(rows[id], 0, outTargets, outOffsets[id], rows[id].length);
+            inOffsets[id + 1] = inOffsets[id] + inDegrees[id];
+        }
+        // Sources are visited in increasing order, so every reverse row comes out sorted
+        int[] fill = Arrays.copyOf(inOffsets, nodeCount);
+        for (int source = 0; source < nodeCount; source++) {
+            for (int target : rows[source]) {
+                inTargets[fill[target]++] = source;
+            }
+        }
+        out.pack(nodeCount, outOffsets, outTargets);
+        in.pack(nodeCount, inOffsets, inTargets);
+    }
+
+    /**
+     * One direction of edges. A node's row is the slice {@code array(id)[from(id), to(id))}, read
+     * in place: either its CSR slice or, once its edges changed, a private sorted row that shadows
+     * it. Rows are never written in place, so a caller may keep reading a slice while rows change.
+     */
+    private static final class Rows {
+        private int csrNodeCount;
+        private int[] offsets = new int[1];
+        private int[] targets = NO_EDGES;
+        private int[][] shadows = new int[0][];
+        private int shadowCount;
+
+        private int[] shadow(int id) {
+            return id < shadows.length ? shadows[id] : null;
+        }
+
+        int[] array(int id) {
+            int[] shadow = shadow(id);
+            return shadow != null ? shadow : id < csrNodeCount ? targets : NO_EDGES;
+        }
+
+        int from(int id) {
+            return shadow(id) != null || id >= csrNodeCount ? 0 : offsets[id];
+        }
+
+        int to(int id) {
+            int[] shadow = shadow(id);
+            if (shadow != null) {
+                return shadow.length;
+            }
+            return id < csrNodeCount ? offsets[id + 1] : 0;
+        }
+
+        boolean contains(int id, int value) {
+            return Arrays.binarySearch(array(id), from(id), to(id), value) >= 0;
+        }
+
+        void set(int id, int[] row) {
+            if (id >= shadows.length) {
+                shadows = Arrays.copyOf(shadows, Math.max(id + 1, shadows.length * 2));
+            }
+            if (shadows[id] == null) {
+                shadowCount++;
+            }
+            shadows[id] = row;
+        }
+
+        void insert(int id, int value) {
+            int[] row = array(id);
+            int from = from(id);
+            int to = to(id);
+            int at = Arrays.binarySearch(row, from, to, value);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            int[] result = new int[to - from + 1];
+            System.arraycopy(row, from, result, 0, at - from);
+            result[at - from] = value;
+            System.arraycopy(row, at, result, at - from + 1, to - at);
+            set(id, result);
+        }
+
+        void delete(int id, int value) {
+            int[] row = array(id);
+            int from = from(id);
+            int to = to(id);
+            int at = Arrays.binarySearch(row, from, to, value);
+            if (at < 0) {
+                return;
+            }
+            int[] result = new int[to - from - 1];
+            System.arraycopy(row, from, result, 0, at - from);
+            System.arraycopy(row, at + 1, result, at - from, to - at - 1);
+            set(id, result);
+        }
+
+        void pack(int nodeCount, int[] offsets, int[] targets) {
+            this.csrNodeCount = nodeCount;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.shadows = new int[0][];
+            this.shadowCount = 0;
+        }
+    }
+
+    /** Sorted node ids in a growable int array */
+    private static final class IdList {
+        private int[] ids = new int[2];
+        private int size;
+
+        void add(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+
+    /**
+     * Finds which of a fixed list of commands an entry mentions, by the graph's rules, without
+     * keeping any entries; a store writer streams its entries through this to precompute edges.
+     */
+    static final class MentionFinder {
+        private final Map<String, Integer> termIds;
+        private final int[][] commands;
+        private final int[][] names;
+        private final int[][] idsByNameStart;
+
+        /** Commands are identified by their index in the list of lowercased keys */
+        MentionFinder(List<String> keys) {
+            this.termIds = new HashMap<>();
+            this.commands = new int[keys.size()][];
+            this.names = new int[keys.size()][];
+            ToIntFunction<String> terms =
+                    term -> termIds.computeIfAbsent(term, t -> termIds.size());
+            for (int id = 0; id < keys.size(); id++) {
+                String[] words = Node.commandWords(keys.get(id));
+                commands[id] = Node.termIds(words, terms);
+                names[id] = Node.termIds(Node.nameWords(words), terms);
+            }
+            IdList[] byNameStart = new IdList[termIds.size()];
+            for (int id = 0; id < keys.size(); id++) {
+                postings(byNameStart, names[id][0]).add(id);
+            }
+            this.idsByNameStart = new int[byNameStart.length][];
+            for (int term = 0; term < byNameStart.length; term++) {
+                IdList ids = byNameStart[term];
+                idsByNameStart[term] = ids == null ? NO_EDGES : Arrays.copyOf(ids.ids, ids.size);
+            }
+        }
+
+        /** Sorted ids of the commands other than {@code self} that the entry mentions */
+        int[] mentionsOf(int self, GlossaryEntry entry) {
+            // Words that name no command become -1, which matches no run
+            ToIntFunction<String> terms = term -> termIds.getOrDefault(term, -1);
+            int[] definition = Node.termIds(InvertedIndex.tokenize(entry.getDefinition()), terms);
+            int[] example = Node.termIds(InvertedIndex.tokenize(entry.getExample()), terms);
+            int[] text = Arrays.copyOf(definition, definition.length + example.length);
+            System.arraycopy(example, 0, text, definition.length, example.length);
+
+            int[] found = NO_EDGES;
+            int count = 0;
+            for (int term : sortedDistinct(text, text.length)) {
+                for (int target : term < 0 ? NO_EDGES : idsByNameStart[term]) {
+                    if (target != self
+                            && (Node.containsRun(definition, names[target])
+                                    || Node.containsRun(example, commands[target]))) {
+                        if (count == found.length) {
+                            found = Arrays.copyOf(found, Math.max(4, count * 2));
+                        }
+                        found[count++] = target;
+                    }
+                }
+            }
+            return sortedDistinct(found, count);
+        }
+    }
+
+    /** A command's words and the words of its entry's definition and example, as term ids */
+    private static final class Node {
+        private final String key;
+        private int[] command;
+        private int[] name;
+        private GlossaryEntry entry;
+        private int[] definition;
+        private int[] example;
+        private int[] textTerms;
+
+        private Node(String key, GlossaryEntry entry, ToIntFunction<String> terms) {
+            this.key = key;
+            String[] words = commandWords(key);
+            this.command = termIds(words, terms);
+            this.name = termIds(nameWords(words), terms);
+            setText(entry, terms);
+        }
+
+        static String[] commandWords(String key) {
+            List<String> words = InvertedIndex.tokenize(key);
+            return words.isEmpty() ? new String[] {key} : words.toArray(new String[0]);
+        }
+
+        /** "git merge" is mentioned as "merge"; a bare "git" keeps its only word */
+        static String[] nameWords(String[] command) {
+            return command.length > 1 && command[0].equals(GIT)
+                    ? Arrays.copyOfRange(command, 1, command.length)
+                    : command;
+        }
+
+        static int[] termIds(String[] words, ToIntFunction<String> terms) {
+            int[] ids = new int[words.length];
+            for (int i = 0; i < words.length; i++) {
+                ids[i] = terms.applyAsInt(words[i]);
+            }
+            return ids;
+        }
+
+        static int[] termIds(List<String> words, ToIntFunction<String> terms) {
+            int[] ids = new int[words.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = terms.applyAsInt(words.get(i));
+            }
+            return ids;
+        }
+
+        private void setText(GlossaryEntry entry, ToIntFunction<String> terms) {
+            this.entry = entry;
+            this.definition = termIds(InvertedIndex.tokenize(entry.getDefinition()), terms);
+            this.example = termIds(InvertedIndex.tokenize(entry.getExample()), terms);
+            refreshTextTerms();
+        }
+
+        private void refreshTextTerms() {
+            int[] all = Arrays.copyOf(definition, definition.length + example.length);
+            System.arraycopy(example, 0, all, definition.length, example.length);
+            this.textTerms = sortedDistinct(all, all.length);
+        }
+
+        private void renumberTerms(IntUnaryOperator renumber) {
+            command = renumber(command, renumber);
+            name = command.length == name.length ? command : renumber(name, renumber);
+            definition = renumber(definition, renumber);
+            example = renumber(example, renumber);
+            refreshTextTerms();
+        }
+
+        private static int[] renumber(int[] terms, IntUnaryOperator renumber) {
+            int[] result = new int[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                result[i] = renumber.applyAsInt(terms[i]);
+            }
+            return result;
+        }
+
+        private boolean mentions(Node other) {
+            return containsRun(definition, other.name) || containsRun(example, other.command);
+        }
+
+        static boolean containsRun(int[] terms, int[] run) {
+            outer:
+            for (int i = 0; i + run.length <= terms.length; i++) {
+                for (int j = 0; j < run.length; j++) {
+                    if (terms[i + j] != run[j]) {
+                        continue outer;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -2,39 +2,186 @@ package com.cliapp.collections;
 
 import com.cliapp.domain.GlossaryEntry;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Custom data structure for managing glossary entries SOLID: Single Responsibility - manages only
  * glossary entries
+ *
+ * <p>Entries live in stable slots that keep insertion order. Removing an entry tombstones its slot
+ * and updating one overwrites the slot in place, so neither shifts the entries behind it; slots are
+ * compacted once tombstones outnumber live entries. The search indexes are keyed by append-only
+ * document ids, reissued only by compaction, and each slot records the id of its current entry.
+ * Each slot also carries an increasing sequence number that compaction keeps, so page cursors stay
+ * valid across it.
  */
 public class GlossaryCollection implements Iterable<GlossaryEntry> {
 
-    private final List<GlossaryEntry> entries;
+    private static final int MIN_GARBAGE_BEFORE_COMPACTION = 64;
+
+    private GlossaryEntry[] slots;
+    private int[] slotDocIds;
+    private int[] slotSequences;
+    private int[] docSlots;
+    private final BitSet liveSlots;
+    private int slotCount;
+    private int liveCount;
+    private int nextDocId;
+    private int nextSequence;
+    private int modCount;
+    private long version;
+
     private final Map<String, GlossaryEntry> commandIndex;
+    private final Map<String, int[]> commandSlots;
+    private final PrefixIndex commandPrefixes;
+    private final BKTree commandDistances;
+    private final Map<String, TreeMap<Integer, GlossaryEntry>> categoryIndex;
+    private final Map<String, Integer> categoryCounts;
+    private InvertedIndex textIndex;
+    private TrigramIndex substringIndex;
+    private TextColumn substringColumn;
+    private CrossReferenceGraph crossReferences;
+    private final List<ChangeListener> listeners;
+
+    /** Told about every change to the entry a command looks up */
+    public interface ChangeListener {
+        /** The entry now served for the lowercased command key, or null once it is removed */
+        void changed(String key, GlossaryEntry entry);
+    }
 
     public GlossaryCollection() {
-        this.entries = new ArrayList<>();
-        this.commandIndex = new HashMap<>();
+        this(true);
+    }
+
+    /**
+     * Without storage, for subclasses that keep their entries elsewhere and override every access
+     * path, only the listener list is allocated and none of the slots or indexes
+     */
+    GlossaryCollection(boolean withStorage) {
+        int capacity = withStorage ? 16 : 0;
+        this.slots = new GlossaryEntry[capacity];
+        this.slotDocIds = new int[capacity];
+        this.slotSequences = new int[capacity];
+        this.docSlots = new int[capacity];
+        this.liveSlots = withStorage ? new BitSet() : null;
+        this.commandIndex = withStorage ? new HashMap<>() : null;
+        this.commandSlots = withStorage ? new HashMap<>() : null;
+        this.commandPrefixes = withStorage ? new PrefixIndex() : null;
+        this.commandDistances = withStorage ? new BKTree() : null;
+        this.categoryIndex = withStorage ? new HashMap<>() : null;
+        this.categoryCounts = withStorage ? new HashMap<>() : null;
+        this.textIndex = withStorage ? new InvertedIndex() : null;
+        this.substringIndex = withStorage ? new TrigramIndex() : null;
+        this.substringColumn = withStorage ? new TextColumn() : null;
+        this.listeners = new CopyOnWriteArrayList<>();
     }
 
     /** Add a glossary entry to the collection */
     public boolean add(GlossaryEntry entry) {
         if (entry != null && entry.getCommand() != null) {
-            entries.add(entry);
-            commandIndex.put(entry.getCommand().toLowerCase(), entry);
+            if (slotCount == slots.length) {
+                slots = Arrays.copyOf(slots, slotCount * 2);
+                slotDocIds = Arrays.copyOf(slotDocIds, slotCount * 2);
+                slotSequences = Arrays.copyOf(slotSequences, slotCount * 2);
+            }
+            int slot = slotCount++;
+            slots[slot] = entry;
+            slotSequences[slot] = nextSequence++;
+            liveSlots.set(slot);
+            liveCount++;
+            modCount++;
+
+            String key = entry.getCommand().toLowerCase();
+            commandIndex.put(key, entry);
+            commandPrefixes.add(key);
+            commandDistances.add(key);
+            indexEntry(slot, entry);
+            refreshCrossReferences(key);
+            version++;
+            fireChanged(key, entry);
             return true;
         }
         return false;
     }
 
+    /**
+     * Add many entries at once, as a bulk import does. An entry whose command is already present
+     * replaces it like {@link #update}; within the batch the last entry per command wins. New
+     * entries are appended into slots sized once, completion keys are merged in one sort, the text
+     * and trigram postings grow once per term and the fuzzy-match tree is built once for the batch,
+     * and the version and cross-reference graph change once rather than once per add. Returns the
+     * number of entries appended.
+     */
+    public int putAll(Collection<GlossaryEntry> entries) {
+        Map<String, GlossaryEntry> appended = new LinkedHashMap<>();
+        for (GlossaryEntry entry : entries) {
+            if (entry == null || entry.getCommand() == null) {
+                continue;
+            }
+            String key = entry.getCommand().toLowerCase();
+            if (commandIndex.containsKey(key)) {
+                update(key, entry);
+            } else {
+                appended.put(key, entry);
+            }
+        }
+
+        int capacity = slotCount + appended.size();
+        if (capacity > slots.length) {
+            slots = Arrays.copyOf(slots, capacity);
+            slotDocIds = Arrays.copyOf(slotDocIds, capacity);
+            slotSequences = Arrays.copyOf(slotSequences, capacity);
+        }
+        if (nextDocId + appended.size() > docSlots.length) {
+            docSlots = Arrays.copyOf(docSlots, nextDocId + appended.size());
+        }
+        int firstDocId = nextDocId;
+        List<String[]> textFields = new ArrayList<>(appended.size());
+        List<String[]> substringFields = new ArrayList<>(appended.size());
+        for (Map.Entry<String, GlossaryEntry> entry : appended.entrySet()) {
+            int slot = slotCount++;
+            slots[slot] = entry.getValue();
+            slotSequences[slot] = nextSequence++;
+            liveSlots.set(slot);
+            liveCount++;
+            commandIndex.put(entry.getKey(), entry.getValue());
+            indexSlot(slot, entry.getValue());
+            textFields.add(textFields(entry.getValue()));
+            substringFields.add(substringFields(entry.getValue()));
+        }
+        textIndex.addAll(firstDocId, textFields);
+        substringIndex.addAll(firstDocId, substringFields);
+        commandDistances.addAll(appended.keySet());
+        commandPrefixes.addAll(appended.keySet());
+        modCount++;
+        version++;
+
+        if (crossReferences != null && !appended.isEmpty()) {
+            crossReferences = CrossReferenceGraph.of(this);
+        }
+        for (Map.Entry<String, GlossaryEntry> entry : appended.entrySet()) {
+            fireChanged(entry.getKey(), entry.getValue());
+        }
+        return appended.size();
+    }
+
     /** Remove a glossary entry from the collection */
     public boolean remove(GlossaryEntry entry) {
-        if (entry != null) {
-            boolean removed = entries.remove(entry);
-            if (removed && entry.getCommand() != null) {
-                commandIndex.remove(entry.getCommand().toLowerCase());
+        if (entry != null && entry.getCommand() != null) {
+            int slot = firstSlot(entry.getCommand());
+            if (slot < 0) {
+                return false;
             }
-            return removed;
+            removeSlot(slot);
+            String key = entry.getCommand().toLowerCase();
+            commandIndex.remove(key);
+            commandPrefixes.remove(key);
+            commandDistances.remove(key);
+            refreshCrossReferences(key);
+            compactIfSparse();
+            version++;
+            fireChanged(key, null);
+            return true;
         }
         return false;
     }
@@ -43,9 +190,15 @@ public class GlossaryCollection implements Iterable<GlossaryEntry> {
     public boolean update(String command, GlossaryEntry newEntry) {
         GlossaryEntry existing = getByCommand(command);
         if (existing != null && newEntry != null) {
-            int index = entries.indexOf(existing);
-            entries.set(index, newEntry);
+            int slot = firstSlot(existing.getCommand());
+            unindexEntry(slot);
+            slots[slot] = newEntry;
             commandIndex.put(command.toLowerCase(), newEntry);
+            indexEntry(slot, newEntry);
+            refreshCrossReferences(command.toLowerCase());
+            compactIfSparse();
+            version++;
+            fireChanged(command.toLowerCase(), newEntry);
             return true;
         }
         return false;
@@ -59,28 +212,136 @@ public class GlossaryCollection implements Iterable<GlossaryEntry> {
         return null;
     }
 
-    /** Get all glossary entries */
-    public List<GlossaryEntry> getAllEntries() {
-        return new ArrayList<>(entries);
+    /**
+     * Get up to {@code limit} commands starting with the prefix, ignoring case, in alphabetical
+     * order. Uses a binary search over the sorted command keys instead of scanning the entries.
+     */
+    public List<String> completeCommand(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        if (prefix != null) {
+            for (String key : commandPrefixes.complete(prefix.toLowerCase(), limit)) {
+                result.add(commandIndex.get(key).getCommand());
+            }
+        }
+        return result;
     }
 
-    /** Get entries by category */
-    public List<GlossaryEntry> getEntriesByCategory(String category) {
+    /**
+     * Get entries whose command is within maxDistance edits of the given one, ignoring case,
+     * closest first. Catches typos such as "git comit" without comparing against every command.
+     */
+    public List<GlossaryEntry> searchFuzzy(String command, int maxDistance) {
         List<GlossaryEntry> result = new ArrayList<>();
-        for (GlossaryEntry entry : entries) {
-            if (category != null && category.equals(entry.getCategory())) {
-                result.add(entry);
+        if (command != null) {
+            for (BKTree.Match match : commandDistances.search(command.toLowerCase(), maxDistance)) {
+                result.add(commandIndex.get(match.getKey()));
             }
         }
         return result;
     }
 
-    /** Search entries by keyword */
+    /** Get all glossary entries */
+    public List<GlossaryEntry> getAllEntries() {
+        List<GlossaryEntry> result = new ArrayList<>(liveCount);
+        for (GlossaryEntry entry : this) {
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Get up to {@code limit} entries starting at a cursor, without copying the rest of the
+     * collection. Start with cursor 0 and pass each page's {@link Page#getNextCursor()} to
+     * continue. Cursors are slot sequence numbers, which removals and compaction leave alone, so a
+     * held cursor neither skips nor repeats entries; entries added later show up on the last page.
+     */
+    public Page getPage(int cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+        List<GlossaryEntry> window = new ArrayList<>(Math.min(limit, liveCount));
+        int slot = cursor < 0 ? -1 : liveSlots.nextSetBit(firstSlotAtOrAfter(cursor));
+        while (slot >= 0 && window.size() < limit) {
+            window.add(slots[slot]);
+            slot = liveSlots.nextSetBit(slot + 1);
+        }
+        return new Page(window, slot < 0 ? -1 : slotSequences[slot]);
+    }
+
+    private int firstSlotAtOrAfter(int sequence) {
+        int at = Arrays.binarySearch(slotSequences, 0, slotCount, sequence);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    /** Get entries by category, in collection order */
+    public List<GlossaryEntry> getEntriesByCategory(String category) {
+        TreeMap<Integer, GlossaryEntry> bucket =
+                category == null ? null : categoryIndex.get(category);
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket.values());
+    }
+
+    /** Get a read-only live view of the categories in use */
+    public Set<String> getCategories() {
+        return Collections.unmodifiableSet(categoryCounts.keySet());
+    }
+
+    /** Get the number of entries in a category */
+    public int getCategorySize(String category) {
+        return categoryCounts.getOrDefault(category, 0);
+    }
+
+    /**
+     * Search entries whose command or definition contains the keyword, ignoring case. Backed by a
+     * trigram index, so only entries sharing every trigram of the keyword are checked; keywords too
+     * short to have a trigram go to {@link #searchEntriesByScan}.
+     */
     public List<GlossaryEntry> searchEntries(String keyword) {
+        if (keyword != null && keyword.toLowerCase().length() < 3) {
+            return searchEntriesByScan(keyword);
+        }
+        int[] docIds = substringIndex.search(keyword);
+        int[] matchSlots = new int[docIds.length];
+        for (int i = 0; i < docIds.length; i++) {
+            matchSlots[i] = docSlots[docIds[i]];
+        }
+        // Updated entries get fresh document ids, so id order can differ from slot order
+        Arrays.sort(matchSlots);
+
+        List<GlossaryEntry> result = new ArrayList<>(matchSlots.length);
+        for (int slot : matchSlots) {
+            result.add(slots[slot]);
+        }
+        return result;
+    }
+
+    /**
+     * Search entries like {@link #searchEntries} by scanning every entry's lowercased command and
+     * definition, packed into one contiguous buffer. For queries no index can narrow down.
+     */
+    public List<GlossaryEntry> searchEntriesByScan(String keyword) {
+        if (keyword == null) {
+            return new ArrayList<>();
+        }
+        BitSet matchSlots = substringColumn.search(keyword);
+        if (matchSlots == null) {
+            return scanEntries(keyword);
+        }
+
+        List<GlossaryEntry> result = new ArrayList<>(matchSlots.cardinality());
+        for (int slot = matchSlots.nextSetBit(0);
+                slot >= 0;
+                slot = matchSlots.nextSetBit(slot + 1)) {
+            result.add(slots[slot]);
+        }
+        return result;
+    }
+
+    /** Search entries by keyword with a scan over every entry */
+    List<GlossaryEntry> scanEntries(String keyword) {
         List<GlossaryEntry> result = new ArrayList<>();
         if (keyword != null) {
             String lowerKeyword = keyword.toLowerCase();
-            for (GlossaryEntry entry : entries) {
+            for (GlossaryEntry entry : this) {
                 if (entry.getCommand().toLowerCase().contains(lowerKeyword)
                         || entry.getDefinition().toLowerCase().contains(lowerKeyword)) {
                     result.add(entry);
@@ -90,18 +351,381 @@ public class GlossaryCollection implements Iterable<GlossaryEntry> {
         return result;
     }
 
+    /**
+     * Rank entries against the query words with BM25 over command, definition, example and category
+     * text, returning at most {@code limit} entries, best match first. Entries are indexed as they
+     * are added, so change an entry through {@link #update} rather than its setters.
+     */
+    public List<GlossaryEntry> searchRanked(String query, int limit) {
+        List<GlossaryEntry> result = new ArrayList<>();
+        for (InvertedIndex.Hit hit : textIndex.search(query, limit)) {
+            result.add(slots[docSlots[hit.getDocId()]]);
+        }
+        return result;
+    }
+
+    /**
+     * Entries this command's entry mentions, then entries mentioning it; see {@link
+     * CrossReferenceGraph}. The graph is built on first use and then kept up to date by add, update
+     * and remove, so each lookup costs O(degree).
+     */
+    public List<GlossaryEntry> getRelated(String command) {
+        buildCrossReferences();
+        return crossReferences.getRelated(command);
+    }
+
+    /** Build the cross-reference graph now rather than on the first related-entry lookup */
+    public void buildCrossReferences() {
+        if (crossReferences == null) {
+            crossReferences = CrossReferenceGraph.of(this);
+        }
+    }
+
+    /** Bring the graph's node for a lowercased command in line with the command index */
+    private void refreshCrossReferences(String key) {
+        if (crossReferences == null) {
+            return;
+        }
+        GlossaryEntry entry = commandIndex.get(key);
+        if (entry == null) {
+            crossReferences.remove(key);
+        } else {
+            crossReferences.put(key, entry);
+        }
+    }
+
+    /** Entries matching a parsed query, in iteration order; see {@link GlossaryQuery} */
+    public List<GlossaryEntry> query(GlossaryQuery query) {
+        GlossaryQuery.Source source = querySource();
+        return GlossaryQuery.entries(query.evaluate(source, null), source);
+    }
+
+    /** The access paths the planner takes for a query; see {@link GlossaryQuery#explain} */
+    List<String> explain(GlossaryQuery query) {
+        List<String> trace = new ArrayList<>();
+        query.evaluate(querySource(), trace);
+        return trace;
+    }
+
+    /** Access paths for the query planner, with slots as entry ids */
+    GlossaryQuery.Source querySource() {
+        return new GlossaryQuery.Source() {
+            @Override
+            public int idBound() {
+                return slotCount;
+            }
+
+            @Override
+            public BitSet all() {
+                return (BitSet) liveSlots.clone();
+            }
+
+            @Override
+            public GlossaryEntry entry(int id) {
+                return slots[id];
+            }
+
+            @Override
+            public Set<String> categories() {
+                return categoryCounts.keySet();
+            }
+
+            @Override
+            public int categorySize(String category) {
+                return getCategorySize(category);
+            }
+
+            @Override
+            public BitSet category(String category) {
+                BitSet result = new BitSet(slotCount);
+                TreeMap<Integer, GlossaryEntry> bucket = categoryIndex.get(category);
+                if (bucket != null) {
+                    for (int slot : bucket.keySet()) {
+                        result.set(slot);
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            public int termFrequency(String term) {
+                return textIndex.documentFrequency(term);
+            }
+
+            @Override
+            public BitSet term(String term) {
+                return toSlots(textIndex.documentsContaining(term));
+            }
+
+            @Override
+            public BitSet substring(String keyword) {
+                if (keyword.length() < 3) {
+                    BitSet result = substringColumn.search(keyword);
+                    if (result != null) {
+                        return result;
+                    }
+                }
+                return toSlots(substringIndex.search(keyword));
+            }
+        };
+    }
+
+    private BitSet toSlots(int[] docIds) {
+        BitSet result = new BitSet(slotCount);
+        for (int docId : docIds) {
+            result.set(docSlots[docId]);
+        }
+        return result;
+    }
+
+    /** Slot of the first live entry whose command equals the given one exactly, or -1 */
+    private int firstSlot(String command) {
+        int[] matches = commandSlots.get(command);
+        return matches == null ? -1 : matches[0];
+    }
+
+    private void removeSlot(int slot) {
+        unindexEntry(slot);
+        slots[slot] = null;
+        liveSlots.clear(slot);
+        liveCount--;
+        modCount++;
+    }
+
+    /** Give the slot's entry a fresh document id and add it to every slot-keyed index */
+    private void indexEntry(int slot, GlossaryEntry entry) {
+        int docId = indexSlot(slot, entry);
+        textIndex.add(docId, textFields(entry));
+        substringIndex.add(docId, substringFields(entry));
+    }
+
+    private static String[] textFields(GlossaryEntry entry) {
+        return new String[] {
+            entry.getCommand(), entry.getDefinition(), entry.getExample(), entry.getCategory()
+        };
+    }
+
+    private static String[] substringFields(GlossaryEntry entry) {
+        return new String[] {entry.getCommand(), entry.getDefinition()};
+    }
+
+    /** Index the entry everywhere but the text and trigram postings; returns its document id */
+    private int indexSlot(int slot, GlossaryEntry entry) {
+        int docId = nextDocId++;
+        if (docId == docSlots.length) {
+            docSlots = Arrays.copyOf(docSlots, docId * 2);
+        }
+        docSlots[docId] = slot;
+        slotDocIds[slot] = docId;
+
+        commandSlots.merge(entry.getCommand(), new int[] {slot}, GlossaryCollection::insertSorted);
+        categoryIndex.computeIfAbsent(entry.getCategory(), key -> new TreeMap<>()).put(slot, entry);
+        categoryCounts.merge(entry.getCategory(), 1, Integer::sum);
+        substringColumn.put(slot, entry.getCommand(), entry.getDefinition());
+        return docId;
+    }
+
+    private void unindexEntry(int slot) {
+        GlossaryEntry entry = slots[slot];
+        int docId = slotDocIds[slot];
+        textIndex.remove(docId);
+        substringIndex.remove(docId);
+        substringColumn.remove(slot);
+
+        int[] sameCommand = removeSorted(commandSlots.get(entry.getCommand()), slot);
+        if (sameCommand == null) {
+            commandSlots.remove(entry.getCommand());
+        } else {
+            commandSlots.put(entry.getCommand(), sameCommand);
+        }
+
+        String category = entry.getCategory();
+        TreeMap<Integer, GlossaryEntry> bucket = categoryIndex.get(category);
+        bucket.remove(slot);
+        if (bucket.isEmpty()) {
+            categoryIndex.remove(category);
+            categoryCounts.remove(category);
+        } else {
+            categoryCounts.put(category, bucket.size());
+        }
+    }
+
+    private static int[] insertSorted(int[] sorted, int[] single) {
+        int at = -Arrays.binarySearch(sorted, single[0]) - 1;
+        int[] result = new int[sorted.length + 1];
+        System.arraycopy(sorted, 0, result, 0, at);
+        result[at] = single[0];
+        System.arraycopy(sorted, at, result, at + 1, sorted.length - at);
+        return result;
+    }
+
+    private static int[] removeSorted(int[] sorted, int value) {
+        if (sorted.length == 1) {
+            return null;
+        }
+        int at = Arrays.binarySearch(sorted, value);
+        int[] result = new int[sorted.length - 1];
+        System.arraycopy(sorted, 0, result, 0, at);
+        System.arraycopy(sorted, at + 1, result, at, sorted.length - at - 1);
+        return result;
+    }
+
+    /**
+     * Squeeze out tombstoned slots and reissue document ids once garbage (dead slots plus retired
+     * ids) outweighs the live entries. Each compaction is O(n) and runs at most once per O(n)
+     * mutations, so it adds only O(1) amortized to each add, update and remove.
+     */
+    private void compactIfSparse() {
+        int garbage = (slotCount - liveCount) + (nextDocId - liveCount);
+        if (garbage < MIN_GARBAGE_BEFORE_COMPACTION || garbage <= liveCount) {
+            return;
+        }
+
+        GlossaryEntry[] live = new GlossaryEntry[Math.max(16, liveCount * 2)];
+        int[] sequences = new int[live.length];
+        int count = 0;
+        for (int slot = liveSlots.nextSetBit(0); slot >= 0; slot = liveSlots.nextSetBit(slot + 1)) {
+            sequences[count] = slotSequences[slot];
+            live[count++] = slots[slot];
+        }
+
+        slots = live;
+        slotSequences = sequences;
+        slotDocIds = new int[live.length];
+        docSlots = new int[live.length];
+        liveSlots.clear();
+        liveSlots.set(0, count);
+        slotCount = count;
+        nextDocId = 0;
+        modCount++;
+        commandSlots.clear();
+        categoryIndex.clear();
+        categoryCounts.clear();
+        textIndex = new InvertedIndex();
+        substringIndex = new TrigramIndex();
+        substringColumn = new TextColumn();
+        for (int slot = 0; slot < count; slot++) {
+            indexEntry(slot, slots[slot]);
+        }
+    }
+
+    /**
+     * Register a listener for changes made after this call, so a derived index can follow the
+     * collection without diffing it. Listeners run on the writing thread, after the change.
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    void fireChanged(String key, GlossaryEntry entry) {
+        for (ChangeListener listener : listeners) {
+            listener.changed(key, entry);
+        }
+    }
+
+    /**
+     * Whether add, putAll, update and remove are unsupported, as for a mapped store; they then
+     * throw UnsupportedOperationException, so callers that may hold such a collection check first
+     */
+    public boolean isReadOnly() {
+        return false;
+    }
+
+    /** Counter bumped by every change to the entries, for invalidating derived results */
+    public long getVersion() {
+        return version;
+    }
+
     /** Get the size of the collection */
     public int size() {
-        return entries.size();
+        return liveCount;
     }
 
     /** Check if collection is empty */
     public boolean isEmpty() {
-        return entries.isEmpty();
+        return liveCount == 0;
+    }
+
+    /** Number of slots in use, live or tombstoned, for observing compaction */
+    int getSlotCount() {
+        return slotCount;
     }
 
+    /** Iterates live entries in insertion order; fails fast on outside structural changes */
     @Override
     public Iterator<GlossaryEntry> iterator() {
-        return entries.iterator();
+        return new Iterator<>() {
+            private int next = liveSlots.nextSetBit(0);
+            private int last = -1;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0 && next < slotCount;
+            }
+
+            @Override
+            public GlossaryEntry next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = liveSlots.nextSetBit(next + 1);
+                return slots[last];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                GlossaryEntry entry = slots[last];
+                removeSlot(last);
+                String key = entry.getCommand().toLowerCase();
+                if (commandIndex.get(key) == entry) {
+                    commandIndex.remove(key);
+                    commandPrefixes.remove(key);
+                    commandDistances.remove(key);
+                    refreshCrossReferences(key);
+                }
+                last = -1;
+                expectedModCount = modCount;
+                version++;
+            }
+        };
+    }
+
+    /** A window of entries and the cursor where the next window starts */
+    public static final class Page {
+        private final List<GlossaryEntry> entries;
+        private final int nextCursor;
+
+        public Page(List<GlossaryEntry> entries, int nextCursor) {
+            this.entries = Collections.unmodifiableList(entries);
+            this.nextCursor = nextCursor;
+        }
+
+        public List<GlossaryEntry> getEntries() {
+            return entries;
+        }
+
+        /** Cursor of the next page, or -1 if this is the last one */
+        public int getNextCursor() {
+            return nextCursor;
+        }
+
+        public boolean hasNext() {
+            return nextCursor >= 0;
+        }
     }
 }
@@ -0,0 +1,565 @@
+package com.cliapp.collections;
+
+import com.cliapp.domain.GlossaryEntry;
+import com.cliapp.exceptions.InvalidInputException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parsed glossary query such as {@code category:"Branching" AND merge NOT rebase}, evaluated
+ * against a collection's indexes rather than by filtering every entry.
+ *
+ * <pre>
+ * query   := and ("OR" and)*
+ * and     := unary (["AND"] unary)*      adjacent terms are ANDed
+ * unary   := "NOT" unary | primary
+ * primary := "(" query ")" | "category:" value | "quoted text" | word
+ * </pre>
+ *
+ * A word matches entries containing it as a token in the command, definition, example or category,
+ * like {@link GlossaryCollection#searchRanked}; quoted text matches a substring of the command or
+ * definition, like {@link GlossaryCollection#searchEntries}; a category matches exactly, ignoring
+ * case. Operators must be upper case, so a lower case "and" or "not" is an ordinary word.
+ *
+ * <p>The planner evaluates the operands of an AND from the fewest estimated matches up, reading the
+ * category index or token postings for the first and then, for each further operand, either
+ * intersecting with its index or, when few candidates are left, checking the candidates directly.
+ * NOT operands are subtracted from the candidates, so only a query that is nothing but negations
+ * starts from every entry.
+ */
+public final class GlossaryQuery {
+
+    /** Check candidates directly once they are this many times fewer than an operand's matches */
+    private static final int FILTER_RATIO = 4;
+
+    private final String text;
+    private final Node root;
+
+    private GlossaryQuery(String text, Node root) {
+        this.text = text;
+        this.root = root;
+    }
+
+    /** Parse a query, reporting the first syntax error */
+    public static GlossaryQuery parse(String query) throws InvalidInputException {
+        if (query == null || query.isBlank()) {
+            throw InvalidInputException.forEmptyInput();
+        }
+        Parser parser = new Parser(query);
+        Node root = parser.parseOr();
+        if (parser.peek() != null) {
+            throw InvalidInputException.forInvalidQuery(
+                    query, "unexpected '" + parser.peek() + "'");
+        }
+        return new GlossaryQuery(query, root);
+    }
+
+    /** Ids of the matching entries; access paths taken are appended to the trace if there is one */
+    BitSet evaluate(Source source, List<String> trace) {
+        return root.evaluate(source, trace);
+    }
+
+    /** Describe the access paths the planner takes for this query on the collection */
+    public List<String> explain(GlossaryCollection collection) {
+        return collection.explain(this);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /** Access paths a collection offers to the planner; entry ids are in [0, idBound()) */
+    interface Source {
+        int idBound();
+
+        BitSet all();
+
+        GlossaryEntry entry(int id);
+
+        Set<String> categories();
+
+        int categorySize(String category);
+
+        BitSet category(String category);
+
+        int termFrequency(String term);
+
+        BitSet term(String term);
+
+        BitSet substring(String keyword);
+    }
+
+    private abstract static class Node {
+        abstract int estimate(Source source);
+
+        abstract BitSet evaluate(Source source, List<String> trace);
+
+        abstract boolean matches(GlossaryEntry entry, Source source);
+
+        boolean isNegation() {
+            return false;
+        }
+    }
+
+    private static void trace(List<String> trace, String step) {
+        if (trace != null) {
+            trace.add(step);
+        }
+    }
+
+    private static final class Category extends Node {
+        private final String name;
+
+        private Category(String name) {
+            this.name = name;
+        }
+
+        /** The category as stored, matched exactly if possible and otherwise ignoring case */
+        private String resolve(Source source) {
+            Set<String> categories = source.categories();
+            if (categories.contains(name)) {
+                return name;
+            }
+            for (String category : categories) {
+                if (category != null && category.equalsIgnoreCase(name)) {
+                    return category;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        int estimate(Source source) {
+            String category = resolve(source);
+            return category == null ? 0 : source.categorySize(category);
+        }
+
+        @Override
+        BitSet evaluate(Source source, List<String> trace) {
+            trace(trace, "category index " + this);
+            String category = resolve(source);
+            return category == null ? new BitSet() : source.category(category);
+        }
+
+        @Override
+        boolean matches(GlossaryEntry entry, Source source) {
+            String category = resolve(source);
+            return category != null && category.equals(entry.getCategory());
+        }
+
+        @Override
+        public String toString() {
+            return "category:\"" + name + "\"";
+        }
+    }
+
+    private static final class Term extends Node {
+        private final String term;
+
+        private Term(String term) {
+            this.term = term;
+        }
+
+        @Override
+        int estimate(Source source) {
+            return source.termFrequency(term);
+        }
+
+        @Override
+        BitSet evaluate(Source source, List<String> trace) {
+            trace(trace, "token postings " + this);
+            return source.term(term);
+        }
+
+        @Override
+        boolean matches(GlossaryEntry entry, Source source) {
+            return InvertedIndex.tokenize(entry.getCommand()).contains(term)
+                    || InvertedIndex.tokenize(entry.getDefinition()).contains(term)
+                    || InvertedIndex.tokenize(entry.getExample()).contains(term)
+                    || InvertedIndex.tokenize(entry.getCategory()).contains(term);
+        }
+
+        @Override
+        public String toString() {
+            return term;
+        }
+    }
+
+    private static final class Substring extends Node {
+        private final String keyword;
+
+        private Substring(String keyword) {
+            this.keyword = keyword.toLowerCase();
+        }
+
+        /** Unknown without running the search, so assume the worst and evaluate it last */
+        @Override
+        int estimate(Source source) {
+            return source.idBound();
+        }
+
+        @Override
+        BitSet evaluate(Source source, List<String> trace) {
+            trace(trace, "substring search " + this);
+            return source.substring(keyword);
+        }
+
+        @Override
+        boolean matches(GlossaryEntry entry, Source source) {
+            return contains(entry.getCommand()) || contains(entry.getDefinition());
+        }
+
+        private boolean contains(String field) {
+            return field != null && field.toLowerCase().contains(keyword);
+        }
+
+        @Override
+        public String toString() {
+            return "\"" + keyword + "\"";
+        }
+    }
+
+    private static final class Not extends Node {
+        private final Node operand;
+
+        private Not(Node operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        int estimate(Source source) {
+            return source.idBound();
+        }
+
+        @Override
+        BitSet evaluate(Source source, List<String> trace) {
+            trace(trace, "all entries");
+            BitSet result = source.all();
+            trace(trace, "subtract " + operand);
+            result.andNot(operand.evaluate(source, trace));
+            return result;
+        }
+
+        @Override
+        boolean matches(GlossaryEntry entry, Source source) {
+            return !operand.matches(entry, source);
+        }
+
+        @Override
+        boolean isNegation() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + operand;
+        }
+    }
+
+    private static final class And extends Node {
+        private final List<Node> operands;
+
+        private And(List<Node> operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        int estimate(Source source) {
+            int estimate = source.idBound();
+            for (Node operand : operands) {
+                if (!operand.isNegation()) {
+                    estimate = Math.min(estimate, operand.estimate(source));
+                }
+            }
+            return estimate;
+        }
+
+        @Override
+        BitSet evaluate(Source source, List<String> trace) {
+            List<Node> positive = new ArrayList<>();
+            List<Node> negative = new ArrayList<>();
+            for (Node operand : operands) {
+                if (operand.isNegation()) {
+                    negative.add(((Not) operand).operand);
+                } else {
+                    positive.add(operand);
+                }
+            }
+            // Cheapest first: each operand only has to narrow what the earlier ones left
+            int[] estimates = new int[positive.size()];
+            for (int i = 0; i < estimates.length; i++) {
+                estimates[i] = positive.get(i).estimate(source);
+            }
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < estimates.length; i++) {
+                order.add(i);
+            }
+            order.sort(Comparator.comparingInt(i -> estimates[i]));
+
+            BitSet candidates;
+            if (order.isEmpty()) {
+                trace(trace, "all entries");
+                candidates = source.all();
+            } else {
+                candidates = positive.get(order.get(0)).evaluate(source, trace);
+            }
+            for (int i = 1; i < order.size() && !candidates.isEmpty(); i++) {
+                int operand = order.get(i);
+                narrow(candidates, positive.get(operand), estimates[operand], true, source, trace);
+            }
+            for (Node operand : negative) {
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                narrow(candidates, operand, operand.estimate(source), false, source, trace);
+            }
+            return candidates;
+        }
+
+        /** Keep the candidates that do (or do not) match the operand, by index or by checking */
+        private static void narrow(
+                BitSet candidates,
+                Node operand,
+                int estimate,
+                boolean keep,
+                Source source,
+                List<String> trace) {
+            if ((long) candidates.cardinality() * FILTER_RATIO < estimate) {
+                trace(trace, (keep ? "check " : "check NOT ") + operand);
+                for (int id = candidates.nextSetBit(0);
+                        id >= 0;
+                        id = candidates.nextSetBit(id + 1)) {
+                    if (operand.matches(source.entry(id), source) != keep) {
+                        candidates.clear(id);
+                    }
+                }
+            } else if (keep) {
+                trace(trace, "intersect");
+                candidates.and(operand.evaluate(source, trace));
+            } else {
+                trace(trace, "subtract");
+                candidates.andNot(operand.evaluate(source, trace));
+            }
+        }
+
+        @Override
+        boolean matches(GlossaryEntry entry, Source source) {
+            for (Node operand : operands) {
+                if (!operand.matches(entry, source)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            for (Node operand : operands) {
+                parts.add(operand.toString());
+            }
+            return "(" + String.join(" AND ", parts) + ")";
+        }
+    }
+
+    private static final class Or extends Node {
+        private final List<Node> operands;
+
+        private Or(List<Node> operands) {
+            this.operands = operands;
+        }
+
+        @Override
+        int estimate(Source source) {
+            long estimate = 0;
+            for (Node operand : operands) {
+                estimate += operand.estimate(source);
+            }
+            return (int) Math.min(estimate, source.idBound());
+        }
+
+        @Override
+        BitSet evaluate(Source source, List<String> trace) {
+            BitSet result = new BitSet();
+            for (Node operand : operands) {
+                trace(trace, "union");
+                result.or(operand.evaluate(source, trace));
+            }
+            return result;
+        }
+
+        @Override
+        boolean matches(GlossaryEntry entry, Source source) {
+            for (Node operand : operands) {
+                if (operand.matches(entry, source)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            for (Node operand : operands) {
+                parts.add(operand.toString());
+            }
+            return "(" + String.join(" OR ", parts) + ")";
+        }
+    }
+
+    /** Recursive descent over whitespace-separated words, quoted text and parentheses */
+    private static final class Parser {
+        private static final String CATEGORY_FIELD = "category:";
+
+        private final String query;
+        private int position;
+
+        private Parser(String query) {
+            this.query = query;
+        }
+
+        private Node parseOr() throws InvalidInputException {
+            List<Node> operands = new ArrayList<>();
+            operands.add(parseAnd());
+            while ("OR".equals(peek())) {
+                next();
+                operands.add(parseAnd());
+            }
+            return operands.size() == 1 ? operands.get(0) : new Or(operands);
+        }
+
+        private Node parseAnd() throws InvalidInputException {
+            List<Node> operands = new ArrayList<>();
+            add(operands, parseUnary());
+            while (true) {
+                String token = peek();
+                if ("AND".equals(token)) {
+                    next();
+                } else if (token == null || token.equals(")") || token.equals("OR")) {
+                    break;
+                }
+                add(operands, parseUnary());
+            }
+            return operands.size() == 1 ? operands.get(0) : new And(operands);
+        }
+
+        /** Flatten nested ANDs, so "a b" from a multi-token word plans with its neighbours */
+        private static void add(List<Node> operands, Node operand) {
+            if (operand instanceof And) {
+                operands.addAll(((And) operand).operands);
+            } else {
+                operands.add(operand);
+            }
+        }
+
+        private Node parseUnary() throws InvalidInputException {
+            if ("NOT".equals(peek())) {
+                next();
+                return new Not(parseUnary());
+            }
+            return parsePrimary();
+        }
+
+        private Node parsePrimary() throws InvalidInputException {
+            String token = next();
+            if (token == null || isOperator(token) || token.equals(")")) {
+                throw InvalidInputException.forInvalidQuery(
+                        query,
+                        token == null ? "missing term at the end" : "unexpected '" + token + "'");
+            }
+            if (token.equals("(")) {
+                Node inner = parseOr();
+                if (!")".equals(next())) {
+                    throw InvalidInputException.forInvalidQuery(query, "missing ')'");
+                }
+                return inner;
+            }
+            if (token.regionMatches(true, 0, CATEGORY_FIELD, 0, CATEGORY_FIELD.length())) {
+                String value = token.substring(CATEGORY_FIELD.length());
+                if (value.isEmpty()) {
+                    value = next();
+                    if (value == null
+                            || isOperator(value)
+                            || value.equals("(")
+                            || value.equals(")")) {
+                        throw InvalidInputException.forInvalidQuery(query, "missing category");
+                    }
+                }
+                return new Category(unquote(value));
+            }
+            if (token.startsWith("\"")) {
+                return new Substring(unquote(token));
+            }
+
+            List<String> terms = InvertedIndex.tokenize(token);
+            if (terms.isEmpty()) {
+                return new Substring(token);
+            }
+            List<Node> operands = new ArrayList<>();
+            for (String term : terms) {
+                operands.add(new Term(term));
+            }
+            return operands.size() == 1 ? operands.get(0) : new And(operands);
+        }
+
+        private static boolean isOperator(String token) {
+            return token.equals("AND") || token.equals("OR") || token.equals("NOT");
+        }
+
+        private static String unquote(String token) {
+            return token.startsWith("\"") ? token.substring(1, token.length() - 1) : token;
+        }
+
+        private String peek() throws InvalidInputException {
+            int saved = position;
+            String token = next();
+            position = saved;
+            return token;
+        }
+
+        /** Next token: a parenthesis, a quoted string with its quotes, or a run of other text */
+        private String next() throws InvalidInputException {
+            while (position < query.length() && Character.isWhitespace(query.charAt(position))) {
+                position++;
+            }
+            if (position == query.length()) {
+                return null;
+            }
+
+            int start = position;
+            char c = query.charAt(position);
+            if (c == '(' || c == ')') {
+                position++;
+            } else if (c == '"') {
+                int end = query.indexOf('"', position + 1);
+                if (end < 0) {
+                    throw InvalidInputException.forInvalidQuery(query, "unclosed quote");
+                }
+                position = end + 1;
+            } else {
+                while (position < query.length()) {
+                    c = query.charAt(position);
+                    if (Character.isWhitespace(c) || c == '(' || c == ')' || c == '"') {
+                        break;
+                    }
+                    position++;
+                }
+            }
+            return query.substring(start, position);
+        }
+    }
+
+    /** Entries of the ids, in id order */
+    static List<GlossaryEntry> entries(BitSet ids, Source source) {
+        List<GlossaryEntry> result = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            result.add(source.entry(id));
+        }
+        return result;
+    }
+}
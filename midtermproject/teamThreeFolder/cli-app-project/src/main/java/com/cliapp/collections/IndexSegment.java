@@ -0,0 +1,314 @@
+package com.cliapp.collections;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Immutable, memory-mapped inverted index segment: a sorted term dictionary with one posting list
+ * of document ids and term frequencies per term, plus every document's length for BM25. Opening a
+ * segment only maps the file, so it is ready to search at once however many documents it covers.
+ * Documents are numbered by their position in the iterable passed to {@link #write}, and the header
+ * carries a caller-supplied checksum of the content the segment was built from.
+ *
+ * <pre>
+ * header     magic, version, checksum (long), documentCount, termCount, totalLength (long)
+ * lengths    documentCount token counts
+ * terms      termCount entries of (charsOffset, charCount, postingsOffset, postingCount),
+ *            sorted by term
+ * chars      the UTF-16 chars of every term, so any String round-trips exactly
+ * postings   per term: postingCount document ids, then postingCount frequencies
+ * </pre>
+ */
+public class IndexSegment {
+
+    private static final int MAGIC = 0x47534547; // "GSEG"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int TERM_ENTRY_BYTES = 16;
+
+    private final ByteBuffer buffer;
+    private final long checksum;
+    private final int documentCount;
+    private final int termCount;
+    private final long totalLength;
+    private final int termsAt;
+
+    private IndexSegment(ByteBuffer buffer, Path file) throws IOException {
+        this.buffer = buffer;
+        this.checksum = buffer.getLong(8);
+        this.documentCount = buffer.getInt(16);
+        this.termCount = buffer.getInt(20);
+        this.totalLength = buffer.getLong(24);
+        if (documentCount < 0
+                || termCount < 0
+                || HEADER_BYTES + 4L * documentCount + (long) TERM_ENTRY_BYTES * termCount
+                        > buffer.capacity()) {
+            throw new IOException("Corrupt index segment: " + file);
+        }
+        this.termsAt = HEADER_BYTES + 4 * documentCount;
+    }
+
+    /** Map a segment written by {@link #write}; the mapping outlives the file channel */
+    public static IndexSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not an index segment: " + file);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Not an index segment: " + file);
+            }
+            return new IndexSegment(buffer, file);
+        }
+    }
+
+    /**
+     * Write a segment over already tokenized documents, replacing the file. Every occurrence of a
+     * token counts towards its frequency and the document's length. The file is staged next to the
+     * target and moved into place, so readers never see a half-written segment.
+     */
+    public static void write(Iterable<List<String>> documents, long checksum, Path file)
+            throws IOException {
+        Map<String, Postings> dictionary = new TreeMap<>();
+        int[] lengths = new int[16];
+        int documentCount = 0;
+        long totalLength = 0;
+        for (List<String> tokens : documents) {
+            if (documentCount == lengths.length) {
+                lengths = Arrays.copyOf(lengths, documentCount * 2);
+            }
+            lengths[documentCount] = tokens.size();
+            totalLength += tokens.size();
+            for (String token : tokens) {
+                dictionary.computeIfAbsent(token, key -> new Postings()).count(documentCount);
+            }
+            documentCount++;
+        }
+
+        long charsAt =
+                HEADER_BYTES + 4L * documentCount + (long) TERM_ENTRY_BYTES * dictionary.size();
+        long charCount = 0;
+        long postingCount = 0;
+        for (Map.Entry<String, Postings> term : dictionary.entrySet()) {
+            charCount += term.getKey().length();
+            postingCount += term.getValue().size;
+        }
+        long postingsAt = charsAt + 2 * charCount;
+        if (postingsAt + 8 * postingCount > Integer.MAX_VALUE) {
+            throw new IOException("Index too large for a single mapped segment");
+        }
+
+        Path staged = Files.createTempFile(file.toAbsolutePath().getParent(), "segment", ".tmp");
+        try {
+            try (DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(staged)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(checksum);
+                out.writeInt(documentCount);
+                out.writeInt(dictionary.size());
+                out.writeLong(totalLength);
+                for (int i = 0; i < documentCount; i++) {
+                    out.writeInt(lengths[i]);
+                }
+
+                long chars = charsAt;
+                long postings = postingsAt;
+                for (Map.Entry<String, Postings> term : dictionary.entrySet()) {
+                    out.writeInt((int) chars);
+                    out.writeInt(term.getKey().length());
+                    out.writeInt((int) postings);
+                    out.writeInt(term.getValue().size);
+                    chars += 2L * term.getKey().length();
+                    postings += 8L * term.getValue().size;
+                }
+                for (String term : dictionary.keySet()) {
+                    out.writeChars(term);
+                }
+                for (Postings list : dictionary.values()) {
+                    for (int i = 0; i < list.size; i++) {
+                        out.writeInt(list.docs[i]);
+                    }
+                    for (int i = 0; i < list.size; i++) {
+                        out.writeInt(list.freqs[i]);
+                    }
+                }
+            }
+            Files.move(staged, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    /** Checksum of the content this segment was built from */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /** Number of documents covered */
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    /** Number of distinct terms */
+    public int getTermCount() {
+        return termCount;
+    }
+
+    /** Sorted ids of the documents containing the term, compared exactly */
+    public int[] documentsContaining(String term) {
+        int entry = find(term);
+        if (entry < 0) {
+            return new int[0];
+        }
+        int[] docs = new int[postingCount(entry)];
+        int postings = postingsAt(entry);
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = buffer.getInt(postings + 4 * i);
+        }
+        return docs;
+    }
+
+    /**
+     * Rank documents matching any query token with BM25 and return the best {@code limit}. Scores
+     * and tie-breaking are those of {@link InvertedIndex#search}, so a segment written from the
+     * same documents returns the same hits.
+     */
+    public List<InvertedIndex.Hit> search(String query, int limit) {
+        if (limit <= 0 || documentCount == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Integer> entries = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(InvertedIndex.tokenize(query))) {
+            int entry = find(term);
+            if (entry >= 0) {
+                entries.add(entry);
+            }
+        }
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int lists = entries.size();
+        int[] starts = new int[lists];
+        int[] sizes = new int[lists];
+        double[] idfs = new double[lists];
+        for (int t = 0; t < lists; t++) {
+            starts[t] = postingsAt(entries.get(t));
+            sizes[t] = postingCount(entries.get(t));
+            idfs[t] = InvertedIndex.idf(documentCount, sizes[t]);
+        }
+
+        double averageLength = (double) totalLength / documentCount;
+        int[] cursors = new int[lists];
+        PriorityQueue<InvertedIndex.Hit> best =
+                new PriorityQueue<>(limit + 1, InvertedIndex.WORST_FIRST);
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int t = 0; t < lists; t++) {
+                if (cursors[t] < sizes[t]) {
+                    doc = Math.min(doc, buffer.getInt(starts[t] + 4 * cursors[t]));
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+
+            int length = buffer.getInt(HEADER_BYTES + 4 * doc);
+            double score = 0;
+            for (int t = 0; t < lists; t++) {
+                if (cursors[t] < sizes[t] && buffer.getInt(starts[t] + 4 * cursors[t]) == doc) {
+                    int tf = buffer.getInt(starts[t] + 4 * (sizes[t] + cursors[t]));
+                    score += InvertedIndex.score(idfs[t], tf, length, averageLength);
+                    cursors[t]++;
+                }
+            }
+
+            best.offer(new InvertedIndex.Hit(doc, score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<InvertedIndex.Hit> hits = new ArrayList<>(best);
+        hits.sort(InvertedIndex.WORST_FIRST.reversed());
+        return hits;
+    }
+
+    /** Binary search of the term dictionary; decodes only the terms it visits */
+    private int find(String term) {
+        if (term == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int order = term(mid).compareTo(term);
+            if (order < 0) {
+                low = mid + 1;
+            } else if (order > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private String term(int entry) {
+        int at = termsAt + TERM_ENTRY_BYTES * entry;
+        int chars = buffer.getInt(at);
+        char[] term = new char[buffer.getInt(at + 4)];
+        for (int i = 0; i < term.length; i++) {
+            term[i] = buffer.getChar(chars + 2 * i);
+        }
+        return new String(term);
+    }
+
+    private int postingsAt(int entry) {
+        return buffer.getInt(termsAt + TERM_ENTRY_BYTES * entry + 8);
+    }
+
+    private int postingCount(int entry) {
+        return buffer.getInt(termsAt + TERM_ENTRY_BYTES * entry + 12);
+    }
+
+    /** Growable parallel arrays of document ids and term frequencies, filled in id order */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        private void count(int docId) {
+            if (size > 0 && docs[size - 1] == docId) {
+                freqs[size - 1]++;
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = docId;
+            freqs[size] = 1;
+            size++;
+        }
+    }
+}
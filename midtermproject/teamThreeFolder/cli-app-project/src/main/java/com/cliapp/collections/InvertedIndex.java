@@ -0,0 +1,509 @@
+package com.cliapp.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from tokens to sorted posting lists of int document ids, with BM25 ranking. Ids
+ * are chosen by the caller and must increase with every add, which keeps postings sorted by simple
+ * appends. Removal marks a document deleted; postings are purged in bulk once enough pile up.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_DELETES_BEFORE_COMPACTION = 64;
+    static final Comparator<Hit> WORST_FIRST =
+            Comparator.comparingDouble(Hit::getScore)
+                    .thenComparing(Comparator.comparingInt(Hit::getDocId).reversed());
+
+    private final Map<String, Postings> postings;
+    private final Map<Integer, String[]> documentTerms;
+    private final BitSet deleted;
+    private int[] documentLengths;
+    private int documentCount;
+    private int deletedSinceCompaction;
+    private long totalLength;
+    private int lastDocId;
+
+    public InvertedIndex() {
+        this.postings = new HashMap<>();
+        this.documentTerms = new HashMap<>();
+        this.deleted = new BitSet();
+        this.documentLengths = new int[16];
+        this.lastDocId = -1;
+    }
+
+    /** Split text into lowercase letter/digit runs */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /** Index a document made of one or more text fields */
+    public void add(int docId, String... fields) {
+        addAll(docId, Collections.singletonList(fields));
+    }
+
+    /**
+     * Index documents with consecutive ids from {@code firstDocId}. Terms are counted over the
+     * whole batch first, so each posting list grows once to its final size and is then filled in id
+     * order.
+     */
+    public void addAll(int firstDocId, List<String[]> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        if (firstDocId <= lastDocId) {
+            throw new IllegalArgumentException(
+                    "Document ids must increase: " + firstDocId + " after " + lastDocId);
+        }
+
+        List<Map<String, Integer>> frequencies = new ArrayList<>(documents.size());
+        int[] lengths = new int[documents.size()];
+        Map<String, Integer> batchFrequencies = new HashMap<>();
+        for (int d = 0; d < documents.size(); d++) {
+            Map<String, Integer> document = new HashMap<>();
+            for (String field : documents.get(d)) {
+                for (String token : tokenize(field)) {
+                    document.merge(token, 1, Integer::sum);
+                    lengths[d]++;
+                }
+            }
+            for (String term : document.keySet()) {
+                batchFrequencies.merge(term, 1, Integer::sum);
+            }
+            frequencies.add(document);
+        }
+        for (Map.Entry<String, Integer> term : batchFrequencies.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new Postings()).reserve(term.getValue());
+        }
+
+        int lastId = firstDocId + documents.size() - 1;
+        if (lastId >= documentLengths.length) {
+            documentLengths = Arrays.copyOf(documentLengths, Math.max(lastId + 1, lastId * 2));
+        }
+        for (int d = 0; d < documents.size(); d++) {
+            int docId = firstDocId + d;
+            String[] terms = new String[frequencies.get(d).size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.get(d).entrySet()) {
+                postings.get(entry.getKey()).append(docId, entry.getValue(), lengths[d]);
+                terms[i++] = entry.getKey();
+            }
+            documentLengths[docId] = lengths[d];
+            documentTerms.put(docId, terms);
+            documentCount++;
+            totalLength += lengths[d];
+        }
+        lastDocId = lastId;
+    }
+
+    /** Remove a document; returns false if it was not indexed */
+    public boolean remove(int docId) {
+        String[] terms = documentTerms.remove(docId);
+        if (terms == null) {
+            return false;
+        }
+
+        for (String term : terms) {
+            postings.get(term).live--;
+        }
+        deleted.set(docId);
+        documentCount--;
+        totalLength -= documentLengths[docId];
+        deletedSinceCompaction++;
+
+        if (deletedSinceCompaction >= MIN_DELETES_BEFORE_COMPACTION
+                && deletedSinceCompaction > documentCount) {
+            compact();
+        }
+        return true;
+    }
+
+    /** Drop deleted documents from every posting list */
+    public void compact() {
+        postings.values().removeIf(list -> list.live == 0);
+        for (Postings list : postings.values()) {
+            list.purge(deleted, documentLengths);
+        }
+        deleted.clear();
+        deletedSinceCompaction = 0;
+    }
+
+    /** Number of live documents */
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    /** Number of distinct terms with at least one live document */
+    public int getTermCount() {
+        int count = 0;
+        for (Postings list : postings.values()) {
+            if (list.live > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Whether a document is currently indexed */
+    public boolean contains(int docId) {
+        return documentTerms.containsKey(docId);
+    }
+
+    /** Number of live documents containing the term */
+    public int documentFrequency(String term) {
+        Postings list = term == null ? null : postings.get(term.toLowerCase(Locale.ROOT));
+        return list == null ? 0 : list.live;
+    }
+
+    /** Sorted ids of the live documents containing the term */
+    public int[] documentsContaining(String term) {
+        Postings list = term == null ? null : postings.get(term.toLowerCase(Locale.ROOT));
+        if (list == null || list.live == 0) {
+            return new int[0];
+        }
+
+        int[] result = new int[list.live];
+        int n = 0;
+        for (int i = 0; i < list.size; i++) {
+            if (!deleted.get(list.docs[i])) {
+                result[n++] = list.docs[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rank documents matching any query token with BM25 and return the best {@code limit}, highest
+     * score first (ties go to the lower id).
+     *
+     * <p>Posting lists are merged document-at-a-time with MaxScore pruning. Each term has an upper
+     * bound on its contribution, from its highest frequency and shortest document. Once the heap
+     * holds {@code limit} hits, the terms whose bounds add up to no more than the weakest hit
+     * cannot bring in a new document on their own: only the other lists are walked, and the
+     * low-bound ones are probed for the candidate, cheapest last, until the remaining bounds cannot
+     * lift it above the weakest hit. Scores and the heap live in primitive arrays; a Hit is created
+     * per result.
+     */
+    public List<Hit> search(String query, int limit) {
+        if (limit <= 0 || documentCount == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Postings> found = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(tokenize(query))) {
+            Postings list = postings.get(term);
+            if (list != null && list.live > 0) {
+                found.add(list);
+            }
+        }
+        if (found.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        int terms = found.size();
+        double averageLength = (double) totalLength / documentCount;
+        Postings[] lists = found.toArray(new Postings[0]);
+        double[] idfs = new double[terms];
+        double[] bounds = new double[terms];
+        Integer[] byBound = new Integer[terms];
+        for (int t = 0; t < terms; t++) {
+            idfs[t] = idf(documentCount, lists[t].live);
+            bounds[t] = score(idfs[t], lists[t].maxFreq, lists[t].minLength, averageLength);
+            byBound[t] = t;
+        }
+        Arrays.sort(byBound, Comparator.comparingDouble(t -> bounds[t]));
+        // Order terms by bound; prefix[i] bounds what the i lowest-bound terms can add together
+        int[] order = new int[terms];
+        double[] prefix = new double[terms + 1];
+        for (int i = 0; i < terms; i++) {
+            order[i] = byBound[i];
+            prefix[i + 1] = prefix[i] + bounds[order[i]];
+        }
+
+        int[] cursors = new int[terms];
+        double[] contributions = new double[terms];
+        TopScores best = new TopScores(Math.min(limit, documentCount));
+        int firstEssential = 0;
+
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (int i = firstEssential; i < terms; i++) {
+                int t = order[i];
+                cursors[t] = skipDeleted(lists[t], cursors[t]);
+                if (cursors[t] < lists[t].size) {
+                    doc = Math.min(doc, lists[t].docs[cursors[t]]);
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+
+            Arrays.fill(contributions, 0);
+            double partial = 0;
+            for (int i = firstEssential; i < terms; i++) {
+                int t = order[i];
+                if (cursors[t] < lists[t].size && lists[t].docs[cursors[t]] == doc) {
+                    contributions[t] = termScore(lists[t], cursors[t], idfs[t], averageLength);
+                    partial += contributions[t];
+                    cursors[t]++;
+                }
+            }
+            boolean pruned = false;
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                if (!best.couldAdmit(partial + prefix[i + 1])) {
+                    pruned = true;
+                    break;
+                }
+                int t = order[i];
+                cursors[t] = advance(lists[t], cursors[t], doc);
+                if (cursors[t] < lists[t].size && lists[t].docs[cursors[t]] == doc) {
+                    contributions[t] = termScore(lists[t], cursors[t], idfs[t], averageLength);
+                    partial += contributions[t];
+                }
+            }
+            if (pruned) {
+                continue;
+            }
+
+            // Sum in query order so scores match an exhaustive merge bit for bit
+            double score = 0;
+            for (int t = 0; t < terms; t++) {
+                score += contributions[t];
+            }
+            if (best.offer(doc, score)) {
+                while (firstEssential < terms && !best.couldAdmit(prefix[firstEssential + 1])) {
+                    firstEssential++;
+                }
+            }
+        }
+
+        return best.toHits();
+    }
+
+    private double termScore(Postings list, int at, double idf, double averageLength) {
+        return score(idf, list.freqs[at], documentLengths[list.docs[at]], averageLength);
+    }
+
+    private int skipDeleted(Postings list, int at) {
+        while (at < list.size && deleted.get(list.docs[at])) {
+            at++;
+        }
+        return at;
+    }
+
+    /** First live position at or after {@code at} whose document is at least doc, by galloping */
+    private int advance(Postings list, int at, int doc) {
+        int step = 1;
+        int low = at;
+        int high = at;
+        while (high < list.size && list.docs[high] < doc) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int found = Arrays.binarySearch(list.docs, low, Math.min(high + 1, list.size), doc);
+        return skipDeleted(list, found >= 0 ? found : -found - 1);
+    }
+
+    /**
+     * The best {@code limit} (document, score) pairs seen so far as a min-heap in parallel arrays,
+     * the weakest hit at the root: lower score, then higher id, is weaker
+     */
+    private static final class TopScores {
+        private final int[] docs;
+        private final double[] scores;
+        private int size;
+
+        private TopScores(int limit) {
+            this.docs = new int[limit];
+            this.scores = new double[limit];
+        }
+
+        /**
+         * Whether a later document scoring at most {@code bound} could still enter. Documents come
+         * in increasing id order, so a tie with the weakest hit loses; the tiny slack keeps
+         * rounding in the bound sums from pruning a document that would tie or win.
+         */
+        private boolean couldAdmit(double bound) {
+            return size < docs.length || bound > scores[0] - Math.ulp(scores[0]) * 4;
+        }
+
+        /** Offer a hit; returns true once the heap is full and its weakest hit has changed */
+        private boolean offer(int doc, double score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+                return size == docs.length;
+            }
+            if (!weaker(docs[0], scores[0], doc, score)) {
+                return false;
+            }
+            docs[0] = doc;
+            scores[0] = score;
+            siftDown(0);
+            return true;
+        }
+
+        private static boolean weaker(int doc, double score, int otherDoc, double otherScore) {
+            return score < otherScore || (score == otherScore && doc > otherDoc);
+        }
+
+        private boolean weaker(int i, int j) {
+            return weaker(docs[i], scores[i], docs[j], scores[j]);
+        }
+
+        private void siftUp(int i) {
+            while (i > 0 && weaker(i, (i - 1) / 2)) {
+                swap(i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int weakest = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+                    if (weaker(child, weakest)) {
+                        weakest = child;
+                    }
+                }
+                if (weakest == i) {
+                    return;
+                }
+                swap(i, weakest);
+                i = weakest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            int doc = docs[i];
+            docs[i] = docs[j];
+            docs[j] = doc;
+            double score = scores[i];
+            scores[i] = scores[j];
+            scores[j] = score;
+        }
+
+        private List<Hit> toHits() {
+            List<Hit> hits = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                hits.add(new Hit(docs[i], scores[i]));
+            }
+            hits.sort(WORST_FIRST.reversed());
+            return hits;
+        }
+    }
+
+    /** BM25 inverse document frequency of a term found in documentFrequency of documentCount */
+    static double idf(int documentCount, int documentFrequency) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    /** BM25 contribution of one term occurring tf times in a document of the given length */
+    static double score(double idf, int tf, int length, double averageLength) {
+        double norm = K1 * (1 - B + B * length / averageLength);
+        return idf * tf * (K1 + 1) / (tf + norm);
+    }
+
+    /** Set of terms indexed for a document, mostly for diagnostics */
+    public Set<String> termsOf(int docId) {
+        String[] terms = documentTerms.get(docId);
+        return terms == null ? Collections.emptySet() : Set.of(terms);
+    }
+
+    /** A ranked search result */
+    public static final class Hit {
+        private final int docId;
+        private final double score;
+
+        public Hit(int docId, double score) {
+            this.docId = docId;
+            this.score = score;
+        }
+
+        public int getDocId() {
+            return docId;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * Documents containing one term, in id order. maxFreq and minLength bound the term's score;
+     * removals leave them stale only in the safe direction until the next purge.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+        private int live;
+        private int maxFreq;
+        private int minLength = Integer.MAX_VALUE;
+
+        /** Make room for {@code count} more appends at once */
+        private void reserve(int count) {
+            if (size + count > docs.length) {
+                docs = Arrays.copyOf(docs, size + count);
+                freqs = Arrays.copyOf(freqs, size + count);
+            }
+        }
+
+        private void append(int docId, int frequency, int length) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = docId;
+            freqs[size] = frequency;
+            size++;
+            live++;
+            maxFreq = Math.max(maxFreq, frequency);
+            minLength = Math.min(minLength, length);
+        }
+
+        private void purge(BitSet deleted, int[] lengths) {
+            int kept = 0;
+            maxFreq = 0;
+            minLength = Integer.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                if (!deleted.get(docs[i])) {
+                    docs[kept] = docs[i];
+                    freqs[kept] = freqs[i];
+                    maxFreq = Math.max(maxFreq, freqs[i]);
+                    minLength = Math.min(minLength, lengths[docs[i]]);
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+}
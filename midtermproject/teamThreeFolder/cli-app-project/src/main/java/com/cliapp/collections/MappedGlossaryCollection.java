@@ -0,0 +1,1255 @@
+package com.cliapp.collections;
+
+import com.cliapp.domain.GlossaryEntry;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Read-only glossary collection backed by a memory-mapped file, for glossaries too large to keep as
+ * GlossaryEntry objects on the heap. The file holds the entries as UTF-8 records, an
+ * open-addressing hash table from lowercased command to record, a Bloom filter that answers most
+ * misses without probing the table, the distinct commands in sorted order for completion, the
+ * records of each category, the cross-reference graph as CSR rows of records in both directions,
+ * and the lowercased commands with a BK-tree over them for fuzzy search. Entries are decoded only
+ * when a query returns them, so the heap holds little more than the category names whatever the
+ * glossary size. Opening a store checks every offset and index value in it against the layout,
+ * reading the field lengths of each record but decoding none, so a corrupt store fails there with
+ * an IOException.
+ *
+ * <p>Write a file with {@link #write} and serve it with {@link #open}. The store is immutable:
+ * {@link #isReadOnly()} is true and mutations throw UnsupportedOperationException, and reads only
+ * use absolute buffer access, so any number of threads may query it. Next to the store, write()
+ * also leaves two {@link IndexSegment} files, BM25 terms and substring trigrams, which open() maps
+ * when their checksum matches the store's; without them, substring and ranked searches scan the
+ * records. Fuzzy search walks the stored BK-tree and reads only the keys of the nodes it visits.
+ */
+public class MappedGlossaryCollection extends GlossaryCollection {
+
+    private static final int MAGIC = 0x474C5331; // "GLS1"
+    private static final int FORMAT_VERSION = 4;
+    private static final int HEADER_BYTES = 32;
+    private static final String TERMS_SUFFIX = ".terms";
+    private static final String TRIGRAMS_SUFFIX = ".trigrams";
+    private static final int BLOOM_BITS_PER_KEY = 10;
+    private static final int BLOOM_HASHES = 7;
+
+    private static final int COMMAND = 0;
+    private static final int DEFINITION = 1;
+    private static final int EXAMPLE = 2;
+    private static final int CATEGORY = 3;
+    private static final int FIELD_COUNT = 4;
+
+    private final ByteBuffer buffer;
+    private final long checksum;
+    private final int count;
+    private final int keyCount;
+    private final int tableMask;
+    private final int bloomBits;
+    private final int offsetsAt;
+    private final int tableAt;
+    private final int bloomAt;
+    private final int sortedAt;
+    private final int outOffsetsAt;
+    private final int outTargetsAt;
+    private final int inOffsetsAt;
+    private final int inTargetsAt;
+    private final int keyOffsetsAt;
+    private final int keyBytesAt;
+    private final int fuzzyKeysAt;
+    private final int fuzzyChildrenAt;
+    private final int fuzzyDistancesAt;
+    private final Map<String, Integer> categoryCounts;
+    private final Map<String, Integer> categoryRecordsAt;
+    private final LongAdder bloomRejections;
+    private final IndexSegment terms;
+    private final IndexSegment trigrams;
+
+    /**
+     * Check every section against the file size before anything is read from it, then every value
+     * that is used as an offset or index, so a truncated or corrupt store fails here with an
+     * IOException rather than later with a buffer exception or a lookup that never ends
+     */
+    private MappedGlossaryCollection(ByteBuffer buffer, Path file) throws IOException {
+        super(false);
+        long capacity = buffer.capacity();
+        this.buffer = buffer;
+        this.checksum = buffer.getLong(8);
+        this.count = buffer.getInt(16);
+        this.keyCount = buffer.getInt(20);
+        int tableSize = buffer.getInt(24);
+        int bloomWords = buffer.getInt(28);
+        require(count >= 0 && keyCount >= 0 && keyCount <= count, file);
+        require(Integer.bitCount(tableSize) == 1 && tableSize > keyCount && bloomWords > 0, file);
+        long sortedEnd =
+                HEADER_BYTES + 4L * count + 8L * tableSize + 8L * bloomWords + 4L * keyCount;
+        require(sortedEnd + 4 <= capacity, file);
+        this.tableMask = tableSize - 1;
+        this.bloomBits = bloomWords * 64;
+        this.offsetsAt = HEADER_BYTES;
+        this.tableAt = offsetsAt + 4 * count;
+        this.bloomAt = tableAt + 8 * tableSize;
+        this.sortedAt = bloomAt + 8 * bloomWords;
+
+        this.categoryCounts = new HashMap<>();
+        this.categoryRecordsAt = new HashMap<>();
+        int position = (int) sortedEnd;
+        int categories = buffer.getInt(position);
+        position += 4;
+        require(categories >= 0, file);
+        for (int i = 0; i < categories; i++) {
+            require(position + 4L <= capacity, file);
+            int length = buffer.getInt(position);
+            require(length >= -1 && position + 8L + Math.max(0, length) <= capacity, file);
+            String category = readString(position);
+            position = skipString(position);
+            int size = buffer.getInt(position);
+            require(size >= 0 && size <= count && position + 4L + 4L * size <= capacity, file);
+            categoryCounts.put(category, size);
+            categoryRecordsAt.put(category, position + 4);
+            position += 4 + 4 * size;
+        }
+
+        long graphAt = position;
+        require(graphAt + 4L * (count + 1) <= capacity, file);
+        int edges = buffer.getInt(position + 4 * count);
+        long inAt = graphAt + 4L * (count + 1) + 4L * Math.max(0, edges);
+        long keysAt = inAt + 4L * (count + 1) + 4L * Math.max(0, edges);
+        require(edges >= 0 && keysAt <= capacity, file);
+        this.outOffsetsAt = position;
+        this.outTargetsAt = outOffsetsAt + 4 * (count + 1);
+        this.inOffsetsAt = (int) inAt;
+        this.inTargetsAt = inOffsetsAt + 4 * (count + 1);
+
+        long keyBytesAt = keysAt + 4L * (keyCount + 1) + 4L * keyCount * 3 + 4;
+        require(keyBytesAt <= capacity, file);
+        this.keyOffsetsAt = (int) keysAt;
+        this.fuzzyKeysAt = keyOffsetsAt + 4 * (keyCount + 1);
+        this.fuzzyChildrenAt = fuzzyKeysAt + 4 * keyCount;
+        this.fuzzyDistancesAt = fuzzyChildrenAt + 4 * (keyCount + 1);
+        this.keyBytesAt = (int) keyBytesAt;
+        int keyBytes = buffer.getInt(keyOffsetsAt + 4 * keyCount);
+        long dataAt = keyBytesAt + keyBytes;
+        require(keyBytes >= 0 && dataAt <= capacity, file);
+
+        validate(edges, (int) dataAt, file);
+        this.bloomRejections = new LongAdder();
+        this.terms = openSegment(sibling(file, TERMS_SUFFIX));
+        this.trigrams = terms == null ? null : openSegment(sibling(file, TRIGRAMS_SUFFIX));
+    }
+
+    /**
+     * Every value the queries use to find something else: hash slots, sorted and category records,
+     * graph rows, key offsets, BK-tree links, and the field lengths of every record, which must
+     * follow the sections and each other without a gap and end exactly at the end of the file.
+     * BK-tree children come after their parent, so a search always ends.
+     */
+    private void validate(int edges, int dataAt, Path file) throws IOException {
+        int usedSlots = 0;
+        for (int slot = 0; slot <= tableMask; slot++) {
+            int record = buffer.getInt(tableAt + 8 * slot + 4) - 1;
+            require(record >= -1 && record < count, file);
+            usedSlots += record < 0 ? 0 : 1;
+        }
+        // At least one free slot, so every probe sequence ends
+        require(usedSlots == keyCount, file);
+        requireAll(sortedAt, keyCount, count, file);
+        for (int at : categoryRecordsAt.values()) {
+            requireAll(at, buffer.getInt(at - 4), count, file);
+        }
+        requireAscending(outOffsetsAt, count + 1, edges, file);
+        requireAll(outTargetsAt, edges, count, file);
+        requireAscending(inOffsetsAt, count + 1, edges, file);
+        requireAll(inTargetsAt, edges, count, file);
+
+        requireAscending(keyOffsetsAt, keyCount + 1, dataAt - keyBytesAt, file);
+        requireAll(fuzzyKeysAt, keyCount, keyCount, file);
+        requireAscending(fuzzyChildrenAt, keyCount + 1, keyCount, file);
+        for (int node = 0; node < keyCount; node++) {
+            require(buffer.getInt(fuzzyChildrenAt + 4 * node) > node, file);
+            require(buffer.getInt(fuzzyDistancesAt + 4 * node) >= 0, file);
+        }
+
+        long end = dataAt;
+        for (int record = 0; record < count; record++) {
+            require(recordAt(record) == end, file);
+            for (int f = 0; f < FIELD_COUNT; f++) {
+                require(end + 4 <= buffer.capacity(), file);
+                int length = buffer.getInt((int) end);
+                require(length >= -1, file);
+                end += 4L + Math.max(0, length);
+            }
+        }
+        require(end == buffer.capacity(), file);
+    }
+
+    /** Each of the length ints at position lies in [0, bound) */
+    private void requireAll(int position, int length, int bound, Path file) throws IOException {
+        for (int i = 0; i < length; i++) {
+            int value = buffer.getInt(position + 4 * i);
+            require(value >= 0 && value < bound, file);
+        }
+    }
+
+    /** The length ints at position start at 0 or more, never decrease and end at last */
+    private void requireAscending(int position, int length, int last, Path file)
+            throws IOException {
+        int previous = 0;
+        for (int i = 0; i < length; i++) {
+            int value = buffer.getInt(position + 4 * i);
+            require(value >= previous, file);
+            previous = value;
+        }
+        require(length == 0 || previous == last, file);
+    }
+
+    private static void require(boolean valid, Path file) throws IOException {
+        if (!valid) {
+            throw new IOException("Corrupt glossary store: " + file);
+        }
+    }
+
+    /** A segment built from this store's content, or null if it is missing or stale */
+    private IndexSegment openSegment(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            IndexSegment segment = IndexSegment.open(file);
+            if (segment.getChecksum() == checksum && segment.getDocumentCount() == count) {
+                return segment;
+            }
+        } catch (IOException e) {
+            System.err.println("Ignoring glossary index segment: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private static Path sibling(Path file, String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+
+    /** Map a store written by {@link #write}; the mapping outlives the file channel */
+    public static MappedGlossaryCollection open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a glossary store: " + file);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Not a glossary store: " + file);
+            }
+            return new MappedGlossaryCollection(buffer, file);
+        }
+    }
+
+    /** Write entries to a store file and its search segments, with no content checksum */
+    public static void write(Iterable<GlossaryEntry> entries, Path file) throws IOException {
+        write(entries, 0L, file);
+    }
+
+    /**
+     * Write entries to a store file, replacing it, and then its search segments. Records are
+     * streamed to a temporary file first; only the lowercased commands and the index sections are
+     * held in memory while writing. Entries without a command are skipped, and for repeated
+     * commands the last one wins lookups. The entries are iterated twice for the store, the second
+     * time to find cross references, and once per segment; the checksum of their source is recorded
+     * in every file for {@link #getChecksum}.
+     */
+    public static void write(Iterable<GlossaryEntry> entries, long checksum, Path file)
+            throws IOException {
+        writeStore(entries, checksum, file);
+        IndexSegment.write(
+                documents(entries, MappedGlossaryCollection::rankedTerms),
+                checksum,
+                sibling(file, TERMS_SUFFIX));
+        IndexSegment.write(
+                documents(entries, MappedGlossaryCollection::trigrams),
+                checksum,
+                sibling(file, TRIGRAMS_SUFFIX));
+    }
+
+    private static void writeStore(Iterable<GlossaryEntry> entries, long checksum, Path file)
+            throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path data = Files.createTempFile(directory, "glossary", ".data");
+        Path staged = Files.createTempFile(directory, "glossary", ".store");
+        try {
+            int[] offsets = new int[16];
+            String[] keys = new String[16];
+            int[] categoryOf = new int[16];
+            Map<String, Integer> categoryIds = new LinkedHashMap<>();
+            int count = 0;
+            try (DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(data)))) {
+                for (GlossaryEntry entry : entries) {
+                    if (entry == null || entry.getCommand() == null) {
+                        continue;
+                    }
+                    if (count == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, count * 2);
+                        keys = Arrays.copyOf(keys, count * 2);
+                        categoryOf = Arrays.copyOf(categoryOf, count * 2);
+                    }
+                    offsets[count] = out.size();
+                    keys[count] = entry.getCommand().toLowerCase();
+                    writeString(out, entry.getCommand());
+                    writeString(out, entry.getDefinition());
+                    writeString(out, entry.getExample());
+                    writeString(out, entry.getCategory());
+                    categoryIds.putIfAbsent(entry.getCategory(), categoryIds.size());
+                    categoryOf[count] = categoryIds.get(entry.getCategory());
+                    count++;
+                }
+            }
+
+            // Distinct commands in order of first appearance, each served by its last record
+            Map<String, Integer> keyIds = new LinkedHashMap<>();
+            for (int record = 0; record < count; record++) {
+                keyIds.putIfAbsent(keys[record], keyIds.size());
+            }
+            int keyCount = keyIds.size();
+            int[] latest = new int[keyCount];
+            for (int record = 0; record < count; record++) {
+                latest[keyIds.get(keys[record])] = record;
+            }
+            int tableSize = 2;
+            while (tableSize < keyCount * 2) {
+                tableSize <<= 1;
+            }
+            int bloomWords = Math.max(1, (int) (((long) keyCount * BLOOM_BITS_PER_KEY + 63) / 64));
+            String[] sortKeys = keys;
+            Integer[] sorted = Arrays.stream(latest).boxed().toArray(Integer[]::new);
+            Arrays.sort(sorted, Comparator.comparing(record -> sortKeys[record]));
+            String[] sortedKeys = new String[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                sortedKeys[i] = keys[sorted[i]];
+            }
+            ByteArrayOutputStream sectionBytes = new ByteArrayOutputStream();
+            DataOutputStream sections = new DataOutputStream(sectionBytes);
+            writeCategories(sections, categoryIds, categoryOf, count);
+            writeCrossReferences(sections, entries, keys, keyIds, latest, count);
+            writeFuzzyIndex(sections, sortedKeys);
+            long indexBytes =
+                    HEADER_BYTES
+                            + 4L * count
+                            + 8L * tableSize
+                            + 8L * bloomWords
+                            + 4L * keyCount
+                            + sectionBytes.size();
+            if (indexBytes + Files.size(data) > Integer.MAX_VALUE) {
+                throw new IOException("Glossary too large for a single mapped store");
+            }
+
+            ByteBuffer index = ByteBuffer.allocate((int) indexBytes);
+            index.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(checksum);
+            index.putInt(count).putInt(keyCount);
+            index.putInt(tableSize).putInt(bloomWords);
+            for (int record = 0; record < count; record++) {
+                index.putInt((int) indexBytes + offsets[record]);
+            }
+
+            int tableAt = index.position();
+            int bloomAt = tableAt + 8 * tableSize;
+            for (int record : latest) {
+                long hash = hash(keys[record]);
+                int slot = (int) hash & (tableSize - 1);
+                while (index.getInt(tableAt + 8 * slot + 4) != 0) {
+                    slot = (slot + 1) & (tableSize - 1);
+                }
+                index.putInt(tableAt + 8 * slot, fingerprint(hash));
+                index.putInt(tableAt + 8 * slot + 4, record + 1);
+                for (int i = 0; i < BLOOM_HASHES; i++) {
+                    int bit = bloomBit(hash, i, bloomWords * 64);
+                    int word = bloomAt + 8 * (bit >>> 6);
+                    index.putLong(word, index.getLong(word) | (1L << bit));
+                }
+            }
+
+            index.position(bloomAt + 8 * bloomWords);
+            for (int record : sorted) {
+                index.putInt(record);
+            }
+            index.put(sectionBytes.toByteArray());
+            index.flip();
+
+            try (FileChannel out =
+                            FileChannel.open(
+                                    staged,
+                                    StandardOpenOption.WRITE,
+                                    StandardOpenOption.TRUNCATE_EXISTING);
+                    FileChannel in = FileChannel.open(data, StandardOpenOption.READ)) {
+                while (index.hasRemaining()) {
+                    out.write(index);
+                }
+                long copied = 0;
+                while (copied < in.size()) {
+                    copied += in.transferTo(copied, in.size() - copied, out);
+                }
+            }
+            Files.move(staged, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(data);
+            Files.deleteIfExists(staged);
+        }
+    }
+
+    /** Per category, in order of first appearance: its name, size and ascending records */
+    private static void writeCategories(
+            DataOutputStream out, Map<String, Integer> categoryIds, int[] categoryOf, int count)
+            throws IOException {
+        int[] starts = new int[categoryIds.size() + 1];
+        for (int record = 0; record < count; record++) {
+            starts[categoryOf[record] + 1]++;
+        }
+        for (int id = 0; id < categoryIds.size(); id++) {
+            starts[id + 1] += starts[id];
+        }
+        int[] records = new int[count];
+        int[] fill = Arrays.copyOf(starts, categoryIds.size());
+        for (int record = 0; record < count; record++) {
+            records[fill[categoryOf[record]]++] = record;
+        }
+
+        out.writeInt(categoryIds.size());
+        for (Map.Entry<String, Integer> category : categoryIds.entrySet()) {
+            int id = category.getValue();
+            writeString(out, category.getKey());
+            out.writeInt(starts[id + 1] - starts[id]);
+            for (int i = starts[id]; i < starts[id + 1]; i++) {
+                out.writeInt(records[i]);
+            }
+        }
+    }
+
+    /**
+     * The mention graph as forward and reverse CSR rows indexed by record: offsets for every
+     * record, then the targets. Only the record serving each command has edges, and each row lists
+     * records in the order their commands first appear, as {@link CrossReferenceGraph} orders its
+     * nodes. Finding mentions takes a second pass over the entries, holding only the edges.
+     */
+    private static void writeCrossReferences(
+            DataOutputStream out,
+            Iterable<GlossaryEntry> entries,
+            String[] keys,
+            Map<String, Integer> keyIds,
+            int[] latest,
+            int count)
+            throws IOException {
+        CrossReferenceGraph.MentionFinder finder =
+                new CrossReferenceGraph.MentionFinder(new ArrayList<>(keyIds.keySet()));
+        int[][] mentions = new int[latest.length][];
+        int record = 0;
+        for (GlossaryEntry entry : entries) {
+            if (entry == null || entry.getCommand() == null) {
+                continue;
+            }
+            if (record >= count || !keys[record].equals(entry.getCommand().toLowerCase())) {
+                throw new IOException("Glossary entries changed while the store was written");
+            }
+            int id = keyIds.get(keys[record]);
+            if (latest[id] == record) {
+                mentions[id] = finder.mentionsOf(id, entry);
+            }
+            record++;
+        }
+        if (record != count) {
+            throw new IOException("Glossary entries changed while the store was written");
+        }
+
+        int[] inDegrees = new int[latest.length];
+        for (int[] targets : mentions) {
+            for (int target : targets) {
+                inDegrees[target]++;
+            }
+        }
+        int[][] mentionedBy = new int[latest.length][];
+        for (int id = 0; id < latest.length; id++) {
+            mentionedBy[id] = new int[inDegrees[id]];
+            inDegrees[id] = 0;
+        }
+        // Sources are visited in order, so every reverse row comes out in command order
+        for (int source = 0; source < latest.length; source++) {
+            for (int target : mentions[source]) {
+                mentionedBy[target][inDegrees[target]++] = source;
+            }
+        }
+
+        int[] recordRows = new int[count];
+        Arrays.fill(recordRows, -1);
+        for (int id = 0; id < latest.length; id++) {
+            recordRows[latest[id]] = id;
+        }
+        for (int[][] rows : new int[][][] {mentions, mentionedBy}) {
+            int offset = 0;
+            for (int r = 0; r < count; r++) {
+                out.writeInt(offset);
+                offset += recordRows[r] < 0 ? 0 : rows[recordRows[r]].length;
+            }
+            out.writeInt(offset);
+            for (int r = 0; r < count; r++) {
+                if (recordRows[r] >= 0) {
+                    for (int target : rows[recordRows[r]]) {
+                        out.writeInt(latest[target]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The lowercased commands in sorted order, as offsets into their UTF-8 bytes, and a BK-tree
+     * over them, built top-down like {@link BKTree} builds one: per node its key's sorted position,
+     * where its children start, and its distance from its parent. Nodes are numbered breadth first,
+     * so the children of a node are the next unnumbered nodes and one start offset per node is
+     * enough to find them.
+     */
+    private static void writeFuzzyIndex(DataOutputStream out, String[] sortedKeys)
+            throws IOException {
+        int keyCount = sortedKeys.length;
+        byte[][] encoded = new byte[keyCount][];
+        int offset = 0;
+        out.writeInt(offset);
+        for (int i = 0; i < keyCount; i++) {
+            encoded[i] = sortedKeys[i].getBytes(StandardCharsets.UTF_8);
+            offset += encoded[i].length;
+            out.writeInt(offset);
+        }
+
+        int[] nodeKeys = new int[keyCount];
+        int[] childStarts = new int[keyCount + 1];
+        int[] distances = new int[keyCount];
+        int[][] below = new int[keyCount][];
+        int next = Math.min(1, keyCount);
+        if (keyCount > 0) {
+            below[0] = new int[keyCount - 1];
+            Arrays.setAll(below[0], i -> i + 1);
+        }
+        for (int node = 0; node < keyCount; node++) {
+            childStarts[node] = next;
+            String key = sortedKeys[nodeKeys[node]];
+            Map<Integer, List<Integer>> groups = new TreeMap<>();
+            for (int other : below[node]) {
+                groups.computeIfAbsent(
+                                BKTree.levenshtein(sortedKeys[other], key), d -> new ArrayList<>())
+                        .add(other);
+            }
+            below[node] = null;
+            for (Map.Entry<Integer, List<Integer>> group : groups.entrySet()) {
+                List<Integer> subtree = group.getValue();
+                nodeKeys[next] = subtree.get(0);
+                distances[next] = group.getKey();
+                below[next] =
+                        subtree.subList(1, subtree.size()).stream().mapToInt(i -> i).toArray();
+                next++;
+            }
+        }
+        childStarts[keyCount] = next;
+
+        for (int key : nodeKeys) {
+            out.writeInt(key);
+        }
+        for (int start : childStarts) {
+            out.writeInt(start);
+        }
+        for (int distance : distances) {
+            out.writeInt(distance);
+        }
+        for (byte[] bytes : encoded) {
+            out.write(bytes);
+        }
+    }
+
+    /** Tokenize every entry that the store keeps, in store order */
+    private static Iterable<List<String>> documents(
+            Iterable<GlossaryEntry> entries, Function<GlossaryEntry, List<String>> tokenizer) {
+        return () ->
+                new Iterator<>() {
+                    private final Iterator<GlossaryEntry> source = entries.iterator();
+                    private GlossaryEntry next = advance();
+
+                    private GlossaryEntry advance() {
+                        while (source.hasNext()) {
+                            GlossaryEntry entry = source.next();
+                            if (entry != null && entry.getCommand() != null) {
+                                return entry;
+                            }
+                        }
+                        return null;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next != null;
+                    }
+
+                    @Override
+                    public List<String> next() {
+                        if (next == null) {
+                            throw new NoSuchElementException();
+                        }
+                        GlossaryEntry entry = next;
+                        next = advance();
+                        return tokenizer.apply(entry);
+                    }
+                };
+    }
+
+    /** The words GlossaryCollection ranks an entry by */
+    private static List<String> rankedTerms(GlossaryEntry entry) {
+        List<String> tokens = InvertedIndex.tokenize(entry.getCommand());
+        tokens.addAll(InvertedIndex.tokenize(entry.getDefinition()));
+        tokens.addAll(InvertedIndex.tokenize(entry.getExample()));
+        tokens.addAll(InvertedIndex.tokenize(entry.getCategory()));
+        return tokens;
+    }
+
+    /** The distinct trigrams of the lowercased fields GlossaryCollection searches substrings in */
+    private static List<String> trigrams(GlossaryEntry entry) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        addTrigrams(trigrams, entry.getCommand());
+        addTrigrams(trigrams, entry.getDefinition());
+        return new ArrayList<>(trigrams);
+    }
+
+    private static void addTrigrams(Set<String> trigrams, String text) {
+        if (text != null) {
+            String lowered = text.toLowerCase();
+            for (int i = 0; i + 3 <= lowered.length(); i++) {
+                trigrams.add(lowered.substring(i, i + 3));
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /** 64-bit FNV-1a over the key's chars with a final mix; stable across JVMs, unlike seeds */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static int fingerprint(long hash) {
+        return (int) (hash >>> 32);
+    }
+
+    /** Double hashing: the i-th probe of the Bloom filter */
+    private static int bloomBit(long hash, int i, int bits) {
+        return Math.floorMod((int) hash + i * (int) (hash >>> 32), bits);
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    public boolean add(GlossaryEntry entry) {
+        throw new UnsupportedOperationException("Mapped glossary store is read-only");
+    }
+
+    @Override
+    public int putAll(Collection<GlossaryEntry> entries) {
+        throw new UnsupportedOperationException("Mapped glossary store is read-only");
+    }
+
+    @Override
+    public boolean remove(GlossaryEntry entry) {
+        throw new UnsupportedOperationException("Mapped glossary store is read-only");
+    }
+
+    @Override
+    public boolean update(String command, GlossaryEntry newEntry) {
+        throw new UnsupportedOperationException("Mapped glossary store is read-only");
+    }
+
+    /** Misses rejected by the Bloom filter never touch the hash table or the records */
+    @Override
+    public GlossaryEntry getByCommand(String command) {
+        int record = recordOf(command);
+        return record < 0 ? null : entry(record);
+    }
+
+    /** The record serving the command, or -1 */
+    private int recordOf(String command) {
+        if (command == null) {
+            return -1;
+        }
+        String key = command.toLowerCase();
+        long hash = hash(key);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = bloomBit(hash, i, bloomBits);
+            if ((buffer.getLong(bloomAt + 8 * (bit >>> 6)) & (1L << bit)) == 0) {
+                bloomRejections.increment();
+                return -1;
+            }
+        }
+
+        int slot = (int) hash & tableMask;
+        while (true) {
+            int record = buffer.getInt(tableAt + 8 * slot + 4) - 1;
+            if (record < 0) {
+                return -1;
+            }
+            if (buffer.getInt(tableAt + 8 * slot) == fingerprint(hash)
+                    && key.equals(field(record, COMMAND).toLowerCase())) {
+                return record;
+            }
+            slot = (slot + 1) & tableMask;
+        }
+    }
+
+    /** Binary search over the sorted commands, decoding only the keys it visits */
+    @Override
+    public List<String> completeCommand(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        if (prefix == null || limit <= 0) {
+            return result;
+        }
+
+        String lowerPrefix = prefix.toLowerCase();
+        int low = 0;
+        int high = keyCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedKey(mid).compareTo(lowerPrefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < keyCount && result.size() < limit; i++) {
+            String command = field(sortedRecord(i), COMMAND);
+            if (!command.toLowerCase().startsWith(lowerPrefix)) {
+                break;
+            }
+            result.add(command);
+        }
+        return result;
+    }
+
+    /**
+     * Walks the stored BK-tree, descending only into children whose distance from their parent is
+     * within maxDistance of the parent's distance from the query; closest first, then alphabetical
+     */
+    @Override
+    public List<GlossaryEntry> searchFuzzy(String command, int maxDistance) {
+        List<GlossaryEntry> result = new ArrayList<>();
+        if (command == null || maxDistance < 0 || keyCount == 0) {
+            return result;
+        }
+
+        String query = command.toLowerCase();
+        List<int[]> matches = new ArrayList<>();
+        int[] pending = new int[16];
+        int pendingCount = 1; // node 0, the root
+        while (pendingCount > 0) {
+            int node = pending[--pendingCount];
+            int childFrom = buffer.getInt(fuzzyChildrenAt + 4 * node);
+            int childTo = buffer.getInt(fuzzyChildrenAt + 4 * node + 4);
+            int maxEdge = 0;
+            for (int child = childFrom; child < childTo; child++) {
+                maxEdge = Math.max(maxEdge, buffer.getInt(fuzzyDistancesAt + 4 * child));
+            }
+            // Past maxEdge + maxDistance no child can qualify, so the exact value stops mattering
+            int key = buffer.getInt(fuzzyKeysAt + 4 * node);
+            int distance = BKTree.levenshtein(query, sortedKey(key), maxEdge + maxDistance);
+            if (distance <= maxDistance) {
+                matches.add(new int[] {distance, key});
+            }
+            for (int child = childFrom; child < childTo; child++) {
+                int edge = buffer.getInt(fuzzyDistancesAt + 4 * child);
+                if (Math.abs(edge - distance) <= maxDistance) {
+                    if (pendingCount == pending.length) {
+                        pending = Arrays.copyOf(pending, pendingCount * 2);
+                    }
+                    pending[pendingCount++] = child;
+                }
+            }
+        }
+        matches.sort(Comparator.<int[]>comparingInt(match -> match[0]).thenComparingInt(m -> m[1]));
+        for (int[] match : matches) {
+            result.add(entry(sortedRecord(match[1])));
+        }
+        return result;
+    }
+
+    /** Decodes every entry; prefer {@link #getPage} or the iterator for large stores */
+    @Override
+    public List<GlossaryEntry> getAllEntries() {
+        List<GlossaryEntry> result = new ArrayList<>(count);
+        for (GlossaryEntry entry : this) {
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /** Cursors are record positions in the file */
+    @Override
+    public Page getPage(int cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+        if (cursor < 0 || cursor >= count) {
+            return new Page(new ArrayList<>(), -1);
+        }
+        List<GlossaryEntry> window = new ArrayList<>(Math.min(limit, count - cursor));
+        int record = cursor;
+        while (record < count && window.size() < limit) {
+            window.add(entry(record++));
+        }
+        return new Page(window, record < count ? record : -1);
+    }
+
+    /** Decodes only the category's records, read from its stored list */
+    @Override
+    public List<GlossaryEntry> getEntriesByCategory(String category) {
+        List<GlossaryEntry> result = new ArrayList<>();
+        Integer at = category == null ? null : categoryRecordsAt.get(category);
+        if (at != null) {
+            for (int i = 0; i < categoryCounts.get(category); i++) {
+                result.add(entry(buffer.getInt(at + 4 * i)));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> getCategories() {
+        return Collections.unmodifiableSet(categoryCounts.keySet());
+    }
+
+    @Override
+    public int getCategorySize(String category) {
+        return categoryCounts.getOrDefault(category, 0);
+    }
+
+    /**
+     * Intersect the trigram postings of the keyword, rarest first, and verify the candidates; falls
+     * back to a scan without a trigram segment or for keywords shorter than a trigram.
+     */
+    @Override
+    public List<GlossaryEntry> searchEntries(String keyword) {
+        List<GlossaryEntry> result = new ArrayList<>();
+        if (keyword != null) {
+            BitSet records = substringRecords(keyword.toLowerCase());
+            for (int record = records.nextSetBit(0);
+                    record >= 0;
+                    record = records.nextSetBit(record + 1)) {
+                result.add(entry(record));
+            }
+        }
+        return result;
+    }
+
+    private BitSet substringRecords(String needle) {
+        BitSet result = new BitSet(count);
+        if (trigrams == null || needle.length() < 3) {
+            for (int record = 0; record < count; record++) {
+                if (contains(field(record, COMMAND), needle)
+                        || contains(field(record, DEFINITION), needle)) {
+                    result.set(record);
+                }
+            }
+            return result;
+        }
+
+        Set<String> needleTrigrams = new LinkedHashSet<>();
+        addTrigrams(needleTrigrams, needle);
+        List<int[]> lists = new ArrayList<>();
+        for (String trigram : needleTrigrams) {
+            int[] docs = trigrams.documentsContaining(trigram);
+            if (docs.length == 0) {
+                return result;
+            }
+            lists.add(docs);
+        }
+        lists.sort(Comparator.comparingInt(docs -> docs.length));
+        int[] candidates = lists.get(0);
+        for (int i = 1; i < lists.size() && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists.get(i));
+        }
+
+        for (int record : candidates) {
+            if (contains(field(record, COMMAND), needle)
+                    || contains(field(record, DEFINITION), needle)) {
+                result.set(record);
+            }
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Record indices as entry ids. Terms and substrings are served from the segments when there are
+     * any; categories, and everything without segments, by a scan, which the estimates reflect.
+     */
+    @Override
+    GlossaryQuery.Source querySource() {
+        return new GlossaryQuery.Source() {
+            @Override
+            public int idBound() {
+                return count;
+            }
+
+            @Override
+            public BitSet all() {
+                BitSet result = new BitSet(count);
+                result.set(0, count);
+                return result;
+            }
+
+            @Override
+            public GlossaryEntry entry(int id) {
+                return MappedGlossaryCollection.this.entry(id);
+            }
+
+            @Override
+            public Set<String> categories() {
+                return categoryCounts.keySet();
+            }
+
+            @Override
+            public int categorySize(String category) {
+                return getCategorySize(category);
+            }
+
+            @Override
+            public BitSet category(String category) {
+                BitSet result = new BitSet(count);
+                Integer at = categoryRecordsAt.get(category);
+                for (int i = 0; at != null && i < categoryCounts.get(category); i++) {
+                    result.set(buffer.getInt(at + 4 * i));
+                }
+                return result;
+            }
+
+            @Override
+            public int termFrequency(String term) {
+                return terms == null ? count : terms.documentsContaining(term).length;
+            }
+
+            @Override
+            public BitSet term(String term) {
+                BitSet result = new BitSet(count);
+                if (terms != null) {
+                    for (int record : terms.documentsContaining(term)) {
+                        result.set(record);
+                    }
+                    return result;
+                }
+                for (int record = 0; record < count; record++) {
+                    for (int field = COMMAND; field <= CATEGORY; field++) {
+                        if (InvertedIndex.tokenize(field(record, field)).contains(term)) {
+                            result.set(record);
+                            break;
+                        }
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            public BitSet substring(String keyword) {
+                return substringRecords(keyword);
+            }
+        };
+    }
+
+    /**
+     * Reads the command's stored rows: the records it mentions, then the records mentioning it that
+     * it does not mention, decoding only those
+     */
+    @Override
+    public List<GlossaryEntry> getRelated(String command) {
+        List<GlossaryEntry> related = new ArrayList<>();
+        int record = recordOf(command);
+        if (record < 0) {
+            return related;
+        }
+        int outFrom = buffer.getInt(outOffsetsAt + 4 * record);
+        int outTo = buffer.getInt(outOffsetsAt + 4 * record + 4);
+        int[] mentioned = new int[outTo - outFrom];
+        for (int i = 0; i < mentioned.length; i++) {
+            mentioned[i] = buffer.getInt(outTargetsAt + 4 * (outFrom + i));
+            related.add(entry(mentioned[i]));
+        }
+        Arrays.sort(mentioned);
+        int inTo = buffer.getInt(inOffsetsAt + 4 * record + 4);
+        for (int i = buffer.getInt(inOffsetsAt + 4 * record); i < inTo; i++) {
+            int source = buffer.getInt(inTargetsAt + 4 * i);
+            if (Arrays.binarySearch(mentioned, source) < 0) {
+                related.add(entry(source));
+            }
+        }
+        return related;
+    }
+
+    /** The graph is written into the store, so there is nothing to build */
+    @Override
+    public void buildCrossReferences() {}
+
+    /** The store keeps no packed text column, so this decodes and scans every record */
+    @Override
+    public List<GlossaryEntry> searchEntriesByScan(String keyword) {
+        return scanEntries(keyword);
+    }
+
+    @Override
+    List<GlossaryEntry> scanEntries(String keyword) {
+        List<GlossaryEntry> result = new ArrayList<>();
+        if (keyword != null) {
+            String lowerKeyword = keyword.toLowerCase();
+            for (int record = 0; record < count; record++) {
+                if (contains(field(record, COMMAND), lowerKeyword)
+                        || contains(field(record, DEFINITION), lowerKeyword)) {
+                    result.add(entry(record));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean contains(String field, String lowerKeyword) {
+        return field != null && field.toLowerCase().contains(lowerKeyword);
+    }
+
+    /**
+     * BM25 over the same fields and with the same scores as {@link GlossaryCollection}. Served from
+     * the terms segment when there is one; otherwise in two scans, the first gathering document
+     * frequencies and lengths and the second scoring into a bounded heap, so memory stays
+     * proportional to {@code limit} rather than to the matches.
+     */
+    @Override
+    public List<GlossaryEntry> searchRanked(String query, int limit) {
+        List<GlossaryEntry> result = new ArrayList<>();
+        if (terms != null) {
+            for (InvertedIndex.Hit hit : terms.search(query, limit)) {
+                result.add(entry(hit.getDocId()));
+            }
+            return result;
+        }
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(InvertedIndex.tokenize(query)));
+        if (limit <= 0 || count == 0 || terms.isEmpty()) {
+            return result;
+        }
+
+        int[] frequencies = new int[terms.size()];
+        int[] documentFrequencies = new int[terms.size()];
+        long totalLength = 0;
+        for (int record = 0; record < count; record++) {
+            totalLength += termFrequencies(record, terms, frequencies);
+            for (int t = 0; t < terms.size(); t++) {
+                if (frequencies[t] > 0) {
+                    documentFrequencies[t]++;
+                }
+            }
+        }
+
+        double[] idfs = new double[terms.size()];
+        for (int t = 0; t < terms.size(); t++) {
+            idfs[t] = InvertedIndex.idf(count, documentFrequencies[t]);
+        }
+        double averageLength = (double) totalLength / count;
+        PriorityQueue<InvertedIndex.Hit> best =
+                new PriorityQueue<>(limit + 1, InvertedIndex.WORST_FIRST);
+        for (int record = 0; record < count; record++) {
+            int length = termFrequencies(record, terms, frequencies);
+            double score = 0;
+            boolean matched = false;
+            for (int t = 0; t < terms.size(); t++) {
+                if (frequencies[t] > 0) {
+                    score += InvertedIndex.score(idfs[t], frequencies[t], length, averageLength);
+                    matched = true;
+                }
+            }
+            if (matched) {
+                best.offer(new InvertedIndex.Hit(record, score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        List<InvertedIndex.Hit> hits = new ArrayList<>(best);
+        hits.sort(InvertedIndex.WORST_FIRST.reversed());
+        for (InvertedIndex.Hit hit : hits) {
+            result.add(entry(hit.getDocId()));
+        }
+        return result;
+    }
+
+    /** Fill in how often each term occurs in the record and return its token count */
+    private int termFrequencies(int record, List<String> terms, int[] frequencies) {
+        Arrays.fill(frequencies, 0);
+        int length = 0;
+        int position = recordAt(record);
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            for (String token : InvertedIndex.tokenize(readString(position))) {
+                int t = terms.indexOf(token);
+                if (t >= 0) {
+                    frequencies[t]++;
+                }
+                length++;
+            }
+            position = skipString(position);
+        }
+        return length;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    @Override
+    int getSlotCount() {
+        return count;
+    }
+
+    /** Checksum of the content the store was written from, as passed to {@link #write} */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /** Whether searches are served from up-to-date index segments rather than by scanning */
+    public boolean hasSearchSegments() {
+        return terms != null && trigrams != null;
+    }
+
+    /** Number of getByCommand misses answered by the Bloom filter alone */
+    public long getBloomRejectionCount() {
+        return bloomRejections.sum();
+    }
+
+    /** Decodes entries one at a time in file order; remove() is not supported */
+    @Override
+    public Iterator<GlossaryEntry> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public GlossaryEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return entry(next++);
+            }
+        };
+    }
+
+    private GlossaryEntry entry(int record) {
+        String[] fields = new String[FIELD_COUNT];
+        int position = recordAt(record);
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            fields[f] = readString(position);
+            position = skipString(position);
+        }
+        return new GlossaryEntry(
+                fields[COMMAND], fields[DEFINITION], fields[EXAMPLE], fields[CATEGORY]);
+    }
+
+    private String field(int record, int field) {
+        int position = recordAt(record);
+        for (int f = 0; f < field; f++) {
+            position = skipString(position);
+        }
+        return readString(position);
+    }
+
+    private int recordAt(int record) {
+        return buffer.getInt(offsetsAt + 4 * record);
+    }
+
+    private int sortedRecord(int i) {
+        return buffer.getInt(sortedAt + 4 * i);
+    }
+
+    /** The i-th lowercased command in sorted order, read from the stored keys */
+    private String sortedKey(int i) {
+        int from = buffer.getInt(keyOffsetsAt + 4 * i);
+        byte[] bytes = new byte[buffer.getInt(keyOffsetsAt + 4 * i + 4) - from];
+        buffer.get(keyBytesAt + from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String readString(int position) {
+        int length = buffer.getInt(position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int skipString(int position) {
+        return position + 4 + Math.max(0, buffer.getInt(position));
+    }
+}
@@ -0,0 +1,113 @@
+package com.cliapp.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sorted array of distinct keys answering prefix queries with a binary search for the start of the
+ * matching range. Keys are compared exactly, so callers normalize case before adding or querying.
+ *
+ * <p>Adds and removes are O(log n): they only check the sorted array and note the change in a
+ * pending set. The next {@link #complete} folds pending changes in with one sort of the added keys
+ * and one merge, O(n + p log p) for p pending changes, so a burst of writes costs one merge rather
+ * than one shifting insert each. Methods are synchronized because completing may fold, which lets
+ * callers that allow concurrent reads complete from several threads at once.
+ */
+public class PrefixIndex {
+
+    private String[] keys;
+    private int size;
+
+    /** Keys added since the last fold, not in keys */
+    private final Set<String> added = new HashSet<>();
+
+    /** Keys removed since the last fold, still in keys */
+    private final Set<String> removed = new HashSet<>();
+
+    public PrefixIndex() {
+        this.keys = new String[16];
+    }
+
+    /** Add a key; returns false if it was already present */
+    public synchronized boolean add(String key) {
+        if (removed.remove(key)) {
+            return true;
+        }
+        return Arrays.binarySearch(keys, 0, size, key) < 0 && added.add(key);
+    }
+
+    /** Add many keys, as {@link #add} does each. Returns the number of keys that were new. */
+    public synchronized int addAll(Collection<String> newKeys) {
+        int count = 0;
+        for (String key : newKeys) {
+            if (add(key)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Remove a key; returns false if it was not present */
+    public synchronized boolean remove(String key) {
+        if (added.remove(key)) {
+            return true;
+        }
+        return Arrays.binarySearch(keys, 0, size, key) >= 0 && removed.add(key);
+    }
+
+    /** The first {@code limit} keys, in sorted order, that start with the prefix */
+    public synchronized List<String> complete(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        if (prefix == null || limit <= 0) {
+            return result;
+        }
+
+        fold();
+        int at = Arrays.binarySearch(keys, 0, size, prefix);
+        for (int i = at >= 0 ? at : -at - 1; i < size && result.size() < limit; i++) {
+            if (!keys[i].startsWith(prefix)) {
+                break;
+            }
+            result.add(keys[i]);
+        }
+        return result;
+    }
+
+    /** Merge pending adds into the sorted array and drop pending removes from it */
+    private void fold() {
+        if (added.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        String[] sorted = added.toArray(new String[0]);
+        Arrays.sort(sorted);
+        String[] merged = new String[Math.max(16, size - removed.size() + sorted.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size || j < sorted.length) {
+            if (j == sorted.length || (i < size && keys[i].compareTo(sorted[j]) < 0)) {
+                String key = keys[i++];
+                if (!removed.contains(key)) {
+                    merged[count++] = key;
+                }
+            } else {
+                merged[count++] = sorted[j++];
+            }
+        }
+
+        keys = merged;
+        size = count;
+        added.clear();
+        removed.clear();
+    }
+
+    /** Number of keys */
+    public synchronized int size() {
+        return size + added.size() - removed.size();
+    }
+}
@@ -0,0 +1,283 @@
+package com.cliapp.collections;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Lowercased text fields of int-keyed documents packed end to end into one UTF-8 byte[], with an
+ * array of segment offsets, so a substring scan walks contiguous memory instead of lowercasing and
+ * searching one String per field. Each field is a segment; a match must fit inside one segment, so
+ * fields never match across their boundaries.
+ *
+ * <p>Replacing or removing a document only retires its segments; the bytes are squeezed out once
+ * retired bytes outweigh live ones. Matching bytes instead of chars is exact because UTF-8 is
+ * self-synchronizing; unpaired surrogates, which UTF-8 cannot encode, are stored as 0xFF (never
+ * valid UTF-8) and keywords containing them are rejected.
+ */
+public class TextColumn {
+
+    private static final int MIN_GARBAGE_BEFORE_COMPACTION = 4096;
+    private static final byte UNPAIRED_SURROGATE = (byte) 0xFF;
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+    private static final VarHandle LONGS =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private byte[] bytes;
+    private int length;
+    private int[] segmentStarts;
+    private int[] segmentIds;
+    private int segmentCount;
+    private final BitSet liveSegments;
+    private int[] firstSegments;
+    private int[] segmentCounts;
+    private final BitSet liveIds;
+    private int liveBytes;
+
+    public TextColumn() {
+        this.bytes = new byte[256];
+        this.segmentStarts = new int[16];
+        this.segmentIds = new int[16];
+        this.liveSegments = new BitSet();
+        this.firstSegments = new int[16];
+        this.segmentCounts = new int[16];
+        this.liveIds = new BitSet();
+    }
+
+    /** Store the document's fields, lowercased, replacing any previous text under the id */
+    public void put(int id, String... fields) {
+        remove(id);
+        if (id >= firstSegments.length) {
+            int capacity = Math.max(id + 1, firstSegments.length * 2);
+            firstSegments = Arrays.copyOf(firstSegments, capacity);
+            segmentCounts = Arrays.copyOf(segmentCounts, capacity);
+        }
+
+        firstSegments[id] = segmentCount;
+        segmentCounts[id] = fields.length;
+        liveIds.set(id);
+        for (String field : fields) {
+            byte[] encoded = field == null ? new byte[0] : encode(field.toLowerCase());
+            append(id, encoded);
+        }
+        compactIfSparse();
+    }
+
+    /** Forget the document's text; returns false if there was none */
+    public boolean remove(int id) {
+        if (!liveIds.get(id)) {
+            return false;
+        }
+        liveIds.clear(id);
+        for (int s = firstSegments[id]; s < firstSegments[id] + segmentCounts[id]; s++) {
+            liveSegments.clear(s);
+            liveBytes -= segmentEnd(s) - segmentStarts[s];
+        }
+        return true;
+    }
+
+    /** Number of documents stored */
+    public int size() {
+        return liveIds.cardinality();
+    }
+
+    /** Bytes in the packed buffer, including retired segments not yet compacted */
+    public int getByteCount() {
+        return length;
+    }
+
+    /**
+     * Ids of the documents with a field containing the keyword, ignoring case the same way as
+     * {@code field.toLowerCase().contains(keyword.toLowerCase())}, or null if the keyword cannot be
+     * matched as UTF-8 (it contains an unpaired surrogate).
+     */
+    public BitSet search(String keyword) {
+        return search(keyword, true);
+    }
+
+    /** Search with the word-at-a-time first-byte probe, or byte by byte for comparison */
+    BitSet search(String keyword, boolean wordAtATime) {
+        String needle = keyword.toLowerCase();
+        if (hasUnpairedSurrogate(needle)) {
+            return null;
+        }
+        if (needle.isEmpty()) {
+            return (BitSet) liveIds.clone();
+        }
+
+        byte[] pattern = needle.getBytes(StandardCharsets.UTF_8);
+        BitSet ids = new BitSet();
+        int position = 0;
+        while (true) {
+            int at =
+                    wordAtATime
+                            ? indexOf(bytes, position, length, pattern)
+                            : indexOfScalar(bytes, position, length, pattern);
+            if (at < 0) {
+                return ids;
+            }
+            int segment = segmentAt(at);
+            int end = segmentEnd(segment);
+            if (at + pattern.length <= end) {
+                if (liveSegments.get(segment)) {
+                    ids.set(segmentIds[segment]);
+                }
+                position = end;
+            } else {
+                position = at + 1;
+            }
+        }
+    }
+
+    /**
+     * First index in haystack[from..to) where needle starts, or -1. Candidates for the first byte
+     * are found eight bytes at a time with a SWAR zero-byte test, and confirmed with the JDK's
+     * vectorized range comparison.
+     */
+    static int indexOf(byte[] haystack, int from, int to, byte[] needle) {
+        int last = to - needle.length;
+        long pattern = (needle[0] & 0xFFL) * ONES;
+        int i = from;
+        while (i <= last) {
+            if (i + Long.BYTES <= to) {
+                long word = (long) LONGS.get(haystack, i) ^ pattern;
+                long found = (word - ONES) & ~word & HIGHS;
+                if (found == 0) {
+                    i += Long.BYTES;
+                    continue;
+                }
+                // The lowest flagged byte is always a true match; borrows only spoil higher ones
+                i += Long.numberOfTrailingZeros(found) >>> 3;
+                if (i > last) {
+                    return -1;
+                }
+            } else if (haystack[i] != needle[0]) {
+                i++;
+                continue;
+            }
+            if (Arrays.equals(haystack, i, i + needle.length, needle, 0, needle.length)) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /** Byte-by-byte reference for {@link #indexOf} */
+    static int indexOfScalar(byte[] haystack, int from, int to, byte[] needle) {
+        outer:
+        for (int i = from; i <= to - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private void append(int id, byte[] encoded) {
+        if (segmentCount == segmentStarts.length) {
+            segmentStarts = Arrays.copyOf(segmentStarts, segmentCount * 2);
+            segmentIds = Arrays.copyOf(segmentIds, segmentCount * 2);
+        }
+        if (length + encoded.length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(length + encoded.length, bytes.length * 2));
+        }
+        System.arraycopy(encoded, 0, bytes, length, encoded.length);
+        segmentStarts[segmentCount] = length;
+        segmentIds[segmentCount] = id;
+        liveSegments.set(segmentCount);
+        segmentCount++;
+        length += encoded.length;
+        liveBytes += encoded.length;
+    }
+
+    /** Last segment starting at or before the position */
+    private int segmentAt(int position) {
+        int at = Arrays.binarySearch(segmentStarts, 0, segmentCount, position);
+        if (at < 0) {
+            return -at - 2;
+        }
+        // Empty segments share their start with the next one; the match is in the last of them
+        while (at + 1 < segmentCount && segmentStarts[at + 1] == position) {
+            at++;
+        }
+        return at;
+    }
+
+    private int segmentEnd(int segment) {
+        return segment + 1 < segmentCount ? segmentStarts[segment + 1] : length;
+    }
+
+    private void compactIfSparse() {
+        int garbage = length - liveBytes;
+        if (garbage < MIN_GARBAGE_BEFORE_COMPACTION || garbage <= liveBytes) {
+            return;
+        }
+
+        byte[] packed = new byte[Math.max(256, liveBytes * 2)];
+        int[] starts = new int[Math.max(16, liveSegments.cardinality() * 2)];
+        int[] ids = new int[starts.length];
+        int count = 0;
+        int packedLength = 0;
+        for (int s = liveSegments.nextSetBit(0); s >= 0; s = liveSegments.nextSetBit(s + 1)) {
+            int start = segmentStarts[s];
+            int segmentLength = segmentEnd(s) - start;
+            System.arraycopy(bytes, start, packed, packedLength, segmentLength);
+            if (firstSegments[segmentIds[s]] == s) {
+                firstSegments[segmentIds[s]] = count;
+            }
+            starts[count] = packedLength;
+            ids[count] = segmentIds[s];
+            count++;
+            packedLength += segmentLength;
+        }
+
+        bytes = packed;
+        length = packedLength;
+        segmentStarts = starts;
+        segmentIds = ids;
+        segmentCount = count;
+        liveSegments.clear();
+        liveSegments.set(0, count);
+    }
+
+    private static boolean hasUnpairedSurrogate(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c)
+                    && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] encode(String text) {
+        if (!hasUnpairedSurrogate(text)) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(text.length() + 8);
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            int chars = Character.charCount(codePoint);
+            if (Character.isSurrogate(text.charAt(i)) && chars == 1) {
+                out.write(UNPAIRED_SURROGATE);
+            } else {
+                out.writeBytes(text.substring(i, i + chars).getBytes(StandardCharsets.UTF_8));
+            }
+            i += chars;
+        }
+        return out.toByteArray();
+    }
+}
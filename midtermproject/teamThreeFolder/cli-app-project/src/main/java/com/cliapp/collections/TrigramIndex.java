@@ -0,0 +1,233 @@
+package com.cliapp.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Substring index over the lowercased text fields of int-keyed documents. Every three-character
+ * window of every field maps to a sorted posting list of document ids; a query keyword is answered
+ * by intersecting the lists of its own trigrams and verifying the few remaining candidates with
+ * {@link String#contains}. Keywords shorter than three characters fall back to a scan.
+ *
+ * <p>Ids must increase with every add so postings stay sorted by appending. Removing a document
+ * only forgets its text; its stale postings fail verification and are purged in bulk once removed
+ * documents outnumber live ones.
+ */
+public class TrigramIndex {
+
+    private static final int MIN_REMOVALS_BEFORE_PURGE = 64;
+
+    private final Map<Long, Postings> postings;
+    private final TreeMap<Integer, String[]> documents;
+    private int lastDocId;
+    private int removedSincePurge;
+
+    public TrigramIndex() {
+        this.postings = new HashMap<>();
+        this.documents = new TreeMap<>();
+        this.lastDocId = -1;
+    }
+
+    /** Index a document's fields */
+    public void add(int docId, String... fields) {
+        addAll(docId, Collections.singletonList(fields));
+    }
+
+    /**
+     * Index documents with consecutive ids from {@code firstDocId}, growing each posting list once
+     * for the whole batch
+     */
+    public void addAll(int firstDocId, List<String[]> fields) {
+        if (fields.isEmpty()) {
+            return;
+        }
+        if (firstDocId <= lastDocId) {
+            throw new IllegalArgumentException(
+                    "Document ids must increase: " + firstDocId + " after " + lastDocId);
+        }
+
+        List<Set<Long>> trigrams = new ArrayList<>(fields.size());
+        Map<Long, Integer> batchCounts = new HashMap<>();
+        for (int d = 0; d < fields.size(); d++) {
+            String[] lowered = new String[fields.get(d).length];
+            for (int i = 0; i < lowered.length; i++) {
+                String field = fields.get(d)[i];
+                lowered[i] = field == null ? null : field.toLowerCase();
+            }
+            documents.put(firstDocId + d, lowered);
+            Set<Long> document = trigramsOf(lowered);
+            for (long trigram : document) {
+                batchCounts.merge(trigram, 1, Integer::sum);
+            }
+            trigrams.add(document);
+        }
+        for (Map.Entry<Long, Integer> trigram : batchCounts.entrySet()) {
+            postings.computeIfAbsent(trigram.getKey(), key -> new Postings())
+                    .reserve(trigram.getValue());
+        }
+        for (int d = 0; d < fields.size(); d++) {
+            for (long trigram : trigrams.get(d)) {
+                postings.get(trigram).append(firstDocId + d);
+            }
+        }
+        lastDocId = firstDocId + fields.size() - 1;
+    }
+
+    /** Remove a document; returns false if it was not indexed */
+    public boolean remove(int docId) {
+        if (documents.remove(docId) == null) {
+            return false;
+        }
+
+        removedSincePurge++;
+        if (removedSincePurge >= MIN_REMOVALS_BEFORE_PURGE
+                && removedSincePurge > documents.size()) {
+            purge();
+        }
+        return true;
+    }
+
+    /** Drop the postings of removed documents */
+    public void purge() {
+        for (Postings list : postings.values()) {
+            list.retainAll(documents);
+        }
+        postings.values().removeIf(list -> list.size == 0);
+        removedSincePurge = 0;
+    }
+
+    /** Number of indexed documents */
+    public int getDocumentCount() {
+        return documents.size();
+    }
+
+    /** Number of distinct trigrams with postings, including not yet purged ones */
+    public int getTrigramCount() {
+        return postings.size();
+    }
+
+    /**
+     * Sorted ids of the documents with a field containing the keyword, ignoring case the same way
+     * as {@code field.toLowerCase().contains(keyword.toLowerCase())}.
+     */
+    public int[] search(String keyword) {
+        if (keyword == null) {
+            return new int[0];
+        }
+        String needle = keyword.toLowerCase();
+        if (needle.length() < 3) {
+            return verify(documents.keySet(), documents.size(), needle);
+        }
+
+        List<Postings> lists = new ArrayList<>();
+        for (long trigram : trigramsOf(new String[] {needle})) {
+            Postings list = postings.get(trigram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+
+        // Intersect starting from the rarest trigram so the candidate set shrinks fastest
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        int[] candidates = Arrays.copyOf(lists.get(0).docs, lists.get(0).size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = intersect(candidates, count, lists.get(i).docs, lists.get(i).size);
+        }
+
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(candidates[i]);
+        }
+        return verify(ids, count, needle);
+    }
+
+    private int[] verify(Iterable<Integer> candidates, int candidateCount, String needle) {
+        int[] matches = new int[candidateCount];
+        int count = 0;
+        for (int docId : candidates) {
+            String[] fields = documents.get(docId);
+            if (fields == null) {
+                continue;
+            }
+            for (String field : fields) {
+                if (field != null && field.contains(needle)) {
+                    matches[count++] = docId;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    /** Keep the ids in candidates[0..count) that also appear in list[0..size); both sorted */
+    private static int intersect(int[] candidates, int count, int[] list, int size) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < count && from < size; i++) {
+            int at = Arrays.binarySearch(list, from, size, candidates[i]);
+            if (at >= 0) {
+                candidates[kept++] = candidates[i];
+                from = at + 1;
+            } else {
+                from = -at - 1;
+            }
+        }
+        return kept;
+    }
+
+    private static Set<Long> trigramsOf(String[] fields) {
+        Set<Long> trigrams = new HashSet<>();
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                trigrams.add(pack(field.charAt(i), field.charAt(i + 1), field.charAt(i + 2)));
+            }
+        }
+        return trigrams;
+    }
+
+    private static long pack(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /** Growable sorted array of document ids */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        private void reserve(int count) {
+            if (size + count > docs.length) {
+                docs = Arrays.copyOf(docs, size + count);
+            }
+        }
+
+        private void append(int docId) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = docId;
+        }
+
+        private void retainAll(Map<Integer, ?> live) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (live.containsKey(docs[i])) {
+                    docs[kept++] = docs[i];
+                }
+            }
+            size = kept;
+        }
+    }
+}
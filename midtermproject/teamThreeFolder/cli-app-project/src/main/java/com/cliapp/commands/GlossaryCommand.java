@@ -1,8 +1,14 @@
 package com.cliapp.commands;
 
+import com.cliapp.collections.GlossaryCollection;
 import com.cliapp.domain.GlossaryEntry;
+import com.cliapp.models.UserSession;
 import com.cliapp.services.GlossaryService;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
 import java.util.List;
+import java.util.StringJoiner;
 
 /**
  * Command to display the glossary of Git commands SOLID: Single Responsibility - handles only
@@ -10,38 +16,166 @@ import java.util.List;
  */
 public class GlossaryCommand implements Command {
 
+    static final int DEFAULT_PAGE_SIZE = 10;
+
+    /** Glossaries larger than this are shown a page at a time unless --all is given */
+    static final int PAGED_LISTING_THRESHOLD = 50;
+
+    private static final String PAGING_USAGE = "glossary [--page <n>] [--page-size <n>] [--all]";
+
     private final GlossaryService glossaryService;
+    private final UserSession userSession;
 
     public GlossaryCommand(GlossaryService glossaryService) {
+        this(glossaryService, null);
+    }
+
+    /** Command whose lookups of a command or keyword also count towards the session */
+    public GlossaryCommand(GlossaryService glossaryService, UserSession userSession) {
         this.glossaryService = glossaryService;
+        this.userSession = userSession;
     }
 
     @Override
     public void execute(String[] args) {
+        // Render into one buffer and write it with a single flush instead of a write per line
+        StringWriter buffer = new StringWriter();
+        PrintWriter out = new PrintWriter(buffer);
         try {
-            System.out.println("\n=== Git Command Glossary ===");
-            List<GlossaryEntry> entries = glossaryService.getAllEntries();
-
-            // Handle null entries
-            if (entries == null || entries.isEmpty()) {
-                System.out.println("No commands available in the glossary.");
-                return;
+            out.println("\n=== Git Command Glossary ===");
+            int page = intOption(args, "--page", 0);
+            String term = lookupTerm(args);
+            if (!term.isEmpty()) {
+                renderLookup(out, term);
+            } else if (page > 0) {
+                renderPage(out, page, intOption(args, "--page-size", DEFAULT_PAGE_SIZE));
+            } else if (!hasFlag(args, "--all")
+                    && glossaryService.getEntryCount() > PAGED_LISTING_THRESHOLD) {
+                renderPage(out, 1, intOption(args, "--page-size", DEFAULT_PAGE_SIZE));
+            } else {
+                renderAll(out);
             }
+        } catch (NumberFormatException e) {
+            out.println("Invalid page option: " + e.getMessage());
+            out.println("Usage: " + PAGING_USAGE);
+        } catch (Exception e) {
+            System.err.println("Error loading glossary: " + e.getMessage());
+            out.println("Unable to display glossary at this time.");
+        }
+        out.flush();
+        System.out.print(buffer);
+        System.out.flush();
+    }
+
+    private void renderAll(PrintWriter out) {
+        List<GlossaryEntry> entries = glossaryService.getAllEntries();
 
-            System.out.println("Available Git Commands:");
-            for (int i = 0; i < entries.size(); i++) {
-                GlossaryEntry entry = entries.get(i);
-                if (entry != null && entry.getCommand() != null && entry.getDefinition() != null) {
-                    System.out.printf(
-                            "%d. %s - %s\n", i + 1, entry.getCommand(), entry.getDefinition());
+        // Handle null entries
+        if (entries == null || entries.isEmpty()) {
+            out.println("No commands available in the glossary.");
+            return;
+        }
+
+        out.println("Available Git Commands:");
+        for (int i = 0; i < entries.size(); i++) {
+            renderEntry(out, i + 1, entries.get(i));
+        }
+
+        out.printf("\nTotal commands: %d\n", entries.size());
+    }
+
+    /** Walk page cursors up to the requested page; only one page of entries is held at a time */
+    private void renderPage(PrintWriter out, int page, int pageSize) {
+        if (pageSize <= 0) {
+            throw new NumberFormatException("page size must be positive");
+        }
+
+        int total = glossaryService.getEntryCount();
+        int pageCount = Math.max(1, (total + pageSize - 1) / pageSize);
+        GlossaryCollection.Page window = glossaryService.getPage(0, pageSize);
+        for (int i = 1; i < page && window.hasNext(); i++) {
+            window = glossaryService.getPage(window.getNextCursor(), pageSize);
+        }
+        if (page > pageCount || window.getEntries().isEmpty()) {
+            out.printf("No commands on page %d (pages 1-%d).\n", page, pageCount);
+            return;
+        }
+
+        out.printf("Available Git Commands (page %d of %d):\n", page, pageCount);
+        int number = (page - 1) * pageSize;
+        for (GlossaryEntry entry : window.getEntries()) {
+            renderEntry(out, ++number, entry);
+        }
+
+        out.printf("\nTotal commands: %d\n", total);
+        if (window.hasNext()) {
+            out.printf("Next page: glossary --page %d\n", page + 1);
+        }
+    }
+
+    /**
+     * Show the entry for an exact command, or else the entries matching it as a keyword. The
+     * service counts this as one lookup for the session.
+     */
+    private void renderLookup(PrintWriter out, String term) {
+        GlossaryEntry entry = glossaryService.getEntryByCommand(term, userSession);
+        if (entry != null) {
+            out.print(entry.formatForDisplay());
+            return;
+        }
+
+        List<GlossaryEntry> matches = glossaryService.searchEntries(term);
+        if (matches == null || matches.isEmpty()) {
+            out.printf("No glossary entries match '%s'.\n", term);
+            return;
+        }
+        out.printf("Commands matching '%s':\n", term);
+        for (int i = 0; i < matches.size(); i++) {
+            renderEntry(out, i + 1, matches.get(i));
+        }
+    }
+
+    private static void renderEntry(PrintWriter out, int number, GlossaryEntry entry) {
+        if (entry != null && entry.getCommand() != null && entry.getDefinition() != null) {
+            out.printf("%d. %s - %s\n", number, entry.getCommand(), entry.getDefinition());
+        }
+    }
+
+    private static int intOption(String[] args, String name, int defaultValue) {
+        if (args == null) {
+            return defaultValue;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (name.equals(args[i])) {
+                if (i + 1 >= args.length) {
+                    throw new NumberFormatException(name + " needs a number");
                 }
+                return Integer.parseInt(args[i + 1]);
             }
+        }
+        return defaultValue;
+    }
 
-            System.out.printf("\nTotal commands: %d\n", entries.size());
-        } catch (Exception e) {
-            System.err.println("Error loading glossary: " + e.getMessage());
-            System.out.println("Unable to display glossary at this time.");
+    private static boolean hasFlag(String[] args, String name) {
+        return args != null && Arrays.asList(args).contains(name);
+    }
+
+    /** Words that are neither options nor option values, joined into one lookup term */
+    private static String lookupTerm(String[] args) {
+        if (args == null) {
+            return "";
+        }
+        StringJoiner term = new StringJoiner(" ");
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--all")) {
+                continue;
+            } else if (args[i].startsWith("--")) {
+                i++;
+            } else if (!args[i].isBlank()) {
+                term.add(args[i].trim());
+            }
         }
+        return term.toString();
     }
 
     @Override
@@ -6,6 +6,8 @@ import com.cliapp.exceptions.InvalidInputException;
 import com.cliapp.io.Console;
 import com.cliapp.services.BadgeManager;
 import com.cliapp.services.QuestGameService;
+import com.cliapp.services.QuestionBank;
+import com.cliapp.services.QuestionDeck;
 import java.util.List;
 
 /**
@@ -41,10 +43,21 @@ public class QuestListCommand implements Command {
             BadgeManager badgeManager,
             Console console,
             boolean testMode) {
+        this(questCollection, badgeManager, console, new QuestionDeck(), testMode);
+    }
+
+    /** Deal questions from the session's deck, so repeated visits do not repeat questions */
+    public QuestListCommand(
+            QuestCollection questCollection,
+            BadgeManager badgeManager,
+            Console console,
+            QuestionDeck questionDeck,
+            boolean testMode) {
         this.questCollection = questCollection;
         this.badgeManager = badgeManager;
         this.console = console;
-        this.questGameService = new QuestGameService(console);
+        this.questGameService =
+                new QuestGameService(console, QuestionBank.defaultSource(), questionDeck);
         this.isTestMode = testMode;
     }
 
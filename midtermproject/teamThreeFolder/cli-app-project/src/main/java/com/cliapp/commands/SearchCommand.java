@@ -0,0 +1,88 @@
+package com.cliapp.commands;
+
+import com.cliapp.collections.ContentIndex;
+import com.cliapp.services.SearchService;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Command to search quests, learning modules, questions and the glossary at once SOLID: Single
+ * Responsibility - handles only search display
+ */
+public class SearchCommand implements Command {
+
+    static final int DEFAULT_LIMIT = 10;
+
+    private final SearchService searchService;
+
+    public SearchCommand(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    @Override
+    public void execute(String[] args) {
+        StringWriter buffer = new StringWriter();
+        PrintWriter out = new PrintWriter(buffer);
+        try {
+            out.println("\n=== Search ===");
+            String query = args == null ? "" : String.join(" ", args).trim();
+            if (query.isEmpty()) {
+                out.println("Usage: " + getUsage());
+            } else {
+                renderHits(out, query, searchService.search(query, DEFAULT_LIMIT));
+            }
+        } catch (Exception e) {
+            System.err.println("Error searching: " + e.getMessage());
+            out.println("Unable to search at this time.");
+        }
+        out.flush();
+        System.out.print(buffer);
+        System.out.flush();
+    }
+
+    private static void renderHits(PrintWriter out, String query, List<ContentIndex.Hit> hits) {
+        if (hits.isEmpty()) {
+            out.println("Nothing matches '" + query + "'.");
+            return;
+        }
+        out.println("Results for '" + query + "':");
+        for (int i = 0; i < hits.size(); i++) {
+            ContentIndex.Hit hit = hits.get(i);
+            out.printf("%d. [%s] %s%n", i + 1, label(hit.getType()), hit.getTitle());
+        }
+    }
+
+    private static String label(ContentIndex.Type type) {
+        switch (type) {
+            case QUEST:
+                return "Quest";
+            case MODULE:
+                return "Module";
+            case QUESTION:
+                return "Question";
+            default:
+                return "Glossary";
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "search";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Search quests, modules, questions and the glossary";
+    }
+
+    @Override
+    public String getUsage() {
+        return "search <words>";
+    }
+
+    @Override
+    public boolean validateArgs(String[] args) {
+        return args != null && args.length > 0;
+    }
+}
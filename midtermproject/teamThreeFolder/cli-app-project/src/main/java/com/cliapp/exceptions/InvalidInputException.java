@@ -27,6 +27,11 @@ public class InvalidInputException extends Exception {
                         + ".");
     }
 
+    /** Convenience method for glossary query syntax errors */
+    public static InvalidInputException forInvalidQuery(String query, String problem) {
+        return new InvalidInputException("Invalid query: '" + query + "' (" + problem + ").");
+    }
+
     /** Convenience method for empty input errors */
     public static InvalidInputException forEmptyInput() {
         return new InvalidInputException("Input cannot be empty. Please provide a valid response.");
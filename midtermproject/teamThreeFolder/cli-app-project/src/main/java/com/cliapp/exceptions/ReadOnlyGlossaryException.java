@@ -0,0 +1,23 @@
+package com.cliapp.exceptions;
+
+/**
+ * Custom exception for changes to a glossary that is served read-only, such as a mapped store.
+ * Unchecked, since callers can ask {@link com.cliapp.services.GlossaryService#isReadOnly()} first.
+ */
+public class ReadOnlyGlossaryException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ReadOnlyGlossaryException(String message) {
+        super(message);
+    }
+
+    /** Convenience method for a rejected change */
+    public static ReadOnlyGlossaryException forChange(String change) {
+        return new ReadOnlyGlossaryException(
+                "Cannot "
+                        + change
+                        + ": the glossary is served read-only from an index. Edit glossary.json"
+                        + " instead; the index is rebuilt on the next start.");
+    }
+}
@@ -16,6 +16,7 @@ public class UserSession {
     private String currentQuestId;
     private double totalPoints;
     private List<String> completedQuests;
+    private int glossaryLookupCount;
 
     public UserSession() {
         this.commandHistory = new ArrayList<>();
@@ -139,6 +140,12 @@ public class UserSession {
     }
 
     public int getGlossaryLookupCount() {
-        return 0; // Placeholder until glossary tracking implemented
+        return glossaryLookupCount;
+    }
+
+    /** Count a glossary lookup made during this session */
+    public void recordGlossaryLookup() {
+        glossaryLookupCount++;
+        updateActivity();
     }
 }
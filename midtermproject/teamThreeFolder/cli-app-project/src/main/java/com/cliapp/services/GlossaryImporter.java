@@ -0,0 +1,467 @@
+package com.cliapp.services;
+
+import com.cliapp.collections.GlossaryCollection;
+import com.cliapp.domain.GlossaryEntry;
+import com.cliapp.utils.StringPool;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Bulk importer for command references kept as CSV or Markdown tables SOLID: Single Responsibility
+ * - turns a large table into glossary entries and hands them to the collection in one batch
+ *
+ * <p>The header row names the columns: {@code command} and {@code definition} are required, {@code
+ * example} and {@code category} optional, in any order. The body is cut into chunks at row
+ * boundaries, the chunks are parsed and deduplicated by lowercased command on a ForkJoinPool, and
+ * the surviving entries go to {@link GlossaryCollection#putAll} so the indexes are updated once for
+ * the whole file. When a command repeats, the last row wins, as with lookups in the collection.
+ *
+ * <p>CSV follows RFC 4180: quoted fields may hold commas, doubled quotes and line breaks. Markdown
+ * rows are pipe-table lines; separator rows, repeated header rows and other lines are ignored,
+ * {@code \|} stands for a pipe inside a cell and a cell wrapped in backticks loses them.
+ */
+public class GlossaryImporter {
+
+    static final int DEFAULT_CHUNK_CHARS = 256 * 1024;
+
+    private static final String[] COLUMNS = {"command", "definition", "example", "category"};
+    private static final int COMMAND = 0;
+    private static final int DEFINITION = 1;
+    private static final int EXAMPLE = 2;
+    private static final int CATEGORY = 3;
+
+    /** Source table formats, chosen from the file extension */
+    public enum Format {
+        CSV,
+        MARKDOWN;
+
+        /** Format of a .csv, .md or .markdown file */
+        public static Format of(Path file) throws IOException {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".md") || name.endsWith(".markdown")) {
+                return MARKDOWN;
+            }
+            throw new IOException("Unsupported glossary import format: " + file.getFileName());
+        }
+    }
+
+    private final StringPool stringPool;
+    private final ForkJoinPool pool;
+    private final int chunkChars;
+
+    public GlossaryImporter() {
+        this(StringPool.shared());
+    }
+
+    public GlossaryImporter(StringPool stringPool) {
+        this(stringPool, ForkJoinPool.commonPool(), DEFAULT_CHUNK_CHARS);
+    }
+
+    GlossaryImporter(StringPool stringPool, ForkJoinPool pool, int chunkChars) {
+        this.stringPool = stringPool;
+        this.pool = pool;
+        this.chunkChars = Math.max(1, chunkChars);
+    }
+
+    /** Import a UTF-8 .csv, .md or .markdown file into the collection */
+    public ImportStats importFile(Path file, GlossaryCollection target) throws IOException {
+        return importText(Files.readString(file, StandardCharsets.UTF_8), Format.of(file), target);
+    }
+
+    /** Import a whole table held in memory into the collection */
+    public ImportStats importText(String text, Format format, GlossaryCollection target)
+            throws IOException {
+        long start = System.nanoTime();
+        Chunk parsed = parse(text, format);
+
+        int appended = target.putAll(parsed.entries.values());
+        int unique = parsed.entries.size();
+        return new ImportStats(
+                parsed.rowCount,
+                appended,
+                unique - appended,
+                parsed.rowCount - parsed.skippedCount - unique,
+                parsed.skippedCount,
+                System.nanoTime() - start);
+    }
+
+    /** Parse the table into its deduplicated entries, in first-appearance order */
+    Chunk parse(String text, Format format) throws IOException {
+        boolean csv = format == Format.CSV;
+        int at = text.startsWith("\uFEFF") ? 1 : 0;
+
+        List<String> cells = new ArrayList<>();
+        int[] columns = null;
+        while (columns == null) {
+            if (at >= text.length()) {
+                throw new IOException("No header row naming the glossary columns");
+            }
+            int rowStart = at;
+            at =
+                    csv
+                            ? readCsvRow(text, at, text.length(), cells)
+                            : readMarkdownRow(text, at, cells);
+            if (cells.isEmpty()) {
+                continue;
+            }
+            if (cells.get(0) == null) {
+                throw new IOException("Unterminated quote in the header row");
+            }
+            if (!csv && !isSeparator(text, at)) {
+                // A Markdown header is the row right above the first separator row
+                continue;
+            }
+            columns = columns(cells);
+            if (columns[COMMAND] < 0 || columns[DEFINITION] < 0) {
+                throw new IOException(
+                        "Header row must name command and definition columns: "
+                                + text.substring(rowStart, at).trim());
+            }
+        }
+
+        List<int[]> ranges = split(text, at, csv);
+        if (ranges.isEmpty()) {
+            return new Chunk();
+        }
+        return pool.invoke(new ParseTask(text, csv, columns, cells, ranges, 0, ranges.size()));
+    }
+
+    /**
+     * Cut the body into ranges of about chunkChars that end at row boundaries. For CSV this tracks
+     * quotes, since a quoted field may hold a line break; a Markdown row always ends at one.
+     */
+    List<int[]> split(String text, int from, boolean csv) {
+        List<int[]> ranges = new ArrayList<>();
+        int start = from;
+        if (csv) {
+            boolean quoted = false;
+            for (int i = from; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == '\n' && !quoted && i + 1 - start >= chunkChars) {
+                    ranges.add(new int[] {start, i + 1});
+                    start = i + 1;
+                }
+            }
+        } else {
+            while (text.length() - start > chunkChars) {
+                int end = text.indexOf('\n', start + chunkChars - 1);
+                if (end < 0) {
+                    break;
+                }
+                ranges.add(new int[] {start, end + 1});
+                start = end + 1;
+            }
+        }
+        if (start < text.length()) {
+            ranges.add(new int[] {start, text.length()});
+        }
+        return ranges;
+    }
+
+    /** Position of each known column in the header cells, or -1 */
+    private static int[] columns(List<String> header) {
+        int[] columns = {-1, -1, -1, -1};
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            for (int column = 0; column < COLUMNS.length; column++) {
+                if (COLUMNS[column].equals(name) && columns[column] < 0) {
+                    columns[column] = i;
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Read one CSV row starting at {@code at} into cells and return where the next row starts.
+     * Blank lines leave cells empty; a quote left open at the end leaves one null cell instead.
+     */
+    static int readCsvRow(String text, int at, int end, List<String> cells) {
+        cells.clear();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        boolean blank = true;
+        while (at < end) {
+            char c = text.charAt(at++);
+            if (quoted) {
+                if (c != '"') {
+                    cell.append(c);
+                } else if (at < end && text.charAt(at) == '"') {
+                    cell.append('"');
+                    at++;
+                } else {
+                    quoted = false;
+                }
+                continue;
+            }
+            if (c == '\n') {
+                break;
+            }
+            if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString().trim());
+                cell.setLength(0);
+            } else if (c != '\r') {
+                cell.append(c);
+            }
+            blank &= Character.isWhitespace(c);
+        }
+        if (quoted) {
+            cells.clear();
+            cells.add(null);
+        } else if (!blank || !cells.isEmpty()) {
+            cells.add(cell.toString().trim());
+        }
+        return at;
+    }
+
+    /** Read one Markdown line into cells, which stay empty unless it is a pipe-table row */
+    static int readMarkdownRow(String text, int at, List<String> cells) {
+        cells.clear();
+        int end = text.indexOf('\n', at);
+        end = end < 0 ? text.length() : end;
+        int next = end < text.length() ? end + 1 : end;
+        String line = text.substring(at, end).trim();
+        if (!line.startsWith("|") || isSeparatorLine(line)) {
+            return next;
+        }
+
+        StringBuilder cell = new StringBuilder();
+        for (int i = 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length() && line.charAt(i + 1) == '|') {
+                cell.append('|');
+                i++;
+            } else if (c == '|') {
+                cells.add(unwrapCode(cell.toString().trim()));
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        if (cell.toString().trim().length() > 0) {
+            cells.add(unwrapCode(cell.toString().trim()));
+        }
+        return next;
+    }
+
+    /** True if the line starting at {@code at} is a Markdown separator row such as |---|:-:| */
+    private static boolean isSeparator(String text, int at) {
+        int end = text.indexOf('\n', at);
+        return isSeparatorLine(text.substring(at, end < 0 ? text.length() : end).trim());
+    }
+
+    private static boolean isSeparatorLine(String line) {
+        if (!line.startsWith("|") || line.indexOf('-') < 0) {
+            return false;
+        }
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c != '|' && c != '-' && c != ':' && c != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String unwrapCode(String cell) {
+        if (cell.length() >= 2 && cell.startsWith("`") && cell.endsWith("`")) {
+            return cell.substring(1, cell.length() - 1).trim();
+        }
+        return cell;
+    }
+
+    /** Parses a range of chunks, splitting it in half until one chunk is left */
+    private final class ParseTask extends RecursiveTask<Chunk> {
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+        private final boolean csv;
+        private final int[] columns;
+        private final List<String> header;
+        private final List<int[]> ranges;
+        private final int from;
+        private final int to;
+
+        private ParseTask(
+                String text,
+                boolean csv,
+                int[] columns,
+                List<String> header,
+                List<int[]> ranges,
+                int from,
+                int to) {
+            this.text = text;
+            this.csv = csv;
+            this.columns = columns;
+            this.header = header;
+            this.ranges = ranges;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (to - from == 1) {
+                return parseRange(ranges.get(from));
+            }
+            int middle = (from + to) >>> 1;
+            ParseTask right = new ParseTask(text, csv, columns, header, ranges, middle, to);
+            right.fork();
+            Chunk left = new ParseTask(text, csv, columns, header, ranges, from, middle).compute();
+            return left.append(right.join());
+        }
+
+        private Chunk parseRange(int[] range) {
+            Chunk chunk = new Chunk();
+            List<String> cells = new ArrayList<>();
+            int at = range[0];
+            while (at < range[1]) {
+                at = csv ? readCsvRow(text, at, range[1], cells) : readMarkdownRow(text, at, cells);
+                if (cells.isEmpty() || (!csv && cells.equals(header))) {
+                    continue;
+                }
+                chunk.rowCount++;
+                GlossaryEntry entry = toEntry(cells);
+                if (entry == null) {
+                    chunk.skippedCount++;
+                } else {
+                    chunk.entries.put(entry.getCommand().toLowerCase(), entry);
+                }
+            }
+            return chunk;
+        }
+
+        /** The row as an entry, or null if it has no command or is cut short */
+        private GlossaryEntry toEntry(List<String> cells) {
+            if (cells.get(0) == null
+                    || cells.size() <= Math.max(columns[COMMAND], columns[DEFINITION])
+                    || cells.get(columns[COMMAND]).isEmpty()) {
+                return null;
+            }
+            return new GlossaryEntry(
+                    cell(cells, COMMAND),
+                    cell(cells, DEFINITION),
+                    cell(cells, EXAMPLE),
+                    stringPool.intern(cell(cells, CATEGORY)));
+        }
+
+        /** Only categories are pooled; the other cells are mostly unique text */
+        private String cell(List<String> cells, int column) {
+            int at = columns[column];
+            return at >= 0 && at < cells.size() ? cells.get(at) : "";
+        }
+    }
+
+    /** Entries parsed from a run of rows, keyed by lowercased command, plus row counts */
+    static final class Chunk {
+        private final Map<String, GlossaryEntry> entries = new LinkedHashMap<>();
+        private int rowCount;
+        private int skippedCount;
+
+        /** Merge a later chunk in: its entries win, but keep the position of earlier ones */
+        private Chunk append(Chunk later) {
+            entries.putAll(later.entries);
+            rowCount += later.rowCount;
+            skippedCount += later.skippedCount;
+            return this;
+        }
+
+        List<GlossaryEntry> getEntries() {
+            return new ArrayList<>(entries.values());
+        }
+
+        int getRowCount() {
+            return rowCount;
+        }
+
+        int getSkippedCount() {
+            return skippedCount;
+        }
+    }
+
+    /** Result of an import: what happened to the rows and how long it took */
+    public static class ImportStats {
+        private final int rowCount;
+        private final int addedCount;
+        private final int replacedCount;
+        private final int duplicateCount;
+        private final int skippedCount;
+        private final long elapsedNanos;
+
+        public ImportStats(
+                int rowCount,
+                int addedCount,
+                int replacedCount,
+                int duplicateCount,
+                int skippedCount,
+                long elapsedNanos) {
+            this.rowCount = rowCount;
+            this.addedCount = addedCount;
+            this.replacedCount = replacedCount;
+            this.duplicateCount = duplicateCount;
+            this.skippedCount = skippedCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** Data rows read, not counting the header */
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /** Entries for commands the glossary did not have */
+        public int getAddedCount() {
+            return addedCount;
+        }
+
+        /** Entries that replaced one already in the glossary */
+        public int getReplacedCount() {
+            return replacedCount;
+        }
+
+        /** Rows dropped because a later row had the same command */
+        public int getDuplicateCount() {
+            return duplicateCount;
+        }
+
+        /** Rows without a command, cut short, or with an unterminated quote */
+        public int getSkippedCount() {
+            return skippedCount;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getImportTimeMillis() {
+            return elapsedNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Imported %d rows: %d added, %d replaced, %d duplicates, %d skipped in %.2f ms",
+                    rowCount,
+                    addedCount,
+                    replacedCount,
+                    duplicateCount,
+                    skippedCount,
+                    getImportTimeMillis());
+        }
+    }
+}
@@ -1,12 +1,30 @@
 package com.cliapp.services;
 
+import com.cliapp.collections.ConcurrentGlossaryCollection;
 import com.cliapp.collections.GlossaryCollection;
+import com.cliapp.collections.GlossaryQuery;
+import com.cliapp.collections.MappedGlossaryCollection;
 import com.cliapp.domain.GlossaryEntry;
+import com.cliapp.exceptions.InvalidInputException;
+import com.cliapp.exceptions.ReadOnlyGlossaryException;
+import com.cliapp.models.UserSession;
+import com.cliapp.utils.SpaceSavingSketch;
+import com.cliapp.utils.StringPool;
+import com.cliapp.utils.TinyLfuCache;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32C;
 
 /**
  * Service class for managing glossary operations SOLID: Single Responsibility - handles glossary
@@ -14,13 +32,125 @@ import java.util.stream.Collectors;
  */
 public class GlossaryService {
 
+    private static final int SEARCH_CACHE_CAPACITY = 256;
+    private static final int HOT_KEY_CAPACITY = 64;
+
+    /** Path of an external glossary.json to serve from memory-mapped index files beside it */
+    static final String PATH_PROPERTY = "cliapp.glossary.path";
+
     private final GlossaryCollection glossaryCollection;
-    private final ObjectMapper objectMapper;
+    private final StringPool stringPool;
+    private final TinyLfuCache<String, CachedSearch> searchCache;
+    private volatile long searchCacheVersion;
+    private final LongAdder entryLookups;
+    private final LongAdder searches;
+    private final SpaceSavingSketch<String> hotEntries;
+    private final SpaceSavingSketch<String> hotQueries;
 
     public GlossaryService() {
         this.glossaryCollection = new GlossaryCollection();
-        this.objectMapper = new ObjectMapper();
+        this.stringPool = StringPool.shared();
+        this.searchCache = new TinyLfuCache<>(SEARCH_CACHE_CAPACITY);
+        this.entryLookups = new LongAdder();
+        this.searches = new LongAdder();
+        this.hotEntries = new SpaceSavingSketch<>(HOT_KEY_CAPACITY);
+        this.hotQueries = new SpaceSavingSketch<>(HOT_KEY_CAPACITY);
         loadGlossaryFromJson();
+        glossaryCollection.buildCrossReferences();
+    }
+
+    /** Serve an already loaded collection, e.g. one shared between sessions */
+    public GlossaryService(GlossaryCollection glossaryCollection) {
+        this.glossaryCollection = glossaryCollection;
+        this.stringPool = StringPool.shared();
+        this.searchCache = new TinyLfuCache<>(SEARCH_CACHE_CAPACITY);
+        this.entryLookups = new LongAdder();
+        this.searches = new LongAdder();
+        this.hotEntries = new SpaceSavingSketch<>(HOT_KEY_CAPACITY);
+        this.hotQueries = new SpaceSavingSketch<>(HOT_KEY_CAPACITY);
+    }
+
+    /**
+     * Service over a thread-safe glossary loaded from glossary.json once per JVM, so concurrent
+     * sessions share one copy instead of each parsing the file.
+     */
+    public static GlossaryService shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    private static class SharedHolder {
+        private static final GlossaryService INSTANCE =
+                createShared(System.getProperty(PATH_PROPERTY));
+    }
+
+    /**
+     * The glossary.json at path, indexed, or the bundled glossary if path is null or the file
+     * cannot be read or indexed
+     */
+    static GlossaryService createShared(String path) {
+        if (path != null) {
+            try {
+                return openIndexed(Paths.get(path));
+            } catch (IOException e) {
+                System.err.println(
+                        "Glossary index unavailable, loading bundled glossary: " + e.getMessage());
+            }
+        }
+        // The loaded and indexed collection is handed over as is rather than indexed again
+        return new GlossaryService(
+                ConcurrentGlossaryCollection.wrap(new GlossaryService().getGlossaryCollection()));
+    }
+
+    /**
+     * Service over a glossary.json on disk, served read-only from a memory-mapped store and search
+     * segments kept next to it. They are reused while the file's content checksum matches the one
+     * they were built from and rebuilt otherwise, so a warm start maps files instead of parsing and
+     * indexing every entry.
+     */
+    public static GlossaryService openIndexed(Path glossaryJson) throws IOException {
+        return new GlossaryService(openStore(glossaryJson));
+    }
+
+    static MappedGlossaryCollection openStore(Path glossaryJson) throws IOException {
+        long checksum = checksum(glossaryJson);
+        Path store = storePath(glossaryJson);
+        if (Files.exists(store)) {
+            try {
+                MappedGlossaryCollection existing = MappedGlossaryCollection.open(store);
+                if (existing.getChecksum() == checksum && existing.hasSearchSegments()) {
+                    return existing;
+                }
+            } catch (IOException e) {
+                System.err.println("Rebuilding glossary index: " + e.getMessage());
+            }
+        }
+
+        // Strings are not pooled here: the entries are only needed until they are written out
+        List<GlossaryEntry> entries = new ArrayList<>();
+        try (InputStream inputStream = Files.newInputStream(glossaryJson)) {
+            readEntries(inputStream, new ObjectMapper(), value -> value, entries::add);
+        }
+        MappedGlossaryCollection.write(entries, checksum, store);
+        return MappedGlossaryCollection.open(store);
+    }
+
+    /** glossary.json is indexed into glossary.store, plus the segments named after it */
+    static Path storePath(Path glossaryJson) {
+        String name = glossaryJson.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return glossaryJson.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".store");
+    }
+
+    /** CRC32C of the file's bytes */
+    static long checksum(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
     }
 
     /** Get the glossary collection */
@@ -38,19 +168,12 @@ public class GlossaryService {
                 return;
             }
 
-            JsonNode root = objectMapper.readTree(inputStream);
-            JsonNode entriesNode = root.get("glossaryEntries");
-
-            if (entriesNode != null && entriesNode.isArray()) {
-                for (JsonNode entryNode : entriesNode) {
-                    String command = entryNode.get("command").asText();
-                    String definition = entryNode.get("definition").asText();
-                    String example = entryNode.get("example").asText();
-                    String category = entryNode.get("category").asText();
-
-                    GlossaryEntry entry = new GlossaryEntry(command, definition, example, category);
-                    glossaryCollection.add(entry);
-                }
+            try (inputStream) {
+                readEntries(
+                        inputStream,
+                        new ObjectMapper(),
+                        stringPool::intern,
+                        glossaryCollection::add);
             }
         } catch (Exception e) {
             System.err.println("Error loading glossary from JSON: " + e.getMessage());
@@ -58,35 +181,138 @@ public class GlossaryService {
         }
     }
 
+    /**
+     * Stream the glossaryEntries array of a glossary.json document, one entry at a time, so a large
+     * file is never held as a whole tree. Categories, the one field that repeats across entries,
+     * pass through canonical first.
+     */
+    private static void readEntries(
+            InputStream inputStream,
+            ObjectMapper objectMapper,
+            UnaryOperator<String> canonical,
+            Consumer<GlossaryEntry> sink)
+            throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY
+                        || !"glossaryEntries".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                for (int index = 0; parser.nextToken() == JsonToken.START_OBJECT; index++) {
+                    JsonNode entryNode = parser.readValueAsTree();
+                    String command = requiredText(entryNode, "command", index);
+                    String definition = requiredText(entryNode, "definition", index);
+                    String example = requiredText(entryNode, "example", index);
+                    String category = canonical.apply(requiredText(entryNode, "category", index));
+
+                    sink.accept(new GlossaryEntry(command, definition, example, category));
+                }
+            }
+        }
+    }
+
+    /** The field's text, or an IOException naming the entry if it is missing or null */
+    private static String requiredText(JsonNode entryNode, String field, int index)
+            throws IOException {
+        if (!entryNode.hasNonNull(field)) {
+            JsonNode command = entryNode.path("command");
+            throw new IOException(
+                    "Glossary entry "
+                            + index
+                            + (command.isValueNode() ? " (" + command.asText() + ")" : "")
+                            + " has no "
+                            + field);
+        }
+        return entryNode.get(field).asText();
+    }
+
     /** Create default entries if JSON loading fails */
     private void createDefaultEntries() {
-        addEntry(
-                "git init",
-                "Initialize a new Git repository",
-                "git init my-project",
-                "Repository Setup");
-        addEntry("git add", "Add files to staging area", "git add .", "Staging Changes");
-        addEntry(
-                "git commit",
-                "Create a new commit",
-                "git commit -m \"message\"",
-                "Committing Changes");
-    }
-
-    /** Add a new glossary entry */
+        glossaryCollection.add(
+                new GlossaryEntry(
+                        "git init",
+                        "Initialize a new Git repository",
+                        "git init my-project",
+                        "Repository Setup"));
+        glossaryCollection.add(
+                new GlossaryEntry(
+                        "git add", "Add files to staging area", "git add .", "Staging Changes"));
+        glossaryCollection.add(
+                new GlossaryEntry(
+                        "git commit",
+                        "Create a new commit",
+                        "git commit -m \"message\"",
+                        "Committing Changes"));
+    }
+
+    /**
+     * Import a CSV or Markdown command reference into the glossary in one batch; see {@link
+     * GlossaryImporter} for the expected columns. Rows for commands already in the glossary replace
+     * their entries. Rejected when the glossary is served read-only, see {@link #isReadOnly()}.
+     */
+    public GlossaryImporter.ImportStats importFile(Path file) throws IOException {
+        if (isReadOnly()) {
+            throw ReadOnlyGlossaryException.forChange("import " + file.getFileName());
+        }
+        return new GlossaryImporter(stringPool).importFile(file, glossaryCollection);
+    }
+
+    /** Add a new glossary entry; rejected when the glossary is served read-only */
     public void addEntry(String command, String definition, String example, String category) {
+        if (isReadOnly()) {
+            throw ReadOnlyGlossaryException.forChange("add " + command);
+        }
         GlossaryEntry entry = new GlossaryEntry(command, definition, example, category);
         glossaryCollection.add(entry);
     }
 
+    /** Whether the glossary is served from a read-only store, as {@link #openIndexed} does */
+    public boolean isReadOnly() {
+        return glossaryCollection.isReadOnly();
+    }
+
     /** Get all glossary entries */
     public List<GlossaryEntry> getAllEntries() {
         return glossaryCollection.getAllEntries();
     }
 
+    /** Get a window of entries starting at a cursor; see {@link GlossaryCollection#getPage} */
+    public GlossaryCollection.Page getPage(int cursor, int limit) {
+        return glossaryCollection.getPage(cursor, limit);
+    }
+
     /** Get glossary entry by command */
     public GlossaryEntry getEntryByCommand(String command) {
-        return glossaryCollection.getByCommand(command);
+        entryLookups.increment();
+        GlossaryEntry entry = glossaryCollection.getByCommand(command);
+        if (entry != null) {
+            hotEntries.record(entry.getCommand());
+        }
+        return entry;
+    }
+
+    /** Get glossary entry by command, counting the lookup towards the user's session */
+    public GlossaryEntry getEntryByCommand(String command, UserSession session) {
+        GlossaryEntry entry = getEntryByCommand(command);
+        if (session != null) {
+            session.recordGlossaryLookup();
+        }
+        return entry;
+    }
+
+    /** Get up to limit commands starting with the prefix, for autocompletion */
+    public List<String> completeCommand(String prefix, int limit) {
+        return glossaryCollection.completeCommand(prefix, limit);
+    }
+
+    /** Get entries whose command is within maxDistance typos of the given one, closest first */
+    public List<GlossaryEntry> searchFuzzy(String command, int maxDistance) {
+        return glossaryCollection.searchFuzzy(command, maxDistance);
     }
 
     /** Get entries by category */
@@ -94,20 +320,236 @@ public class GlossaryService {
         return glossaryCollection.getEntriesByCategory(category);
     }
 
-    /** Search entries by keyword */
+    /**
+     * Search entries by keyword. Results are cached by lowercased keyword, since the search ignores
+     * case. Any change to the collection bumps its version, which empties the cache; each result
+     * also remembers its version in case it raced with a change.
+     */
     public List<GlossaryEntry> searchEntries(String keyword) {
-        return glossaryCollection.searchEntries(keyword);
+        searches.increment();
+        if (keyword == null) {
+            return glossaryCollection.searchEntries(null);
+        }
+
+        String key = keyword.toLowerCase();
+        hotQueries.record(key);
+        return new ArrayList<>(cachedSearch(key).entries);
     }
 
-    /** Get all unique categories */
+    /** Search entries by keyword, counting the search as a lookup towards the user's session */
+    public List<GlossaryEntry> searchEntries(String keyword, UserSession session) {
+        List<GlossaryEntry> entries = searchEntries(keyword);
+        if (session != null) {
+            session.recordGlossaryLookup();
+        }
+        return entries;
+    }
+
+    private CachedSearch cachedSearch(String key) {
+        long version = glossaryCollection.getVersion();
+        if (version != searchCacheVersion) {
+            searchCache.clear();
+            searchCacheVersion = version;
+        }
+        CachedSearch cached = searchCache.get(key);
+        if (cached == null || cached.version != version) {
+            cached = new CachedSearch(version, glossaryCollection.searchEntries(key));
+            searchCache.put(key, cached);
+        }
+        return cached;
+    }
+
+    /** Pre-compute the results of the most frequent searches, e.g. after the glossary changed */
+    public void warmSearchCache(int topQueries) {
+        for (SpaceSavingSketch.Estimate<String> query : hotQueries.top(topQueries)) {
+            cachedSearch(query.getKey());
+        }
+    }
+
+    /** Start an incremental search for one user typing a query, e.g. search-as-you-type */
+    public SearchSession newSearchSession() {
+        return new SearchSession(this);
+    }
+
+    /** Number of getEntryByCommand calls */
+    public long getEntryLookupCount() {
+        return entryLookups.sum();
+    }
+
+    /** Number of searchEntries calls */
+    public long getSearchCount() {
+        return searches.sum();
+    }
+
+    /** The most looked-up commands, most frequent first */
+    public List<SpaceSavingSketch.Estimate<String>> getHotEntries(int n) {
+        return hotEntries.top(n);
+    }
+
+    /** The most frequent lowercased search keywords, most frequent first */
+    public List<SpaceSavingSketch.Estimate<String>> getHotQueries(int n) {
+        return hotQueries.top(n);
+    }
+
+    /** Get the search result cache, for its hit and miss statistics */
+    public TinyLfuCache<String, ?> getSearchCache() {
+        return searchCache;
+    }
+
+    /** Search entries by relevance, best match first */
+    public List<GlossaryEntry> searchRanked(String query, int limit) {
+        return glossaryCollection.searchRanked(query, limit);
+    }
+
+    /**
+     * Run a query such as {@code category:"Branching" AND merge NOT rebase}; see {@link
+     * GlossaryQuery} for the syntax. Matching entries come back in iteration order.
+     */
+    public List<GlossaryEntry> query(String query) throws InvalidInputException {
+        searches.increment();
+        return glossaryCollection.query(GlossaryQuery.parse(query));
+    }
+
+    /** Entries the command's definition or example mentions, then entries mentioning the command */
+    public List<GlossaryEntry> getRelatedEntries(String command) {
+        return glossaryCollection.getRelated(command);
+    }
+
+    /** Get all unique categories, as a read-only view kept current by the collection */
     public Set<String> getAllCategories() {
-        return glossaryCollection.getAllEntries().stream()
-                .map(GlossaryEntry::getCategory)
-                .collect(Collectors.toSet());
+        return glossaryCollection.getCategories();
+    }
+
+    /** Get the number of entries in a category */
+    public int getCategorySize(String category) {
+        return glossaryCollection.getCategorySize(category);
+    }
+
+    /** Get the pool that deduplicates loaded glossary text */
+    public StringPool getStringPool() {
+        return stringPool;
     }
 
     /** Get the total number of entries */
     public int getEntryCount() {
         return glossaryCollection.size();
     }
+
+    /**
+     * Search state for one user typing a query keystroke by keystroke. When the query extends the
+     * previous one, its results can only be a subset of the previous results, so they are filtered
+     * instead of searching the whole glossary again. The results of every query typed on the way
+     * are kept, so backspacing to one of them is answered without any search. Starting over with a
+     * query that is not an extension, or any change to the glossary, drops the kept results. A
+     * session is meant for a single user and is not thread-safe.
+     */
+    public static final class SearchSession {
+
+        private static final int MAX_DEPTH = 64;
+
+        private final GlossaryService service;
+        private final List<CachedSearch> path;
+        private final List<String> queries;
+        private long fullSearches;
+        private long narrowedSearches;
+        private long reusedSearches;
+
+        private SearchSession(GlossaryService service) {
+            this.service = service;
+            this.path = new ArrayList<>();
+            this.queries = new ArrayList<>();
+        }
+
+        /** Entries whose command or definition contains the query, as {@link #searchEntries} */
+        public List<GlossaryEntry> update(String query) {
+            if (query == null) {
+                reset();
+                return new ArrayList<>();
+            }
+
+            String key = query.toLowerCase();
+            long version = service.glossaryCollection.getVersion();
+            if (!path.isEmpty() && path.get(path.size() - 1).version != version) {
+                reset();
+            }
+            // Backspacing or editing: drop the queries that the new one does not extend
+            while (!queries.isEmpty() && !key.startsWith(queries.get(queries.size() - 1))) {
+                queries.remove(queries.size() - 1);
+                path.remove(path.size() - 1);
+            }
+
+            CachedSearch result;
+            if (!queries.isEmpty() && queries.get(queries.size() - 1).equals(key)) {
+                reusedSearches++;
+                result = path.get(path.size() - 1);
+            } else if (!queries.isEmpty()) {
+                narrowedSearches++;
+                result = new CachedSearch(version, narrow(path.get(path.size() - 1).entries, key));
+                push(key, result);
+            } else {
+                fullSearches++;
+                result = service.cachedSearch(key);
+                // Every query extends the empty one, which would turn each search into a scan
+                if (!key.isEmpty()) {
+                    push(key, result);
+                }
+            }
+            return new ArrayList<>(result.entries);
+        }
+
+        /** Forget the queries typed so far */
+        public void reset() {
+            path.clear();
+            queries.clear();
+        }
+
+        /** Queries answered by searching the whole glossary */
+        public long getFullSearchCount() {
+            return fullSearches;
+        }
+
+        /** Queries answered by filtering the results of the query they extend */
+        public long getNarrowedSearchCount() {
+            return narrowedSearches;
+        }
+
+        /** Queries answered from kept results after a backspace or a repeat */
+        public long getReusedSearchCount() {
+            return reusedSearches;
+        }
+
+        private void push(String key, CachedSearch result) {
+            if (queries.size() == MAX_DEPTH) {
+                queries.remove(0);
+                path.remove(0);
+            }
+            queries.add(key);
+            path.add(result);
+        }
+
+        private static List<GlossaryEntry> narrow(List<GlossaryEntry> candidates, String key) {
+            List<GlossaryEntry> result = new ArrayList<>();
+            for (GlossaryEntry entry : candidates) {
+                if (contains(entry.getCommand(), key) || contains(entry.getDefinition(), key)) {
+                    result.add(entry);
+                }
+            }
+            return result;
+        }
+
+        private static boolean contains(String text, String key) {
+            return text != null && text.toLowerCase().contains(key);
+        }
+    }
+
+    /** A search result and the collection version it was computed from */
+    private static final class CachedSearch {
+        private final long version;
+        private final List<GlossaryEntry> entries;
+
+        private CachedSearch(long version, List<GlossaryEntry> entries) {
+            this.version = version;
+            this.entries = entries;
+        }
+    }
 }
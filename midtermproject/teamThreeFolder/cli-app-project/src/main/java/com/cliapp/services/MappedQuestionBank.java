@@ -0,0 +1,226 @@
+package com.cliapp.services;
+
+import com.cliapp.domain.Question;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Question bank backed by a memory-mapped Quest.bin produced at build time. Only the level index is
+ * read up front; strings and questions are decoded the first time they are asked for.
+ */
+public final class MappedQuestionBank extends QuestionBank {
+
+    private final ByteBuffer buffer;
+    private final int questionCount;
+    private final int stringCount;
+    private final int stringTableOffset;
+    private final int stringDataStart;
+    private final int recordTableOffset;
+    private final Map<String, int[]> questionsByLevel;
+    private final AtomicReferenceArray<String> strings;
+    private final AtomicReferenceArray<Question> questions;
+    private final QuestionLoader.LoadStats loadStats;
+
+    /** startNanos is when opening began, so the load time covers mapping as well as the index */
+    private MappedQuestionBank(ByteBuffer buffer, long startNanos) throws IOException {
+        super(null, null);
+        this.buffer = buffer;
+
+        if (buffer.capacity() < QuestionBankFormat.HEADER_SIZE
+                || buffer.getInt(0) != QuestionBankFormat.MAGIC) {
+            throw new IOException("Not a compiled question bank");
+        }
+        if (buffer.getInt(4) != QuestionBankFormat.VERSION) {
+            throw new IOException("Unsupported question bank version: " + buffer.getInt(4));
+        }
+
+        this.questionCount = buffer.getInt(8);
+        int levelCount = buffer.getInt(12);
+        this.stringCount = buffer.getInt(16);
+        int levelIndexOffset = buffer.getInt(20);
+        this.stringTableOffset = buffer.getInt(24);
+        this.recordTableOffset = buffer.getInt(28);
+        this.stringDataStart = stringTableOffset + 4 * (stringCount + 1);
+        this.strings = new AtomicReferenceArray<>(stringCount);
+        this.questions = new AtomicReferenceArray<>(questionCount);
+
+        Map<String, int[]> index = new HashMap<>(levelCount * 2);
+        int position = levelIndexOffset;
+        for (int i = 0; i < levelCount; i++) {
+            String level = string(buffer.getInt(position));
+            int count = buffer.getInt(position + 4);
+            int[] questionNumbers = new int[count];
+            for (int j = 0; j < count; j++) {
+                questionNumbers[j] = buffer.getInt(position + 8 + 4 * j);
+            }
+            index.put(level, questionNumbers);
+            position += 8 + 4 * count;
+        }
+        this.questionsByLevel = Collections.unmodifiableMap(index);
+        this.loadStats =
+                new QuestionLoader.LoadStats(questionCount, 0, System.nanoTime() - startNanos);
+    }
+
+    /** Map a compiled bank file read-only */
+    public static MappedQuestionBank open(Path path) throws IOException {
+        long startNanos = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new MappedQuestionBank(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), startNanos);
+        }
+    }
+
+    /**
+     * Map a compiled bank from the classpath. Returns null when the resource is missing or packed
+     * inside an archive, where it cannot be mapped.
+     */
+    static MappedQuestionBank openResource(String resource) throws IOException {
+        URL url = MappedQuestionBank.class.getResource(resource);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return open(Paths.get(url.toURI()));
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid question bank location: " + url, e);
+        }
+    }
+
+    @Override
+    public int countForLevel(String level) {
+        int[] questionNumbers = questionsByLevel.get(normalizeLevel(level));
+        return questionNumbers == null ? 0 : questionNumbers.length;
+    }
+
+    @Override
+    public Question getQuestion(String level, int index) {
+        int[] questionNumbers = questionsByLevel.get(normalizeLevel(level));
+        if (questionNumbers == null || index < 0 || index >= questionNumbers.length) {
+            return null;
+        }
+        return question(questionNumbers[index]);
+    }
+
+    @Override
+    public Set<String> getLevels() {
+        return questionsByLevel.keySet();
+    }
+
+    /** A view that decodes each question on first access */
+    @Override
+    public List<Question> getQuestions() {
+        return new AbstractList<>() {
+            @Override
+            public Question get(int index) {
+                return question(index);
+            }
+
+            @Override
+            public int size() {
+                return questionCount;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return questionCount;
+    }
+
+    /**
+     * The question count from the header and the time taken to map the file and read its level
+     * index. Nothing is skipped here: invalid questions were dropped when the bank was compiled.
+     */
+    @Override
+    public QuestionLoader.LoadStats getLoadStats() {
+        return loadStats;
+    }
+
+    private Question question(int number) {
+        Question question = questions.get(number);
+        if (question == null) {
+            question = decodeQuestion(buffer.getInt(recordTableOffset + 4 * number));
+            if (!questions.compareAndSet(number, null, question)) {
+                question = questions.get(number);
+            }
+        }
+        return question;
+    }
+
+    private Question decodeQuestion(int position) {
+        String level = string(buffer.getInt(position));
+        String scenario = string(buffer.getInt(position + 4));
+        String correct = string(buffer.getInt(position + 8));
+        int optionCount = buffer.getInt(position + 12);
+        position += 16;
+
+        Question.Option[] options = new Question.Option[optionCount];
+        for (int i = 0; i < optionCount; i++) {
+            options[i] =
+                    new Question.Option(
+                            string(buffer.getInt(position)), string(buffer.getInt(position + 4)));
+            position += 8;
+        }
+
+        String feedbackCorrect = string(buffer.getInt(position));
+        String incorrectCommand = string(buffer.getInt(position + 4));
+        String definition = string(buffer.getInt(position + 8));
+        String analogy = string(buffer.getInt(position + 12));
+        String example = string(buffer.getInt(position + 16));
+        int flags = buffer.get(position + 20);
+
+        Question.Feedback feedback = null;
+        if ((flags & QuestionBankFormat.FLAG_FEEDBACK) != 0) {
+            Question.IncorrectFeedback incorrect = null;
+            if ((flags & QuestionBankFormat.FLAG_INCORRECT) != 0) {
+                incorrect =
+                        new Question.IncorrectFeedback(
+                                incorrectCommand,
+                                definition,
+                                analogy,
+                                example,
+                                (flags & QuestionBankFormat.FLAG_RETRY) != 0);
+            }
+            feedback = new Question.Feedback(feedbackCorrect, incorrect);
+        }
+
+        return new Question(level, scenario, List.of(options), correct, feedback);
+    }
+
+    private String string(int id) {
+        if (id == QuestionBankFormat.NO_STRING) {
+            return null;
+        }
+        if (id < 0 || id >= stringCount) {
+            throw new IllegalStateException("Corrupt question bank string id: " + id);
+        }
+
+        String value = strings.get(id);
+        if (value == null) {
+            int offsetPosition = stringTableOffset + 4 * id;
+            int start = buffer.getInt(offsetPosition);
+            int end = buffer.getInt(offsetPosition + 4);
+            byte[] utf8 = new byte[end - start];
+            buffer.get(stringDataStart + start, utf8);
+            value = new String(utf8, StandardCharsets.UTF_8);
+            strings.compareAndSet(id, null, value);
+            value = strings.get(id);
+        }
+        return value;
+    }
+}
@@ -2,105 +2,45 @@ package com.cliapp.services;
 
 import com.cliapp.domain.Question;
 import com.cliapp.io.Console;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.InputStream;
-import java.util.*;
+import java.util.function.Supplier;
 
 /** Service for handling quest game functionality */
 public class QuestGameService {
 
-    private final List<Question> questions;
-    private final ObjectMapper objectMapper;
+    private final Supplier<QuestionBank> questionBankSource;
     private final Console console;
+    private final QuestionDeck questionDeck;
 
     public QuestGameService() {
         this(new com.cliapp.io.SystemConsole());
-        loadQuestionsFromJson();
     }
 
     public QuestGameService(Console console) {
-        this.questions = new ArrayList<>();
-        this.objectMapper = new ObjectMapper();
-        this.console = console;
-        loadQuestionsFromJson();
+        this(console, QuestionBank.defaultSource());
     }
 
-    private void loadQuestionsFromJson() {
-        try {
-            InputStream inputStream = getClass().getResourceAsStream("/Quest.json");
-
-            if (inputStream == null) {
-                console.println("Could not find Quest.json file.");
-                return;
-            }
-
-            JsonNode root = objectMapper.readTree(inputStream);
-            JsonNode questionsNode = root.get("questions");
-
-            if (questionsNode != null && questionsNode.isArray()) {
-                for (JsonNode questionNode : questionsNode) {
-                    Question question = parseQuestion(questionNode);
-                    if (question != null) {
-                        questions.add(question);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            console.println("Error loading questions from JSON: " + e.getMessage());
-        }
+    // Constructor for dependency injection
+    public QuestGameService(Console console, QuestionBank questionBank) {
+        this(console, () -> questionBank);
     }
 
-    private Question parseQuestion(JsonNode questionNode) {
-        try {
-            String level = questionNode.get("level").asText();
-            String scenario = questionNode.get("scenario").asText();
-            String correct = questionNode.get("correct").asText();
-
-            List<Question.Option> options = new ArrayList<>();
-            JsonNode optionsNode = questionNode.get("options");
-            if (optionsNode != null && optionsNode.isArray()) {
-                for (JsonNode optionNode : optionsNode) {
-                    String id = optionNode.get("id").asText();
-                    String command = optionNode.get("command").asText();
-                    options.add(new Question.Option(id, command));
-                }
-            }
-
-            Question.Feedback feedback = null;
-            JsonNode feedbackNode = questionNode.get("feedback");
-            if (feedbackNode != null) {
-                String correctMsg = feedbackNode.get("correct").asText();
-
-                Question.IncorrectFeedback incorrectFeedback = null;
-                JsonNode incorrectNode = feedbackNode.get("incorrect");
-                if (incorrectNode != null) {
-                    String command =
-                            incorrectNode.has("command")
-                                    ? incorrectNode.get("command").asText()
-                                    : null;
-                    String definition = incorrectNode.get("definition").asText();
-                    String analogy =
-                            incorrectNode.has("analogy")
-                                    ? incorrectNode.get("analogy").asText()
-                                    : null;
-                    String example =
-                            incorrectNode.has("example")
-                                    ? incorrectNode.get("example").asText()
-                                    : analogy;
-                    boolean retry = incorrectNode.get("retry").asBoolean();
-                    incorrectFeedback =
-                            new Question.IncorrectFeedback(
-                                    command, definition, analogy, example, retry);
-                }
-
-                feedback = new Question.Feedback(correctMsg, incorrectFeedback);
-            }
+    /** Draw questions from a source whose snapshot may be swapped, e.g. by hot reload */
+    public QuestGameService(Console console, Supplier<QuestionBank> questionBankSource) {
+        this(console, questionBankSource, new QuestionDeck());
+    }
 
-            return new Question(level, scenario, options, correct, feedback);
-        } catch (Exception e) {
-            System.err.println("Error parsing question: " + e.getMessage());
-            return null;
+    /**
+     * Deal from a deck owned by the caller, so a session that creates a service per visit keeps one
+     * record of the questions it has seen
+     */
+    public QuestGameService(
+            Console console, Supplier<QuestionBank> questionBankSource, QuestionDeck questionDeck) {
+        this.console = console;
+        this.questionBankSource = questionBankSource;
+        this.questionDeck = questionDeck;
+        String loadError = questionBankSource.get().getLoadError();
+        if (loadError != null) {
+            console.println(loadError);
         }
     }
 
@@ -187,7 +127,7 @@ public class QuestGameService {
     }
 
     public boolean hasQuestions() {
-        return !questions.isEmpty();
+        return !questionBankSource.get().isEmpty();
     }
 
     public String getQuestTitle() {
@@ -224,20 +164,33 @@ public class QuestGameService {
     }
 
     public int getQuestionCount() {
-        return questions.size();
+        return questionBankSource.get().size();
     }
 
-    private Question getQuestionByLevel(String level) {
-        // Find questions matching the level
-        List<Question> levelQuestions =
-                questions.stream().filter(q -> q.getLevel().equalsIgnoreCase(level)).toList();
+    /** Statistics from loading the question bank, or null if nothing was loaded */
+    public QuestionLoader.LoadStats getLoadStats() {
+        return questionBankSource.get().getLoadStats();
+    }
+
+    /** Get the record of which questions this service has already dealt */
+    public QuestionDeck getQuestionDeck() {
+        return questionDeck;
+    }
 
-        if (levelQuestions.isEmpty()) {
+    /** Get the current snapshot of the shared question content this session draws from */
+    public QuestionBank getQuestionBank() {
+        return questionBankSource.get();
+    }
+
+    private Question getQuestionByLevel(String level) {
+        // Read the snapshot once so dealing and lookup agree even if a reload lands in between
+        QuestionBank questionBank = questionBankSource.get();
+        int index = questionDeck.nextIndex(questionBank, level);
+        if (index < 0) {
             return null;
         }
 
-        // Return a random question from the level
-        Random random = new Random();
-        return levelQuestions.get(random.nextInt(levelQuestions.size()));
+        // Deal an unseen question from the level
+        return questionBank.getQuestion(level, index);
     }
 }
@@ -0,0 +1,207 @@
+package com.cliapp.services;
+
+import com.cliapp.domain.Question;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Immutable, level-indexed set of quest questions SOLID: Single Responsibility - holds the question
+ * content shared by every quest session; per-session state lives in QuestGameService
+ */
+public abstract class QuestionBank {
+
+    private static final String QUEST_RESOURCE = "/Quest.json";
+    private static final String COMPILED_RESOURCE = "/" + QuestionBankFormat.FILE_NAME;
+
+    /** Set to "json" to skip the compiled bank and always parse Quest.json */
+    static final String FORMAT_PROPERTY = "cliapp.quest.format";
+
+    /** Path of an external Quest.json to serve and hot-reload instead of the bundled one */
+    static final String RELOAD_PATH_PROPERTY = "cliapp.quest.reload.path";
+
+    private final QuestionLoader.LoadStats loadStats;
+    private final String loadError;
+
+    protected QuestionBank(QuestionLoader.LoadStats loadStats, String loadError) {
+        this.loadStats = loadStats;
+        this.loadError = loadError;
+    }
+
+    /** Lazily loaded on first use, then shared by the whole JVM */
+    private static class DefaultHolder {
+        private static final QuestionBank INSTANCE = loadDefault();
+    }
+
+    /**
+     * Get the bank for the bundled questions, loading it on first access. The compiled binary bank
+     * is memory-mapped when the build produced one; Quest.json is parsed otherwise.
+     */
+    public static QuestionBank getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Where new quest sessions get their questions: a hot-reloading bank when {@value
+     * #RELOAD_PATH_PROPERTY} is set, otherwise the default bank
+     */
+    public static Supplier<QuestionBank> defaultSource() {
+        if (System.getProperty(RELOAD_PATH_PROPERTY) == null) {
+            return QuestionBank::getDefault;
+        }
+        return ReloadingHolder.INSTANCE;
+    }
+
+    /** Started on first use, then shared by the whole JVM */
+    private static class ReloadingHolder {
+        private static final ReloadingQuestionBank INSTANCE = startReloading();
+
+        private static ReloadingQuestionBank startReloading() {
+            ReloadingQuestionBank bank =
+                    new ReloadingQuestionBank(
+                            Paths.get(System.getProperty(RELOAD_PATH_PROPERTY)), getDefault());
+            try {
+                bank.startWatching();
+            } catch (IOException e) {
+                System.err.println("Question hot reload disabled: " + e.getMessage());
+            }
+            return bank;
+        }
+    }
+
+    /** Build a bank from questions already in memory */
+    public static QuestionBank of(Collection<Question> questions) {
+        return new InMemoryQuestionBank(new ArrayList<>(questions), null, null);
+    }
+
+    /** Build a bank by streaming a Quest.json document */
+    public static QuestionBank load(InputStream inputStream) throws IOException {
+        List<Question> loaded = new ArrayList<>();
+        QuestionLoader.LoadStats stats = new QuestionLoader().load(inputStream, loaded::add);
+        return new InMemoryQuestionBank(loaded, stats, null);
+    }
+
+    static QuestionBank loadDefault() {
+        if (!"json".equalsIgnoreCase(System.getProperty(FORMAT_PROPERTY))) {
+            try {
+                QuestionBank compiled = MappedQuestionBank.openResource(COMPILED_RESOURCE);
+                if (compiled != null) {
+                    return compiled;
+                }
+            } catch (IOException e) {
+                System.err.println(
+                        "Compiled question bank unavailable, parsing JSON: " + e.getMessage());
+            }
+        }
+
+        try (InputStream inputStream = QuestionBank.class.getResourceAsStream(QUEST_RESOURCE)) {
+            if (inputStream == null) {
+                return new InMemoryQuestionBank(List.of(), null, "Could not find Quest.json file.");
+            }
+            return load(inputStream);
+        } catch (Exception e) {
+            return new InMemoryQuestionBank(
+                    List.of(), null, "Error loading questions from JSON: " + e.getMessage());
+        }
+    }
+
+    static String normalizeLevel(String level) {
+        return level == null ? "" : level.toLowerCase(Locale.ROOT);
+    }
+
+    /** Number of questions available for a level (case-insensitive) */
+    public abstract int countForLevel(String level);
+
+    /** Get the question at a position within a level */
+    public abstract Question getQuestion(String level, int index);
+
+    /** Get the normalized level names present in the bank */
+    public abstract Set<String> getLevels();
+
+    /** Get all questions in load order */
+    public abstract List<Question> getQuestions();
+
+    public abstract int size();
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Statistics from loading the bank, or null if nothing was loaded */
+    public QuestionLoader.LoadStats getLoadStats() {
+        return loadStats;
+    }
+
+    /** Message describing why loading failed, or null if it succeeded */
+    public String getLoadError() {
+        return loadError;
+    }
+
+    /** Bank whose questions are all materialized on the heap */
+    private static final class InMemoryQuestionBank extends QuestionBank {
+
+        private final List<Question> questions;
+        private final Map<String, Question[]> questionsByLevel;
+
+        private InMemoryQuestionBank(
+                List<Question> questions, QuestionLoader.LoadStats loadStats, String loadError) {
+            super(loadStats, loadError);
+            this.questions = Collections.unmodifiableList(new ArrayList<>(questions));
+            this.questionsByLevel = indexByLevel(this.questions);
+        }
+
+        private static Map<String, Question[]> indexByLevel(List<Question> questions) {
+            Map<String, List<Question>> grouped = new HashMap<>();
+            for (Question question : questions) {
+                grouped.computeIfAbsent(
+                                normalizeLevel(question.getLevel()), key -> new ArrayList<>())
+                        .add(question);
+            }
+
+            Map<String, Question[]> index = new HashMap<>(grouped.size() * 2);
+            for (Map.Entry<String, List<Question>> entry : grouped.entrySet()) {
+                index.put(entry.getKey(), entry.getValue().toArray(new Question[0]));
+            }
+            return Collections.unmodifiableMap(index);
+        }
+
+        @Override
+        public int countForLevel(String level) {
+            Question[] levelQuestions = questionsByLevel.get(normalizeLevel(level));
+            return levelQuestions == null ? 0 : levelQuestions.length;
+        }
+
+        @Override
+        public Question getQuestion(String level, int index) {
+            Question[] levelQuestions = questionsByLevel.get(normalizeLevel(level));
+            if (levelQuestions == null || index < 0 || index >= levelQuestions.length) {
+                return null;
+            }
+            return levelQuestions[index];
+        }
+
+        @Override
+        public Set<String> getLevels() {
+            return questionsByLevel.keySet();
+        }
+
+        @Override
+        public List<Question> getQuestions() {
+            return questions;
+        }
+
+        @Override
+        public int size() {
+            return questions.size();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.cliapp.services;
+
+import com.cliapp.domain.Question;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Build-time tool that validates Quest.json and compiles it into the binary question bank. Run by
+ * the compileQuestionBank Gradle task: {@code QuestionBankCompiler <Quest.json> <Quest.bin>}
+ */
+public class QuestionBankCompiler {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: QuestionBankCompiler <Quest.json> <Quest.bin>");
+            System.exit(2);
+        }
+
+        List<String> problems = compile(Paths.get(args[0]), Paths.get(args[1]));
+        if (!problems.isEmpty()) {
+            problems.forEach(problem -> System.err.println("Quest.json: " + problem));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Validate the source and, if it is clean, write the compiled bank. Returns the validation
+     * problems found; nothing is written when there are any.
+     */
+    public static List<String> compile(Path source, Path target) throws IOException {
+        List<Question> questions = new ArrayList<>();
+        QuestionLoader.LoadStats stats;
+        try (InputStream in = Files.newInputStream(source)) {
+            stats = new QuestionLoader().load(in, questions::add);
+        }
+
+        List<String> problems = validate(questions);
+        if (stats.getSkippedCount() > 0) {
+            problems.add(0, stats.getSkippedCount() + " question(s) could not be parsed");
+        }
+        if (!problems.isEmpty()) {
+            return problems;
+        }
+
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (OutputStream out = Files.newOutputStream(target)) {
+            QuestionBankFormat.write(questions, out);
+        }
+        return problems;
+    }
+
+    /** Check that every question can actually be played */
+    static List<String> validate(List<Question> questions) {
+        List<String> problems = new ArrayList<>();
+        if (questions.isEmpty()) {
+            problems.add("no questions found");
+        }
+
+        for (int i = 0; i < questions.size(); i++) {
+            Question question = questions.get(i);
+            String where = "question " + (i + 1) + ": ";
+
+            Set<String> optionIds = new HashSet<>();
+            for (Question.Option option : question.getOptions()) {
+                if (option.getId() == null || option.getCommand() == null) {
+                    problems.add(where + "option is missing an id or command");
+                } else if (!optionIds.add(option.getId())) {
+                    problems.add(where + "duplicate option id '" + option.getId() + "'");
+                }
+            }
+            if (optionIds.isEmpty()) {
+                problems.add(where + "has no options");
+            } else if (!optionIds.contains(question.getCorrect())) {
+                problems.add(
+                        where + "correct answer '" + question.getCorrect() + "' is not an option");
+            }
+
+            if (question.getFeedback() == null || question.getFeedback().getCorrect() == null) {
+                problems.add(where + "missing feedback for a correct answer");
+            }
+        }
+        return problems;
+    }
+}
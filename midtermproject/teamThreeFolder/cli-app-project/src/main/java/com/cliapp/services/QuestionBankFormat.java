@@ -0,0 +1,151 @@
+package com.cliapp.services;
+
+import com.cliapp.domain.Question;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Layout of the compiled question bank (Quest.bin). All integers are big-endian; string ids of -1
+ * stand for null.
+ *
+ * <pre>
+ * header        magic, version, questionCount, levelCount, stringCount,
+ *               levelIndexOffset, stringTableOffset, recordTableOffset
+ * level index   per level: levelName, questionCount, question numbers...
+ * string table  stringCount + 1 data offsets, then the UTF-8 bytes of every distinct string
+ * record table  questionCount absolute record offsets, then the records:
+ *               level, scenario, correct, optionCount, (id, command)...,
+ *               feedbackCorrect, incorrectCommand, definition, analogy, example, flags
+ * </pre>
+ */
+final class QuestionBankFormat {
+
+    static final String FILE_NAME = "Quest.bin";
+    static final int MAGIC = 0x51424E4B; // "QBNK"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int NO_STRING = -1;
+
+    static final int FLAG_FEEDBACK = 1;
+    static final int FLAG_INCORRECT = 2;
+    static final int FLAG_RETRY = 4;
+
+    private QuestionBankFormat() {}
+
+    /** Encode the questions, in order, into the compiled bank layout */
+    static void write(List<Question> questions, OutputStream out) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        Map<String, List<Integer>> levels = new LinkedHashMap<>();
+        for (int i = 0; i < questions.size(); i++) {
+            levels.computeIfAbsent(
+                            QuestionBank.normalizeLevel(questions.get(i).getLevel()),
+                            key -> new ArrayList<>())
+                    .add(i);
+        }
+
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        DataOutputStream records = new DataOutputStream(recordBytes);
+        int[] recordOffsets = new int[questions.size()];
+        for (int i = 0; i < questions.size(); i++) {
+            recordOffsets[i] = records.size();
+            writeRecord(questions.get(i), records, strings);
+        }
+
+        ByteArrayOutputStream levelBytes = new ByteArrayOutputStream();
+        DataOutputStream levelIndex = new DataOutputStream(levelBytes);
+        for (Map.Entry<String, List<Integer>> level : levels.entrySet()) {
+            levelIndex.writeInt(intern(level.getKey(), strings));
+            levelIndex.writeInt(level.getValue().size());
+            for (int questionNumber : level.getValue()) {
+                levelIndex.writeInt(questionNumber);
+            }
+        }
+
+        ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        DataOutputStream stringTable = new DataOutputStream(stringBytes);
+        List<byte[]> encoded = new ArrayList<>(strings.size());
+        int dataOffset = 0;
+        for (String value : strings.keySet()) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            encoded.add(utf8);
+            stringTable.writeInt(dataOffset);
+            dataOffset += utf8.length;
+        }
+        stringTable.writeInt(dataOffset);
+        for (byte[] utf8 : encoded) {
+            stringTable.write(utf8);
+        }
+
+        int levelIndexOffset = HEADER_SIZE;
+        int stringTableOffset = levelIndexOffset + levelBytes.size();
+        int recordTableOffset = stringTableOffset + stringBytes.size();
+        int recordsStart = recordTableOffset + 4 * questions.size();
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(questions.size());
+        data.writeInt(levels.size());
+        data.writeInt(strings.size());
+        data.writeInt(levelIndexOffset);
+        data.writeInt(stringTableOffset);
+        data.writeInt(recordTableOffset);
+        levelBytes.writeTo(data);
+        stringBytes.writeTo(data);
+        for (int offset : recordOffsets) {
+            data.writeInt(recordsStart + offset);
+        }
+        recordBytes.writeTo(data);
+        data.flush();
+    }
+
+    private static void writeRecord(
+            Question question, DataOutputStream out, Map<String, Integer> strings)
+            throws IOException {
+        out.writeInt(intern(question.getLevel(), strings));
+        out.writeInt(intern(question.getScenario(), strings));
+        out.writeInt(intern(question.getCorrect(), strings));
+
+        List<Question.Option> options =
+                question.getOptions() != null ? question.getOptions() : List.of();
+        out.writeInt(options.size());
+        for (Question.Option option : options) {
+            out.writeInt(intern(option.getId(), strings));
+            out.writeInt(intern(option.getCommand(), strings));
+        }
+
+        Question.Feedback feedback = question.getFeedback();
+        Question.IncorrectFeedback incorrect = feedback != null ? feedback.getIncorrect() : null;
+        int flags = 0;
+        if (feedback != null) {
+            flags |= FLAG_FEEDBACK;
+        }
+        if (incorrect != null) {
+            flags |= FLAG_INCORRECT;
+            if (incorrect.isRetry()) {
+                flags |= FLAG_RETRY;
+            }
+        }
+
+        out.writeInt(intern(feedback != null ? feedback.getCorrect() : null, strings));
+        out.writeInt(intern(incorrect != null ? incorrect.getCommand() : null, strings));
+        out.writeInt(intern(incorrect != null ? incorrect.getDefinition() : null, strings));
+        out.writeInt(intern(incorrect != null ? incorrect.getAnalogy() : null, strings));
+        out.writeInt(intern(incorrect != null ? incorrect.getExample() : null, strings));
+        out.writeByte(flags);
+    }
+
+    private static int intern(String value, Map<String, Integer> strings) {
+        if (value == null) {
+            return NO_STRING;
+        }
+        return strings.computeIfAbsent(value, key -> strings.size());
+    }
+}
@@ -0,0 +1,121 @@
+package com.cliapp.services;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Per-session deck that deals every question of a level once before repeating any. The n-th deal of
+ * a round is the n-th position of a keyed pseudo-random permutation of the level, so each level
+ * keeps only a 64-bit key, a deal counter and a BitSet of the questions already seen: no index
+ * array, and questions themselves are never copied.
+ */
+public class QuestionDeck {
+
+    private final SplittableRandom random;
+    private final Map<String, LevelDeck> levelDecks;
+    private QuestionBank dealtFrom;
+
+    public QuestionDeck() {
+        this(new SplittableRandom());
+    }
+
+    public QuestionDeck(SplittableRandom random) {
+        this.random = random;
+        this.levelDecks = new HashMap<>();
+    }
+
+    /**
+     * Deal the position of the next unseen question in the level, reshuffling once every question
+     * has been seen. Returns -1 if the level has no questions. A different bank snapshot (e.g.
+     * after a hot reload) starts every level afresh.
+     */
+    public int nextIndex(QuestionBank bank, String level) {
+        if (bank != dealtFrom) {
+            levelDecks.clear();
+            dealtFrom = bank;
+        }
+
+        int count = bank.countForLevel(level);
+        if (count == 0) {
+            return -1;
+        }
+
+        LevelDeck deck =
+                levelDecks.computeIfAbsent(
+                        QuestionBank.normalizeLevel(level), key -> new LevelDeck(count));
+        return deck.deal(random);
+    }
+
+    /** Number of questions of the level dealt since the last reshuffle */
+    public int getSeenCount(String level) {
+        LevelDeck deck = levelDecks.get(QuestionBank.normalizeLevel(level));
+        return deck == null ? 0 : deck.seen.cardinality();
+    }
+
+    /** Whether the question at this position has been dealt since the last reshuffle */
+    public boolean hasSeen(String level, int index) {
+        LevelDeck deck = levelDecks.get(QuestionBank.normalizeLevel(level));
+        return deck != null && index >= 0 && deck.seen.get(index);
+    }
+
+    /**
+     * A round is a bijection on [0, count): a four-round Feistel network over the smallest
+     * even-width bit domain covering count, keyed per round, with cycle walking to stay in range.
+     * The domain is under 4 * count, so a deal takes fewer than four network passes on average.
+     */
+    static final class LevelDeck {
+        private static final int FEISTEL_ROUNDS = 4;
+
+        private final int count;
+        private final int halfBits;
+        private final int halfMask;
+        private final BitSet seen;
+        private long key;
+        private int dealt;
+
+        LevelDeck(int count) {
+            this.count = count;
+            int bits = Math.max(2, 32 - Integer.numberOfLeadingZeros(count - 1));
+            this.halfBits = (bits + 1) / 2;
+            this.halfMask = (1 << halfBits) - 1;
+            this.seen = new BitSet(count);
+            this.dealt = count;
+        }
+
+        int deal(SplittableRandom random) {
+            if (dealt == count) {
+                dealt = 0;
+                seen.clear();
+                key = random.nextLong();
+            }
+
+            int index = dealt++;
+            do {
+                index = permute(index);
+            } while (index >= count);
+
+            seen.set(index);
+            return index;
+        }
+
+        private int permute(int value) {
+            int left = value >>> halfBits;
+            int right = value & halfMask;
+            for (int round = 0; round < FEISTEL_ROUNDS; round++) {
+                int next = left ^ ((int) mix(key + round * 0x9E3779B97F4A7C15L + right) & halfMask);
+                left = right;
+                right = next;
+            }
+            return (left << halfBits) | right;
+        }
+
+        /** The MurmurHash3 64-bit finalizer */
+        private static long mix(long z) {
+            z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+            z = (z ^ (z >>> 33)) * 0xC4CEB93E6D2A6CF7L;
+            return z ^ (z >>> 33);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.cliapp.services;
+
+import com.cliapp.domain.Question;
+import com.cliapp.utils.StringPool;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Streaming loader for quest questions SOLID: Single Responsibility - turns a Quest.json stream
+ * into Question objects one at a time, without building a JSON tree
+ */
+public class QuestionLoader {
+
+    /** Shared, immutable reader; safe to reuse across threads and loads */
+    private static final ObjectReader QUESTION_READER =
+            new ObjectMapper()
+                    .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                    .readerFor(Question.class);
+
+    private static final String QUESTIONS_FIELD = "questions";
+
+    private final StringPool stringPool;
+
+    public QuestionLoader() {
+        this(StringPool.shared());
+    }
+
+    public QuestionLoader(StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    public StringPool getStringPool() {
+        return stringPool;
+    }
+
+    /**
+     * Stream every question in the document to the consumer. Only one question is materialized at a
+     * time; malformed questions are skipped and counted.
+     */
+    public LoadStats load(InputStream inputStream, Consumer<Question> consumer) throws IOException {
+        long start = System.nanoTime();
+        int loaded = 0;
+        int skipped = 0;
+
+        try (JsonParser parser = QUESTION_READER.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Quest file must contain a JSON object");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if (!QUESTIONS_FIELD.equals(fieldName) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    Question question = readQuestion(parser);
+                    if (question != null) {
+                        consumer.accept(question);
+                        loaded++;
+                    } else {
+                        skipped++;
+                    }
+                }
+            }
+        }
+
+        return new LoadStats(loaded, skipped, System.nanoTime() - start);
+    }
+
+    /**
+     * Bind the object under the parser cursor, leaving the cursor on its closing token. A question
+     * whose fields do not bind, e.g. a string where options are expected, is skipped: the cursor is
+     * moved past the rest of its object and null is returned.
+     */
+    private Question readQuestion(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+
+        JsonStreamContext questions = parser.getParsingContext().getParent();
+        try {
+            return normalize(QUESTION_READER.readValue(parser));
+        } catch (JsonMappingException e) {
+            System.err.println("Error parsing question: " + e.getOriginalMessage());
+            while (parser.currentToken() != JsonToken.END_OBJECT
+                    || parser.getParsingContext() != questions) {
+                if (parser.nextToken() == null) {
+                    throw new IOException("Quest file ended inside a question", e);
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Apply the defaults the quest flow relies on; returns null for unusable questions */
+    Question normalize(Question question) {
+        if (question == null
+                || question.getLevel() == null
+                || question.getScenario() == null
+                || question.getCorrect() == null) {
+            System.err.println("Error parsing question: missing level, scenario or correct answer");
+            return null;
+        }
+
+        if (question.getOptions() == null) {
+            question.setOptions(new ArrayList<>());
+        }
+
+        Question.Feedback feedback = question.getFeedback();
+        if (feedback != null && feedback.getIncorrect() != null) {
+            Question.IncorrectFeedback incorrect = feedback.getIncorrect();
+            if (incorrect.getExample() == null) {
+                incorrect.setExample(incorrect.getAnalogy());
+            }
+        }
+
+        return canonicalize(question);
+    }
+
+    /**
+     * Share one instance of the short, repeated strings (levels, answer ids, commands, feedback
+     * messages) across questions. Scenarios and explanatory prose are mostly unique, so pooling
+     * them would only cost lookups.
+     */
+    private Question canonicalize(Question question) {
+        question.setLevel(stringPool.intern(question.getLevel()));
+        question.setCorrect(stringPool.intern(question.getCorrect()));
+
+        for (Question.Option option : question.getOptions()) {
+            option.setId(stringPool.intern(option.getId()));
+            option.setCommand(stringPool.intern(option.getCommand()));
+        }
+
+        Question.Feedback feedback = question.getFeedback();
+        if (feedback != null) {
+            feedback.setCorrect(stringPool.intern(feedback.getCorrect()));
+            Question.IncorrectFeedback incorrect = feedback.getIncorrect();
+            if (incorrect != null) {
+                incorrect.setCommand(stringPool.intern(incorrect.getCommand()));
+            }
+        }
+        return question;
+    }
+
+    /** Result of a load: how many questions were produced and how long it took */
+    public static class LoadStats {
+        private final int questionCount;
+        private final int skippedCount;
+        private final long elapsedNanos;
+
+        public LoadStats(int questionCount, int skippedCount, long elapsedNanos) {
+            this.questionCount = questionCount;
+            this.skippedCount = skippedCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getQuestionCount() {
+            return questionCount;
+        }
+
+        public int getSkippedCount() {
+            return skippedCount;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getLoadTimeMillis() {
+            return elapsedNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Loaded %d questions (%d skipped) in %.2f ms",
+                    questionCount, skippedCount, getLoadTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.cliapp.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Serves questions from an external Quest.json and picks up edits without a restart. Each parse
+ * produces a new immutable QuestionBank that is published through a single volatile reference:
+ * readers never lock, and a quest already in progress keeps the snapshot it started with.
+ */
+public class ReloadingQuestionBank implements Supplier<QuestionBank>, AutoCloseable {
+
+    private final Path questFile;
+    private final AtomicLong reloadCount;
+    private volatile QuestionBank current;
+    private volatile WatchService watchService;
+    private Thread watcher;
+
+    /** Load the file now; if it cannot be read, start from the fallback bank */
+    public ReloadingQuestionBank(Path questFile, QuestionBank fallback) {
+        this.questFile = questFile.toAbsolutePath();
+        this.reloadCount = new AtomicLong();
+        this.current = fallback;
+        reload();
+    }
+
+    /** The current snapshot; a plain volatile read */
+    @Override
+    public QuestionBank get() {
+        return current;
+    }
+
+    /**
+     * Parse the file and publish it if it holds questions. A missing, half-written or empty file
+     * leaves the current snapshot in place.
+     */
+    public boolean reload() {
+        try (InputStream in = Files.newInputStream(questFile)) {
+            QuestionBank loaded = QuestionBank.load(in);
+            if (loaded.isEmpty()) {
+                System.err.println("Ignoring " + questFile + ": no questions found");
+                return false;
+            }
+            current = loaded;
+            reloadCount.incrementAndGet();
+            return true;
+        } catch (Exception e) {
+            System.err.println("Keeping current questions, reload failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** Number of snapshots published so far, including the initial load */
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
+
+    public Path getQuestFile() {
+        return questFile;
+    }
+
+    /** Start watching the file's directory; changes are parsed on a background thread */
+    public synchronized void startWatching() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+
+        Path directory = questFile.getParent();
+        WatchService service = directory.getFileSystem().newWatchService();
+        directory.register(
+                service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        watchService = service;
+        watcher = new Thread(() -> watchLoop(service), "quest-bank-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watchLoop(WatchService service) {
+        Path fileName = questFile.getFileName();
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |=
+                            event.kind() == StandardWatchEventKinds.OVERFLOW
+                                    || fileName.equals(event.context());
+                }
+                if (changed) {
+                    reload();
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped by close()
+        }
+    }
+
+    /** Stop watching; the last snapshot stays available */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+        watcher = null;
+    }
+}
@@ -0,0 +1,206 @@
+package com.cliapp.services;
+
+import com.cliapp.collections.ContentIndex;
+import com.cliapp.collections.GlossaryCollection;
+import com.cliapp.domain.GlossaryEntry;
+import com.cliapp.domain.Quest;
+import com.cliapp.domain.Question;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Search across quests, their learning modules, quest questions and the glossary through one {@link
+ * ContentIndex} SOLID: Single Responsibility - keeps the cross-content index in step with the
+ * services that own the content
+ *
+ * <p>Quests are indexed when the service is created and re-indexed through {@link #indexQuest}. The
+ * glossary is indexed in full on the first search and after that follows the collection's change
+ * listener, and questions follow the bank the supplier hands out, so edits and hot reloads show up
+ * on the next search; only entries that changed are re-indexed. {@link #close} stops listening to
+ * the glossary.
+ */
+public class SearchService implements AutoCloseable {
+
+    private final QuestService questService;
+    private final Supplier<QuestionBank> questionSource;
+    private final GlossaryService glossaryService;
+    private final ContentIndex index;
+    private final Map<String, Integer> moduleCounts;
+    private final GlossaryCollection glossary;
+    private final GlossaryCollection.ChangeListener glossaryListener;
+    private final Map<String, GlossaryEntry> pendingGlossary;
+    private boolean glossaryIndexed;
+    private QuestionBank indexedQuestions;
+
+    public SearchService(
+            QuestService questService,
+            Supplier<QuestionBank> questionSource,
+            GlossaryService glossaryService) {
+        this.questService = questService;
+        this.questionSource = questionSource;
+        this.glossaryService = glossaryService;
+        this.index = new ContentIndex();
+        this.moduleCounts = new HashMap<>();
+        this.glossary = glossaryService.getGlossaryCollection();
+        this.pendingGlossary = new LinkedHashMap<>();
+        this.glossaryListener = this::glossaryChanged;
+        glossary.addChangeListener(glossaryListener);
+        for (Quest quest : questService.getAllQuests()) {
+            indexQuest(quest);
+        }
+    }
+
+    /** Stop following the glossary; later glossary changes no longer reach the index */
+    @Override
+    public void close() {
+        glossary.removeChangeListener(glossaryListener);
+    }
+
+    /**
+     * Rank quests, modules, questions and glossary entries together against the query and return
+     * the best {@code limit} hits, best first
+     */
+    public synchronized List<ContentIndex.Hit> search(String query, int limit) {
+        syncGlossary();
+        syncQuestions();
+        return index.search(query, limit);
+    }
+
+    /** Index a quest and each of its learning modules, replacing what was indexed for its id */
+    public synchronized void indexQuest(Quest quest) {
+        if (quest == null || quest.getId() == null) {
+            return;
+        }
+        index.put(ContentIndex.Type.QUEST, quest.getId(), quest.getName(), quest.getDescription());
+
+        List<String> modules = quest.getLearningModules();
+        for (int i = 0; i < modules.size(); i++) {
+            index.put(ContentIndex.Type.MODULE, moduleKey(quest.getId(), i), modules.get(i));
+        }
+        int previous = moduleCounts.getOrDefault(quest.getId(), 0);
+        for (int i = modules.size(); i < previous; i++) {
+            index.remove(ContentIndex.Type.MODULE, moduleKey(quest.getId(), i));
+        }
+        moduleCounts.put(quest.getId(), modules.size());
+    }
+
+    /** Drop a quest and its learning modules from the index */
+    public synchronized boolean removeQuest(String questId) {
+        Integer modules = moduleCounts.remove(questId);
+        if (modules == null) {
+            return false;
+        }
+        for (int i = 0; i < modules; i++) {
+            index.remove(ContentIndex.Type.MODULE, moduleKey(questId, i));
+        }
+        return index.remove(ContentIndex.Type.QUEST, questId);
+    }
+
+    /** Key of a learning module hit: the quest id and the module's position in the quest */
+    public static String moduleKey(String questId, int module) {
+        return questId + "#" + module;
+    }
+
+    /** Key of a question hit: its level and its position within the level */
+    public static String questionKey(String level, int question) {
+        return level + "#" + question;
+    }
+
+    /** Number of documents indexed across every content type */
+    public synchronized int getIndexedCount() {
+        return index.size();
+    }
+
+    /** Get the quest service whose quests are searched */
+    public QuestService getQuestService() {
+        return questService;
+    }
+
+    /** Queue a change for the next search; runs on the writing thread */
+    private void glossaryChanged(String key, GlossaryEntry entry) {
+        synchronized (pendingGlossary) {
+            pendingGlossary.put(key, entry);
+        }
+    }
+
+    /**
+     * Bring the glossary documents up to date. The first call indexes every entry, keyed by
+     * lowercased command with the latest one winning as in lookups; later calls apply only the
+     * changes queued since, so a search after an edit costs the edit, not the glossary.
+     */
+    private void syncGlossary() {
+        Map<String, GlossaryEntry> changes;
+        synchronized (pendingGlossary) {
+            changes = new LinkedHashMap<>(pendingGlossary);
+            pendingGlossary.clear();
+        }
+        if (!glossaryIndexed) {
+            changes.clear();
+            for (GlossaryEntry entry : glossary) {
+                changes.put(entry.getCommand().toLowerCase(), entry);
+            }
+            glossaryIndexed = true;
+        }
+
+        for (Map.Entry<String, GlossaryEntry> change : changes.entrySet()) {
+            GlossaryEntry entry = change.getValue();
+            if (entry == null) {
+                index.remove(ContentIndex.Type.GLOSSARY, change.getKey());
+            } else {
+                index.put(
+                        ContentIndex.Type.GLOSSARY,
+                        change.getKey(),
+                        entry.getCommand(),
+                        entry.getDefinition(),
+                        entry.getExample(),
+                        entry.getCategory());
+            }
+        }
+    }
+
+    /** Re-index the questions when the source hands out a different bank, e.g. after a reload */
+    private void syncQuestions() {
+        QuestionBank bank = questionSource.get();
+        if (bank == indexedQuestions) {
+            return;
+        }
+
+        Set<String> stale = new HashSet<>(index.keys(ContentIndex.Type.QUESTION));
+        for (String level : bank.getLevels()) {
+            for (int i = 0; i < bank.countForLevel(level); i++) {
+                String key = questionKey(level, i);
+                Question question = bank.getQuestion(level, i);
+                index.put(
+                        ContentIndex.Type.QUESTION,
+                        key,
+                        question.getScenario(),
+                        correctCommand(question),
+                        question.getFeedback() == null
+                                        || question.getFeedback().getIncorrect() == null
+                                ? null
+                                : question.getFeedback().getIncorrect().getDefinition());
+                stale.remove(key);
+            }
+        }
+        for (String key : stale) {
+            index.remove(ContentIndex.Type.QUESTION, key);
+        }
+        indexedQuestions = bank;
+    }
+
+    private static String correctCommand(Question question) {
+        if (question.getOptions() != null) {
+            for (Question.Option option : question.getOptions()) {
+                if (option.getId() != null && option.getId().equals(question.getCorrect())) {
+                    return option.getCommand();
+                }
+            }
+        }
+        return null;
+    }
+}
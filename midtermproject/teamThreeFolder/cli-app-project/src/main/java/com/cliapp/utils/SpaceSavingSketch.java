@@ -0,0 +1,140 @@
+package com.cliapp.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streaming top-N tracker using the Space-Saving algorithm: at most {@code capacity} counters, and
+ * when a new key arrives with every counter taken it replaces the smallest one, inheriting its
+ * count as the error bound. Any key seen more than total/capacity times is guaranteed to be
+ * tracked.
+ *
+ * <p>Recording never blocks: if another thread holds the lock the sample is dropped and counted in
+ * {@link #getDroppedCount()}, which only makes the already approximate counts a little lower.
+ */
+public class SpaceSavingSketch<K> {
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+    private final ReentrantLock lock;
+    private final LongAdder dropped;
+    private long total;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>();
+        this.lock = new ReentrantLock();
+        this.dropped = new LongAdder();
+    }
+
+    /** Count one occurrence of the key, unless another thread is recording right now */
+    public void record(K key) {
+        if (key == null) {
+            return;
+        }
+        if (!lock.tryLock()) {
+            dropped.increment();
+            return;
+        }
+        try {
+            total++;
+            Counter<K> counter = counters.get(key);
+            if (counter != null) {
+                counter.count++;
+            } else if (counters.size() < capacity) {
+                counters.put(key, new Counter<>(key, 1, 0));
+            } else {
+                Counter<K> smallest = null;
+                for (Counter<K> candidate : counters.values()) {
+                    if (smallest == null || candidate.count < smallest.count) {
+                        smallest = candidate;
+                    }
+                }
+                counters.remove(smallest.key);
+                counters.put(key, new Counter<>(key, smallest.count + 1, smallest.count));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The n keys with the highest estimated counts, highest first */
+    public List<Estimate<K>> top(int n) {
+        List<Estimate<K>> estimates = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Counter<K> counter : counters.values()) {
+                estimates.add(new Estimate<>(counter.key, counter.count, counter.error));
+            }
+        } finally {
+            lock.unlock();
+        }
+        estimates.sort(Comparator.comparingLong(Estimate<K>::getCount).reversed());
+        return new ArrayList<>(estimates.subList(0, Math.min(Math.max(n, 0), estimates.size())));
+    }
+
+    /** Number of occurrences recorded, excluding dropped ones */
+    public long getTotal() {
+        lock.lock();
+        try {
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Number of occurrences skipped because another thread was recording */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /** A tracked key; its true count lies in [count - error, count] */
+    public static final class Estimate<K> {
+        private final K key;
+        private final long count;
+        private final long error;
+
+        public Estimate(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + count;
+        }
+    }
+
+    private static final class Counter<K> {
+        private final K key;
+        private long count;
+        private final long error;
+
+        private Counter(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
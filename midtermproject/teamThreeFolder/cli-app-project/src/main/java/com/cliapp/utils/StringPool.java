@@ -0,0 +1,97 @@
+package com.cliapp.utils;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Canonicalizes repeated content strings (feedback messages, level and category names) so that
+ * every copy parsed from quest and glossary files shares a single String instance.
+ *
+ * <p>The pool holds its strings weakly: once no loaded question or entry refers to a string, the
+ * garbage collector drops it from the pool too, so reloads and imports do not accumulate text.
+ * Loaders should still only intern low-cardinality fields, where duplicates are common.
+ */
+public class StringPool {
+
+    private static final StringPool SHARED = new StringPool();
+
+    private static final int STRING_HEADER_BYTES = 24;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final Map<String, WeakReference<String>> pool;
+    private final LongAdder hits;
+    private final LongAdder bytesSaved;
+
+    public StringPool() {
+        this.pool = new WeakHashMap<>();
+        this.hits = new LongAdder();
+        this.bytesSaved = new LongAdder();
+    }
+
+    /** Pool shared by all content loaders */
+    public static StringPool shared() {
+        return SHARED;
+    }
+
+    /** Return the canonical instance equal to value, adding value if it is new */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        String canonical;
+        synchronized (pool) {
+            WeakReference<String> reference = pool.get(value);
+            canonical = reference == null ? null : reference.get();
+            if (canonical == null) {
+                pool.put(value, new WeakReference<>(value));
+                return value;
+            }
+        }
+        if (canonical != value) {
+            hits.increment();
+            bytesSaved.add(estimateSize(value));
+        }
+        return canonical;
+    }
+
+    /** Approximate heap size of a String and its backing array on a 64-bit JVM */
+    static long estimateSize(String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) < 256;
+        }
+        long arrayBytes = ARRAY_HEADER_BYTES + (long) value.length() * (latin1 ? 1 : 2);
+        return STRING_HEADER_BYTES + align(arrayBytes);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /** Number of distinct strings held and not yet collected */
+    public int size() {
+        synchronized (pool) {
+            return pool.size();
+        }
+    }
+
+    /** Number of duplicates that were replaced by a canonical instance */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /** Estimated heap bytes no longer retained thanks to deduplication */
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "StringPool{distinct=%d, duplicates=%d, bytesSaved=%d}",
+                size(), getHitCount(), getBytesSaved());
+    }
+}
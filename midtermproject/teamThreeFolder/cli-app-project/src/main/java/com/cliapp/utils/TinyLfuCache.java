@@ -0,0 +1,197 @@
+package com.cliapp.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Size-bounded cache with W-TinyLFU eviction. New keys enter a small LRU window; when the window
+ * overflows its oldest key competes with the oldest key of the probation segment of the main region
+ * and only the one requested more often, according to a count-min frequency sketch, stays. Keys hit
+ * again while on probation move to the protected segment. This keeps the few hot keys of a skewed
+ * workload cached even when a burst of one-off keys passes through. Methods are synchronized; the
+ * work under the lock is a few hash lookups.
+ */
+public class TinyLfuCache<K, V> {
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final int mainCapacity;
+    private final LinkedHashMap<K, V> window;
+    private final LinkedHashMap<K, V> probation;
+    private final LinkedHashMap<K, V> protectedSegment;
+
+    private final byte[][] sketch;
+    private final int sketchMask;
+    private final int sampleSize;
+    private int sampleCount;
+
+    private long hits;
+    private long misses;
+
+    public TinyLfuCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.mainCapacity = Math.max(1, capacity - windowCapacity);
+        this.protectedCapacity = Math.max(1, mainCapacity * 4 / 5);
+        this.window = new LinkedHashMap<>(16, 0.75f, true);
+        this.probation = new LinkedHashMap<>(16, 0.75f, true);
+        this.protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+        int width = Integer.highestOneBit(Math.max(16, capacity * 4) - 1) << 1;
+        this.sketch = new byte[SKETCH_DEPTH][width];
+        this.sketchMask = width - 1;
+        this.sampleSize = capacity * 10;
+    }
+
+    /** Look a key up, counting a hit or a miss */
+    public synchronized V get(K key) {
+        recordAccess(key);
+
+        V value = window.get(key);
+        if (value == null) {
+            value = protectedSegment.get(key);
+        }
+        if (value == null) {
+            value = probation.remove(key);
+            if (value != null) {
+                promote(key, value);
+            }
+        }
+
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    /** Insert or replace a value; a new key may be rejected in favour of more frequent ones */
+    public synchronized void put(K key, V value) {
+        if (window.containsKey(key)) {
+            window.put(key, value);
+            return;
+        }
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, value);
+            return;
+        }
+        if (probation.containsKey(key)) {
+            probation.put(key, value);
+            return;
+        }
+
+        window.put(key, value);
+        if (window.size() > windowCapacity) {
+            K candidate = eldest(window);
+            admit(candidate, window.remove(candidate));
+        }
+    }
+
+    /** Drop every cached value; statistics and frequencies are kept */
+    public synchronized void clear() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    /** Number of cached values */
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /** Fraction of lookups that were hits, or 0 before the first lookup */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /** Estimated recent request count of a key, capped at 15 */
+    public synchronized int frequency(K key) {
+        int hash = spread(key.hashCode());
+        int min = MAX_COUNT;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            min = Math.min(min, sketch[row][index(hash, row)]);
+        }
+        return min;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format(
+                "TinyLfuCache{size=%d, hits=%d, misses=%d, hitRate=%.2f}",
+                size(), hits, misses, getHitRate());
+    }
+
+    private void admit(K candidate, V value) {
+        if (probation.size() + protectedSegment.size() < mainCapacity) {
+            probation.put(candidate, value);
+            return;
+        }
+
+        K victim = probation.isEmpty() ? eldest(protectedSegment) : eldest(probation);
+        if (frequency(candidate) > frequency(victim)) {
+            if (probation.remove(victim) == null) {
+                protectedSegment.remove(victim);
+            }
+            probation.put(candidate, value);
+        }
+    }
+
+    private void promote(K key, V value) {
+        protectedSegment.put(key, value);
+        if (protectedSegment.size() > protectedCapacity) {
+            K demoted = eldest(protectedSegment);
+            probation.put(demoted, protectedSegment.remove(demoted));
+        }
+    }
+
+    private void recordAccess(K key) {
+        int hash = spread(key.hashCode());
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            int at = index(hash, row);
+            if (sketch[row][at] < MAX_COUNT) {
+                sketch[row][at]++;
+            }
+        }
+
+        // Age every counter so that yesterday's popular keys give way to today's
+        if (++sampleCount >= sampleSize) {
+            for (byte[] counters : sketch) {
+                for (int i = 0; i < counters.length; i++) {
+                    counters[i] >>= 1;
+                }
+            }
+            sampleCount /= 2;
+        }
+    }
+
+    private int index(int hash, int row) {
+        int mixed = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % SKETCH_DEPTH];
+        return (mixed ^ (mixed >>> 16)) & sketchMask;
+    }
+
+    private static int spread(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 15);
+    }
+
+    private static <K> K eldest(LinkedHashMap<K, ?> map) {
+        Iterator<K> keys = map.keySet().iterator();
+        return keys.next();
+    }
+}
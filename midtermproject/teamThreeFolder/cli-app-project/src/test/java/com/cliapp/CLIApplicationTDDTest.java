@@ -4,6 +4,8 @@ package com.cliapp;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.cliapp.test.TestConsole;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -87,6 +89,25 @@ public class CLIApplicationTDDTest {
                 "Should execute glossary command");
     }
 
+    @Test
+    @DisplayName("Given_MainMenu_When_Option4WithWords_Then_PassesThemToGlossary")
+    void testMenuOption4PassesArgumentsToGlossary() {
+        testConsole.addInputs("4 git stash", "4 --page 2 --page-size 5", "1 git", "5");
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream glossaryOutput = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(glossaryOutput));
+        try {
+            app.start();
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        String output = glossaryOutput.toString();
+        assertTrue(output.contains("Command: git stash"), "Should look up the command");
+        assertTrue(output.contains("page 2 of 4"), "Should show the requested page");
+        assertTrue(testConsole.getAllOutput().contains("Invalid menu choice"));
+    }
+
     @Test
     @DisplayName("Given_MainMenu_When_ValidOption5_Then_ExitsApplication")
     void testValidMenuOption5Quit() {
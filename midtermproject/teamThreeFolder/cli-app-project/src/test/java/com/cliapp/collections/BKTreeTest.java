@@ -0,0 +1,141 @@
+package com.cliapp.collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BKTreeTest {
+
+    private BKTree tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new BKTree();
+        for (String key : List.of("git commit", "git checkout", "git cherry-pick", "git clone")) {
+            tree.add(key);
+        }
+    }
+
+    private static List<String> keys(List<BKTree.Match> matches) {
+        List<String> keys = new ArrayList<>();
+        for (BKTree.Match match : matches) {
+            keys.add(match.getKey());
+        }
+        return keys;
+    }
+
+    @Test
+    void testLevenshteinDistance() {
+        assertEquals(3, BKTree.levenshtein("kitten", "sitting"));
+        assertEquals(0, BKTree.levenshtein("git", "git"));
+        assertEquals(3, BKTree.levenshtein("", "git"));
+        assertEquals(3, BKTree.levenshtein("git commit", "git clone", 2));
+        assertEquals(1, BKTree.levenshtein("git commit", "git comit", 2));
+    }
+
+    @Test
+    void testFindsTyposWithinDistance() {
+        List<BKTree.Match> matches = tree.search("git comit", 1);
+
+        assertEquals(List.of("git commit"), keys(matches));
+        assertEquals(1, matches.get(0).getDistance());
+        assertEquals(List.of("git checkout"), keys(tree.search("git chekout", 2)));
+        assertTrue(tree.search("svn update", 2).isEmpty());
+    }
+
+    @Test
+    void testOrdersClosestFirst() {
+        assertEquals(List.of("git clone", "git commit"), keys(tree.search("git cone", 4)));
+    }
+
+    @Test
+    void testRemoveHidesKeyAndReAddRestoresIt() {
+        assertFalse(tree.add("git commit"));
+        assertTrue(tree.remove("git commit"));
+        assertFalse(tree.remove("git commit"));
+        assertTrue(tree.search("git comit", 1).isEmpty());
+        assertEquals(3, tree.size());
+
+        assertTrue(tree.add("git commit"));
+        assertEquals(List.of("git commit"), keys(tree.search("git comit", 1)));
+    }
+
+    @Test
+    void testMatchesBruteForceAndPrunesMostOfTheTree() {
+        Random random = new Random(11);
+        List<String> all = new ArrayList<>();
+        BKTree large = new BKTree();
+        for (int i = 0; i < 5000; i++) {
+            String key = randomWord(random);
+            if (large.add(key)) {
+                all.add(key);
+            }
+        }
+        for (int i = 0; i < 500; i++) {
+            large.remove(all.remove(random.nextInt(all.size())));
+        }
+
+        String query = randomWord(random);
+        long before = large.getDistanceComputations();
+        List<String> found = keys(large.search(query, 1));
+        long visited = large.getDistanceComputations() - before;
+
+        List<String> expected = new ArrayList<>();
+        for (String key : all) {
+            if (BKTree.levenshtein(query, key) <= 1) {
+                expected.add(key);
+            }
+        }
+        expected.sort(
+                (a, b) -> {
+                    int byDistance =
+                            Integer.compare(
+                                    BKTree.levenshtein(query, a), BKTree.levenshtein(query, b));
+                    return byDistance != 0 ? byDistance : a.compareTo(b);
+                });
+        assertEquals(expected, found);
+        assertTrue(visited < all.size() / 2, "Visited " + visited + " of " + all.size());
+    }
+
+    @Test
+    void testAddAllMatchesAddingOneByOne() {
+        Random random = new Random(3);
+        List<String> batch = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            batch.add(randomWord(random));
+        }
+        batch.add("git commit");
+        batch.add(batch.get(0));
+
+        BKTree added = new BKTree();
+        for (String key : List.of("git commit", "git checkout", "git cherry-pick", "git clone")) {
+            added.add(key);
+        }
+        for (String key : batch) {
+            added.add(key);
+        }
+        tree.remove("git clone");
+        added.remove("git clone");
+
+        assertEquals(400, tree.addAll(batch));
+        assertEquals(added.size(), tree.size());
+        assertEquals(1, tree.addAll(List.of("git clone", "git commit")), "Small batches add");
+        added.add("git clone");
+        for (String query : List.of("git comit", batch.get(7), "git clne", "git")) {
+            assertEquals(keys(added.search(query, 2)), keys(tree.search(query, 2)), query);
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder builder = new StringBuilder("git ");
+        int length = 4 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,124 @@
+package com.cliapp.collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cliapp.domain.GlossaryEntry;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentGlossaryCollectionTest {
+
+    private ConcurrentGlossaryCollection collection;
+    private GlossaryEntry commit;
+    private GlossaryEntry push;
+
+    @BeforeEach
+    void setUp() {
+        commit = new GlossaryEntry("git commit", "Record changes", "git commit", "Committing");
+        push = new GlossaryEntry("git push", "Upload commits", "git push", "Remote");
+        collection = new ConcurrentGlossaryCollection(List.of(commit, push));
+    }
+
+    @Test
+    void testBehavesLikeGlossaryCollection() {
+        GlossaryEntry merge = new GlossaryEntry("git merge", "Join branches", "", "Branching");
+        assertTrue(collection.add(merge));
+        assertFalse(collection.add(null));
+        assertTrue(collection.remove(push));
+        assertFalse(collection.remove(push));
+        assertTrue(collection.update("git merge", new GlossaryEntry("git merge", "x", "", "B")));
+        assertFalse(collection.update("git push", merge));
+
+        assertEquals(2, collection.size());
+        assertFalse(collection.isEmpty());
+        assertEquals(commit, collection.getByCommand("GIT COMMIT"));
+        assertEquals(List.of("git commit"), collection.completeCommand("git c", 5));
+        assertEquals(List.of(commit), collection.searchFuzzy("git comit", 1));
+        assertEquals(List.of(commit), collection.searchEntries("record"));
+        assertEquals(List.of(commit), collection.scanEntries("record"));
+        assertEquals(List.of(commit), collection.searchRanked("changes", 5));
+        assertEquals(Set.of("Committing", "B"), collection.getCategories());
+        assertEquals(1, collection.getCategorySize("B"));
+        assertEquals("x", collection.getEntriesByCategory("B").get(0).getDefinition());
+        assertEquals(3, collection.getSlotCount(), "Writes change one collection in place");
+        GlossaryEntry log = new GlossaryEntry("git log", "Show each commit", "", "History");
+        collection.add(log);
+        assertEquals(List.of(log), collection.getRelated("git commit"));
+    }
+
+    @Test
+    void testIteratorSeesSnapshotAndIsReadOnly() {
+        Iterator<GlossaryEntry> iterator = collection.iterator();
+        collection.remove(commit);
+
+        assertSame(commit, iterator.next(), "Iterator keeps the snapshot it started from");
+        assertSame(push, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+        assertEquals(List.of(push), collection.getAllEntries());
+    }
+
+    @Test
+    void testApplyPublishesBatchAtOnce() {
+        List<GlossaryEntry> before = collection.getAllEntries();
+
+        collection.apply(
+                copy -> {
+                    for (int i = 0; i < 100; i++) {
+                        copy.add(new GlossaryEntry("cmd " + i, "definition", "", "Bulk"));
+                    }
+                });
+
+        assertEquals(2, before.size());
+        assertEquals(1, collection.getVersion(), "A batch publishes one version");
+        assertEquals(102, collection.size());
+        assertEquals(100, collection.getCategorySize("Bulk"));
+    }
+
+    @Test
+    void testReadersNeverSeePartialWrites() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(
+                        pool.submit(
+                                () -> {
+                                    int reads = 0;
+                                    while (writing.get()) {
+                                        // Each batch adds a pair, so a snapshot is always even
+                                        assertEquals(0, collection.size() % 2);
+                                        assertNotNull(collection.getByCommand("git commit"));
+                                        reads++;
+                                    }
+                                    return reads;
+                                }));
+            }
+            for (int i = 0; i < 200; i++) {
+                int n = i;
+                collection.apply(
+                        copy -> {
+                            copy.add(new GlossaryEntry("a " + n, "first", "", "Pairs"));
+                            copy.add(new GlossaryEntry("b " + n, "second", "", "Pairs"));
+                        });
+            }
+            writing.set(false);
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get(10, TimeUnit.SECONDS) > 0);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(402, collection.size());
+    }
+}
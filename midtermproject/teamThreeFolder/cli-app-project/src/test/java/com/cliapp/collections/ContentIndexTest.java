@@ -0,0 +1,80 @@
+package com.cliapp.collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ContentIndexTest {
+
+    private ContentIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ContentIndex();
+        index.put(ContentIndex.Type.QUEST, "git-branching", "Branching", "Rebase and merge work");
+        index.put(ContentIndex.Type.MODULE, "git-branching#0", "Rebase a branch onto main");
+        index.put(ContentIndex.Type.QUESTION, "advanced#0", "Your history is messy", "git rebase");
+        index.put(ContentIndex.Type.GLOSSARY, "git merge", "git merge", "Join two branches");
+    }
+
+    private static List<String> keys(List<ContentIndex.Hit> hits) {
+        List<String> keys = new ArrayList<>();
+        for (ContentIndex.Hit hit : hits) {
+            keys.add(hit.getType() + ":" + hit.getKey());
+        }
+        return keys;
+    }
+
+    @Test
+    void testOneSearchRanksEveryContentType() {
+        // The quest and module tie on length and frequency; the earlier document wins the tie
+        List<ContentIndex.Hit> hits = index.search("rebase", 10);
+
+        assertEquals(3, hits.size());
+        assertEquals(
+                List.of("QUEST:git-branching", "MODULE:git-branching#0", "QUESTION:advanced#0"),
+                keys(hits));
+        assertEquals("Rebase a branch onto main", hits.get(1).getTitle());
+        assertTrue(hits.get(0).getScore() >= hits.get(2).getScore());
+        assertEquals(2, index.search("rebase", 2).size());
+    }
+
+    @Test
+    void testPutReplacesAndRemoveDrops() {
+        index.put(ContentIndex.Type.GLOSSARY, "git merge", "git merge", "Combine histories");
+        assertTrue(index.search("branches", 5).isEmpty());
+        assertEquals(List.of("GLOSSARY:git merge"), keys(index.search("histories", 5)));
+
+        assertTrue(index.remove(ContentIndex.Type.GLOSSARY, "git merge"));
+        assertFalse(index.remove(ContentIndex.Type.GLOSSARY, "git merge"));
+        assertFalse(index.contains(ContentIndex.Type.GLOSSARY, "git merge"));
+        assertTrue(index.search("histories", 5).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void testSameKeyUnderDifferentTypesIsDistinct() {
+        index.put(ContentIndex.Type.QUEST, "git merge", "Merge quest");
+
+        assertEquals(3, index.search("merge", 5).size());
+        assertTrue(index.contains(ContentIndex.Type.QUEST, "git merge"));
+        assertTrue(index.contains(ContentIndex.Type.GLOSSARY, "git merge"));
+    }
+
+    @Test
+    void testCompactionKeepsResultsAndTieOrder() {
+        List<String> before = keys(index.search("branch rebase merge", 10));
+        for (int i = 0; i < 500; i++) {
+            index.put(ContentIndex.Type.GLOSSARY, "scratch", "scratch " + i);
+        }
+        index.remove(ContentIndex.Type.GLOSSARY, "scratch");
+
+        assertEquals(before, keys(index.search("branch rebase merge", 10)));
+        assertEquals(4, index.size());
+        assertEquals(Set.of("git merge"), index.keys(ContentIndex.Type.GLOSSARY));
+    }
+}
@@ -0,0 +1,149 @@
+package com.cliapp.collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cliapp.domain.GlossaryEntry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class CrossReferenceGraphTest {
+
+    private GlossaryEntry fetch;
+    private GlossaryEntry merge;
+    private GlossaryEntry pull;
+    private GlossaryEntry cherryPick;
+    private CrossReferenceGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        fetch = new GlossaryEntry("git fetch", "Download objects from a remote", "", "Remote");
+        merge = new GlossaryEntry("git merge", "Join two histories", "git merge dev", "Branching");
+        pull = new GlossaryEntry("git pull", "Fetch, then merge", "git pull origin", "Remote");
+        cherryPick =
+                new GlossaryEntry(
+                        "git cherry-pick", "Apply one commit", "git cherry-pick abc", "Branching");
+        graph = CrossReferenceGraph.of(List.of(fetch, merge, pull, cherryPick));
+    }
+
+    @Test
+    void testDefinitionsAndExamplesLinkEntries() {
+        assertEquals(List.of(fetch, merge), graph.getMentions("git pull"));
+        assertEquals(List.of(pull), graph.getMentionedBy("GIT MERGE"));
+        assertEquals(List.of(pull), graph.getRelated("git fetch"));
+        assertTrue(graph.getRelated("git cherry-pick").isEmpty(), "No self references");
+        assertTrue(graph.getRelated("git nothing").isEmpty());
+        assertTrue(graph.getRelated(null).isEmpty());
+        assertEquals(2, graph.getEdgeCount());
+    }
+
+    @Test
+    void testMultiWordNamesMustAppearTogether() {
+        graph.put(
+                "git stash",
+                new GlossaryEntry("git stash", "Shelve work; see cherry-pick", "", "Stash"));
+        graph.put("git log", new GlossaryEntry("git log", "Pick a cherry", "", "History"));
+
+        assertEquals(List.of(cherryPick), graph.getMentions("git stash"));
+        assertTrue(graph.getMentions("git log").isEmpty());
+    }
+
+    @Test
+    void testRelatedListsEachEntryOnce() {
+        graph.put("git merge", new GlossaryEntry("git merge", "Used by pull", "", "Branching"));
+
+        assertEquals(List.of(pull), graph.getRelated("git merge"));
+        assertEquals(List.of(pull), graph.getMentions("git merge"));
+        assertEquals(List.of(pull), graph.getMentionedBy("git merge"));
+    }
+
+    @Test
+    void testAddingAnEntryLinksEntriesThatAlreadyMentionIt() {
+        GlossaryEntry origin = new GlossaryEntry("origin", "Default remote name", "", "Remote");
+        graph.put("origin", origin);
+
+        assertEquals(List.of(pull), graph.getMentionedBy("origin"));
+        assertEquals(List.of(fetch, merge, origin), graph.getMentions("git pull"));
+    }
+
+    @Test
+    void testRemovingAnEntryDropsItsEdges() {
+        assertTrue(graph.remove("git merge"));
+        assertFalse(graph.remove("git merge"));
+
+        assertEquals(List.of(fetch), graph.getMentions("git pull"));
+        assertTrue(graph.getRelated("git merge").isEmpty());
+        assertEquals(3, graph.size());
+        assertEquals(1, graph.getEdgeCount());
+    }
+
+    @Test
+    void testIncrementalChangesMatchARebuild() {
+        String[] words = {"fetch", "merge", "pull", "cherry-pick", "stash", "tag", "log", "push"};
+        Random random = new Random(11);
+        Map<String, GlossaryEntry> current = new LinkedHashMap<>();
+        CrossReferenceGraph incremental = new CrossReferenceGraph();
+        for (int i = 0; i < 3000; i++) {
+            String key = "git " + words[random.nextInt(words.length)] + " " + random.nextInt(40);
+            if (random.nextInt(4) == 0) {
+                assertEquals(current.remove(key) != null, incremental.remove(key));
+            } else {
+                GlossaryEntry entry =
+                        new GlossaryEntry(
+                                key,
+                                words[random.nextInt(words.length)]
+                                        + " "
+                                        + random.nextInt(40)
+                                        + " then "
+                                        + words[random.nextInt(words.length)],
+                                "git " + words[random.nextInt(words.length)] + " " + i % 40,
+                                "Category");
+                current.put(key, entry);
+                incremental.put(key, entry);
+            }
+        }
+
+        CrossReferenceGraph rebuilt = CrossReferenceGraph.of(current.values());
+        assertEquals(rebuilt.size(), incremental.size());
+        assertEquals(rebuilt.getEdgeCount(), incremental.getEdgeCount());
+        assertTrue(rebuilt.getEdgeCount() > 0);
+        for (String key : current.keySet()) {
+            assertEquals(sorted(rebuilt.getMentions(key)), sorted(incremental.getMentions(key)));
+            assertEquals(
+                    sorted(rebuilt.getMentionedBy(key)), sorted(incremental.getMentionedBy(key)));
+        }
+    }
+
+    @Test
+    void testLinksSurviveCompactionAndLaterChanges() {
+        for (int i = 0; i < 500; i++) {
+            graph.put(
+                    "tool " + i,
+                    new GlossaryEntry("tool " + i, "Word" + i + " then merge", "", ""));
+            graph.remove("tool " + i);
+        }
+        GlossaryEntry rerere =
+                new GlossaryEntry("git rerere", "Reuse a merge fix", "", "Branching");
+        graph.put("git rerere", rerere);
+
+        assertEquals(List.of(merge), graph.getMentions("git rerere"));
+        assertEquals(List.of(pull, rerere), graph.getMentionedBy("git merge"));
+        assertEquals(List.of(fetch, merge), graph.getMentions("git pull"));
+        assertEquals(List.of(pull), graph.getRelated("git fetch"));
+        assertEquals(5, graph.size());
+        assertEquals(3, graph.getEdgeCount());
+    }
+
+    private static List<String> sorted(List<GlossaryEntry> entries) {
+        List<String> commands = new ArrayList<>();
+        for (GlossaryEntry entry : entries) {
+            commands.add(entry.getCommand());
+        }
+        commands.sort(null);
+        return commands;
+    }
+}
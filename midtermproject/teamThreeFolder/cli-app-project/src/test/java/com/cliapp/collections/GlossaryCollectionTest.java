@@ -0,0 +1,524 @@
+package com.cliapp.collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cliapp.domain.GlossaryEntry;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class GlossaryCollectionTest {
+
+    private GlossaryCollection collection;
+    private GlossaryEntry commit;
+    private GlossaryEntry push;
+    private GlossaryEntry merge;
+
+    @BeforeEach
+    void setUp() {
+        collection = new GlossaryCollection();
+        commit =
+                new GlossaryEntry(
+                        "git commit",
+                        "Record staged changes in the repository history",
+                        "git commit -m \"message\"",
+                        "Committing Changes");
+        push =
+                new GlossaryEntry(
+                        "git push",
+                        "Upload local commits to a remote repository",
+                        "git push origin main",
+                        "Remote Operations");
+        merge =
+                new GlossaryEntry(
+                        "git merge",
+                        "Join two branches together",
+                        "git merge feature",
+                        "Branching");
+        collection.add(commit);
+        collection.add(push);
+        collection.add(merge);
+    }
+
+    @Test
+    void testSearchRankedOrdersByRelevance() {
+        List<GlossaryEntry> results = collection.searchRanked("remote repository", 10);
+
+        assertEquals(push, results.get(0), "Entry matching both words should rank first");
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    void testSearchRankedMatchesExampleAndCategory() {
+        assertEquals(List.of(merge), collection.searchRanked("feature", 5));
+        assertEquals(List.of(merge), collection.searchRanked("branching", 5));
+    }
+
+    @Test
+    void testSearchRankedRespectsLimit() {
+        assertEquals(1, collection.searchRanked("git", 1).size());
+        assertTrue(collection.searchRanked("git", 0).isEmpty());
+        assertTrue(collection.searchRanked(null, 5).isEmpty());
+    }
+
+    @Test
+    void testRankedIndexFollowsRemoveAndUpdate() {
+        collection.remove(merge);
+        assertTrue(collection.searchRanked("branches", 5).isEmpty());
+
+        GlossaryEntry amended =
+                new GlossaryEntry(
+                        "git commit",
+                        "Amend the last snapshot",
+                        "git commit --amend",
+                        "Committing Changes");
+        assertTrue(collection.update("git commit", amended));
+
+        assertEquals(List.of(amended), collection.searchRanked("amend", 5));
+        assertTrue(collection.searchRanked("staged", 5).isEmpty());
+    }
+
+    @Test
+    void testDuplicateInstanceStaysIndexedUntilLastCopyIsRemoved() {
+        collection.add(merge);
+        collection.remove(merge);
+
+        assertEquals(List.of(merge), collection.searchRanked("branches", 5));
+        collection.remove(merge);
+        assertTrue(collection.searchRanked("branches", 5).isEmpty());
+    }
+
+    @Test
+    void testSearchEntriesMatchesCommandOrDefinitionOnly() {
+        assertEquals(List.of(commit, push), collection.searchEntries("COMMIT"));
+        assertEquals(List.of(push), collection.searchEntries("remote"));
+        assertTrue(collection.searchEntries("feature").isEmpty(), "Examples are not searched");
+        assertTrue(collection.searchEntries(null).isEmpty());
+    }
+
+    @Test
+    void testSearchEntriesKeepsIterationOrderAfterUpdate() {
+        GlossaryEntry amended =
+                new GlossaryEntry("git commit", "Amend a commit", "", "Committing Changes");
+        collection.update("git commit", amended);
+
+        assertEquals(List.of(amended, push), collection.searchEntries("commit"));
+    }
+
+    @Test
+    void testTrigramSearchIsEquivalentToLinearScan() {
+        String[] words = {
+            "git",
+            "stash",
+            "rebase",
+            "-i",
+            "merge",
+            "branch",
+            "commit",
+            "remote",
+            "Push",
+            "HEAD",
+            "reset",
+            "--hard",
+            "tag",
+            "cherry-pick",
+            "log",
+            "diff"
+        };
+        Random random = new Random(7);
+        List<GlossaryEntry> added = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            GlossaryEntry entry =
+                    new GlossaryEntry(
+                            phrase(words, random, 3) + " " + i,
+                            phrase(words, random, 8),
+                            phrase(words, random, 2),
+                            "Category " + (i % 5));
+            collection.add(entry);
+            added.add(entry);
+        }
+        for (int i = 0; i < 300; i++) {
+            GlossaryEntry entry = added.get(random.nextInt(added.size()));
+            if (random.nextBoolean()) {
+                collection.remove(entry);
+            } else {
+                collection.update(
+                        entry.getCommand(),
+                        new GlossaryEntry(
+                                entry.getCommand(),
+                                phrase(words, random, 6),
+                                "",
+                                entry.getCategory()));
+            }
+        }
+
+        String[] keywords = {
+            "stash",
+            "rebase -i",
+            "REBASE",
+            "sh",
+            "e",
+            "",
+            "-",
+            "git merge",
+            "cherry-pick 1",
+            "head re",
+            "push --hard",
+            "no such words",
+            "1999",
+            "ta"
+        };
+        for (String keyword : keywords) {
+            assertEquals(
+                    collection.scanEntries(keyword),
+                    collection.searchEntries(keyword),
+                    "Results differ for '" + keyword + "'");
+        }
+    }
+
+    @Test
+    void testCompleteCommandIgnoresCaseAndFollowsRemoval() {
+        collection.add(new GlossaryEntry("git merge --abort", "Stop a merge", "", "Branching"));
+
+        assertEquals(
+                List.of("git merge", "git merge --abort"), collection.completeCommand("GIT M", 5));
+        assertEquals(List.of("git commit"), collection.completeCommand("git c", 5));
+
+        collection.remove(merge);
+        assertEquals(List.of("git merge --abort"), collection.completeCommand("git m", 5));
+        assertTrue(collection.completeCommand(null, 5).isEmpty());
+    }
+
+    @Test
+    void testSearchFuzzyFindsMistypedCommands() {
+        assertEquals(List.of(commit), collection.searchFuzzy("Git Comit", 1));
+        assertEquals(List.of(merge), collection.searchFuzzy("git mrege", 2));
+        assertTrue(collection.searchFuzzy("git comit", 0).isEmpty());
+        assertTrue(collection.searchFuzzy(null, 2).isEmpty());
+
+        collection.remove(commit);
+        assertTrue(collection.searchFuzzy("git comit", 1).isEmpty());
+    }
+
+    @Test
+    void testCategoryIndexFollowsAddRemoveAndUpdate() {
+        GlossaryEntry rebase =
+                new GlossaryEntry("git rebase", "Replay commits", "git rebase main", "Branching");
+        collection.add(rebase);
+        assertEquals(List.of(merge, rebase), collection.getEntriesByCategory("Branching"));
+        assertEquals(2, collection.getCategorySize("Branching"));
+
+        collection.remove(merge);
+        collection.update(
+                "git push",
+                new GlossaryEntry("git push", "Upload commits", "git push", "Branching"));
+
+        assertEquals(List.of(push.getCommand(), rebase.getCommand()), commands("Branching"));
+        assertEquals(Set.of("Committing Changes", "Branching"), collection.getCategories());
+        assertEquals(0, collection.getCategorySize("Remote Operations"));
+        assertTrue(collection.getEntriesByCategory(null).isEmpty());
+    }
+
+    @Test
+    void testCategoriesViewIsReadOnlyAndLive() {
+        Set<String> categories = collection.getCategories();
+        assertThrows(UnsupportedOperationException.class, () -> categories.add("Other"));
+
+        collection.add(new GlossaryEntry("git tag", "Label a commit", "git tag v1", "Tagging"));
+        assertTrue(categories.contains("Tagging"));
+    }
+
+    @Test
+    void testRemoveAndUpdateKeepIterationOrder() {
+        GlossaryEntry amended =
+                new GlossaryEntry("git commit", "Amend", "git commit --amend", "Committing");
+        collection.update("GIT COMMIT", amended);
+        collection.remove(push);
+
+        assertEquals(List.of(amended, merge), collection.getAllEntries());
+        assertEquals(2, collection.size());
+        assertFalse(collection.remove(push), "Entry is already gone");
+    }
+
+    @Test
+    void testRemoveTakesFirstEqualEntry() {
+        GlossaryEntry secondCommit =
+                new GlossaryEntry("git commit", "Duplicate", "", "Committing Changes");
+        collection.add(secondCommit);
+
+        collection.remove(secondCommit);
+
+        List<GlossaryEntry> remaining = collection.getAllEntries();
+        assertSame(push, remaining.get(0));
+        assertSame(secondCommit, remaining.get(2), "Equal entries match by command only");
+    }
+
+    @Test
+    void testIteratorContract() {
+        Iterator<GlossaryEntry> iterator = collection.iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        assertSame(commit, iterator.next());
+        iterator.remove();
+        assertSame(push, iterator.next());
+        assertSame(merge, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+
+        assertEquals(List.of(push, merge), collection.getAllEntries());
+        assertNull(collection.getByCommand("git commit"));
+        assertTrue(collection.searchEntries("staged").isEmpty());
+    }
+
+    @Test
+    void testIteratorFailsFastOnOutsideChanges() {
+        Iterator<GlossaryEntry> iterator = collection.iterator();
+        iterator.next();
+        collection.add(new GlossaryEntry("git tag", "Label", "git tag v1", "Tagging"));
+
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+    @Test
+    void testCompactionReclaimsSlotsAndKeepsIndexes() {
+        List<GlossaryEntry> added = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            GlossaryEntry entry =
+                    new GlossaryEntry("cmd " + i, "definition " + i, "", "Category " + (i % 3));
+            collection.add(entry);
+            added.add(entry);
+        }
+        for (int i = 0; i < 500; i += 2) {
+            collection.remove(added.get(i));
+        }
+        collection.update("cmd 499", new GlossaryEntry("cmd 499", "changed", "", "Other"));
+
+        assertTrue(collection.getSlotCount() < 503, "Tombstoned slots should be compacted");
+        assertEquals(253, collection.size());
+        assertEquals(List.of(commit, push, merge), collection.getAllEntries().subList(0, 3));
+        assertEquals("cmd 1", collection.getAllEntries().get(3).getCommand());
+        assertEquals(1, collection.searchEntries("changed").size());
+        assertEquals(1, collection.searchRanked("definition 251", 1).size());
+        assertEquals(List.of("Other"), categories(collection.getEntriesByCategory("Other")));
+        assertEquals(83, collection.getCategorySize("Category 0"));
+    }
+
+    @Test
+    void testVersionChangesOnlyOnMutation() {
+        long version = collection.getVersion();
+        collection.searchEntries("git");
+        collection.getByCommand("git push");
+        assertEquals(version, collection.getVersion());
+
+        collection.add(new GlossaryEntry("git tag", "Label", "", "Tagging"));
+        collection.update("git tag", new GlossaryEntry("git tag", "Mark", "", "Tagging"));
+        collection.remove(push);
+        assertFalse(collection.remove(push));
+        Iterator<GlossaryEntry> iterator = collection.iterator();
+        iterator.next();
+        iterator.remove();
+
+        assertEquals(version + 4, collection.getVersion());
+    }
+
+    @Test
+    void testGetPageWalksLiveEntriesByCursor() {
+        GlossaryEntry tag = new GlossaryEntry("git tag", "Label a commit", "", "Tagging");
+        collection.add(tag);
+        collection.remove(push);
+
+        GlossaryCollection.Page first = collection.getPage(0, 2);
+        assertEquals(List.of(commit, merge), first.getEntries());
+        assertTrue(first.hasNext());
+
+        GlossaryCollection.Page second = collection.getPage(first.getNextCursor(), 2);
+        assertEquals(List.of(tag), second.getEntries());
+        assertFalse(second.hasNext());
+        assertEquals(-1, second.getNextCursor());
+        assertThrows(UnsupportedOperationException.class, () -> second.getEntries().add(commit));
+    }
+
+    @Test
+    void testHeldCursorSurvivesCompaction() {
+        GlossaryCollection large = new GlossaryCollection();
+        for (int i = 0; i < 300; i++) {
+            large.add(new GlossaryEntry("cmd " + i, "Definition " + i, "", "Tools"));
+        }
+        GlossaryCollection.Page first = large.getPage(0, 100);
+        for (int i = 0; i < 200; i++) {
+            large.remove(large.getByCommand("cmd " + (i % 2 == 0 ? i / 2 : 299 - i / 2)));
+        }
+        // Removing 200 of 300 entries compacts the slots behind the held cursor
+        GlossaryCollection.Page second = large.getPage(first.getNextCursor(), 100);
+
+        assertEquals(100, large.size());
+        assertEquals(100, second.getEntries().size());
+        assertEquals("cmd 100", second.getEntries().get(0).getCommand());
+        assertEquals("cmd 199", second.getEntries().get(99).getCommand());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void testConcurrentCollectionCursorSurvivesWrites() {
+        ConcurrentGlossaryCollection shared = new ConcurrentGlossaryCollection(collection);
+        GlossaryCollection.Page first = shared.getPage(0, 2);
+        shared.remove(commit);
+
+        assertEquals(List.of(merge), shared.getPage(first.getNextCursor(), 2).getEntries());
+    }
+
+    @Test
+    void testGetPageRejectsNonPositiveLimits() {
+        assertThrows(IllegalArgumentException.class, () -> collection.getPage(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> collection.getPage(0, -1));
+    }
+
+    @Test
+    void testChangeListenersSeeEachChangeOnce() {
+        List<String> changes = new ArrayList<>();
+        GlossaryCollection.ChangeListener listener =
+                (key, entry) ->
+                        changes.add(key + "=" + (entry == null ? null : entry.getExample()));
+        collection.addChangeListener(listener);
+
+        GlossaryEntry tag = new GlossaryEntry("git tag", "Name a commit", "git tag v1", "History");
+        collection.add(tag);
+        collection.update("GIT TAG", new GlossaryEntry("git tag", "Name", "git tag v2", "History"));
+        collection.putAll(List.of(new GlossaryEntry("git log", "History", "git log", "History")));
+        collection.remove(tag);
+        collection.removeChangeListener(listener);
+        collection.add(new GlossaryEntry("git blame", "Annotate", "", "History"));
+
+        assertEquals(
+                List.of(
+                        "git tag=git tag v1",
+                        "git tag=git tag v2",
+                        "git log=git log",
+                        "git tag=null"),
+                changes);
+    }
+
+    @Test
+    void testGetPageOutOfRange() {
+        assertTrue(collection.getPage(-1, 5).getEntries().isEmpty());
+        assertTrue(collection.getPage(100, 5).getEntries().isEmpty());
+        assertEquals(List.of(commit, push, merge), collection.getPage(0, 5).getEntries());
+        assertFalse(collection.getPage(0, 5).hasNext());
+    }
+
+    @Test
+    void testScanModeMatchesPerEntryScan() {
+        Random random = new Random(5);
+        String[] words = {"Branch", "merge", "commit", "Über", "stash", "tag"};
+        List<GlossaryEntry> added = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            GlossaryEntry entry =
+                    new GlossaryEntry(
+                            "cmd " + words[random.nextInt(words.length)] + i,
+                            words[random.nextInt(words.length)] + " " + i,
+                            "",
+                            "Category");
+            collection.add(entry);
+            added.add(entry);
+        }
+        for (int i = 0; i < 300; i += 3) {
+            collection.remove(added.get(i));
+        }
+        String last = added.get(299).getCommand();
+        collection.update(last, new GlossaryEntry(last, "retagged", "", "Other"));
+
+        for (String keyword : new String[] {"ÜBER", "e 1", "h", "", "merge 2", "git", "zzz"}) {
+            List<GlossaryEntry> expected = collection.scanEntries(keyword);
+            assertEquals(expected, collection.searchEntriesByScan(keyword), keyword);
+            assertEquals(expected, collection.searchEntries(keyword), keyword);
+        }
+        assertTrue(collection.searchEntriesByScan(null).isEmpty());
+    }
+
+    @Test
+    void testPutAllReplacesExistingAndAppendsTheRest() {
+        GlossaryEntry newMerge =
+                new GlossaryEntry("GIT MERGE", "Combine histories", "", "Branching");
+        GlossaryEntry stash = new GlossaryEntry("git stash", "Shelve work", "", "Stash");
+        GlossaryEntry stashAgain = new GlossaryEntry("git stash", "Shelve changes", "", "Stash");
+        long version = collection.getVersion();
+
+        assertEquals(1, collection.putAll(List.of(newMerge, stash, stashAgain)));
+        assertEquals(List.of(commit, push, newMerge, stashAgain), collection.getAllEntries());
+        assertEquals(newMerge, collection.getByCommand("git merge"));
+        assertEquals(List.of(stashAgain), collection.searchEntries("shelve"));
+        assertEquals(List.of("git stash"), collection.completeCommand("git st", 5));
+        assertEquals(List.of(stashAgain), collection.searchFuzzy("git stahs", 2));
+        assertTrue(collection.getVersion() > version);
+
+        List<GlossaryEntry> tools = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            tools.add(new GlossaryEntry("tool " + i, "Tool number " + i, "", "Tools"));
+        }
+        assertEquals(300, collection.putAll(tools));
+        for (int i = 0; i < 300; i += 2) {
+            collection.remove(tools.get(i));
+        }
+        collection.add(new GlossaryEntry("tool x", "Added after compaction", "", "Tools"));
+        assertEquals(151, collection.getCategorySize("Tools"));
+        assertEquals(List.of("tool 1", "tool 101"), collection.completeCommand("tool 1", 2));
+        assertEquals(1, collection.searchRanked("compaction", 5).size());
+    }
+
+    @Test
+    void testRelatedEntriesFollowChanges() {
+        assertTrue(collection.getRelated("git push").isEmpty());
+        GlossaryEntry pull =
+                new GlossaryEntry("git pull", "Fetch, then merge", "git pull", "Remote Operations");
+        collection.add(pull);
+        assertEquals(List.of(merge), collection.getRelated("git pull"));
+        assertEquals(List.of(pull), collection.getRelated("GIT MERGE"));
+
+        collection.update(
+                "git push",
+                new GlossaryEntry("git push", "Share commits; see pull", "", "Remote Operations"));
+        assertEquals(
+                List.of(merge, collection.getByCommand("git push")),
+                collection.getRelated("git pull"));
+
+        collection.remove(merge);
+        assertEquals(
+                List.of(collection.getByCommand("git push")), collection.getRelated("git pull"));
+        for (int i = 0; i < 200; i++) {
+            collection.add(new GlossaryEntry("tool " + i, "Like pull", "", "Tools"));
+            collection.remove(collection.getByCommand("tool " + i));
+        }
+        assertEquals(
+                List.of(collection.getByCommand("git push")), collection.getRelated("git pull"));
+        assertTrue(collection.getRelated("git merge").isEmpty());
+    }
+
+    private static List<String> categories(List<GlossaryEntry> entries) {
+        List<String> categories = new ArrayList<>();
+        for (GlossaryEntry entry : entries) {
+            categories.add(entry.getCategory());
+        }
+        return categories;
+    }
+
+    private List<String> commands(String category) {
+        List<String> commands = new ArrayList<>();
+        for (GlossaryEntry entry : collection.getEntriesByCategory(category)) {
+            commands.add(entry.getCommand());
+        }
+        return commands;
+    }
+
+    private static String phrase(String[] words, Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(i == 0 ? "" : " ").append(words[random.nextInt(words.length)]);
+        }
+        return builder.toString();
+    }
+}
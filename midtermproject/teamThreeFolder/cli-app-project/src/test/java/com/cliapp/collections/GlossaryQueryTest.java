@@ -0,0 +1,171 @@
+package com.cliapp.collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cliapp.domain.GlossaryEntry;
+import com.cliapp.exceptions.InvalidInputException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GlossaryQueryTest {
+
+    @TempDir Path tempDir;
+
+    private GlossaryCollection collection;
+    private GlossaryEntry merge;
+    private GlossaryEntry rebase;
+    private GlossaryEntry branch;
+    private GlossaryEntry pull;
+
+    @BeforeEach
+    void setUp() {
+        collection = new GlossaryCollection();
+        merge = new GlossaryEntry("git merge", "Join two branches", "git merge dev", "Branching");
+        rebase = new GlossaryEntry("git rebase", "Replay commits, not a merge", "", "Branching");
+        branch = new GlossaryEntry("git branch", "List or create branches", "", "Branching");
+        pull = new GlossaryEntry("git pull", "Fetch, then merge", "git pull", "Remote Operations");
+        collection.add(merge);
+        collection.add(rebase);
+        collection.add(branch);
+        collection.add(pull);
+    }
+
+    private List<GlossaryEntry> query(String query) throws InvalidInputException {
+        return collection.query(GlossaryQuery.parse(query));
+    }
+
+    @Test
+    void testCategoryTermsAndNegation() throws InvalidInputException {
+        assertEquals(List.of(merge), query("category:\"Branching\" AND merge NOT rebase"));
+        assertEquals(List.of(merge), query("category:branching merge NOT rebase"));
+        assertEquals(List.of(merge, rebase, pull), query("merge"));
+        assertEquals(List.of(branch, pull), query("NOT category:Branching OR create"));
+        assertTrue(query("category:\"No Such Category\"").isEmpty());
+    }
+
+    @Test
+    void testOrParenthesesAndQuotedSubstrings() throws InvalidInputException {
+        assertEquals(List.of(rebase, pull), query("(fetch OR replay) NOT branches"));
+        assertEquals(List.of(merge, branch), query("\"branch\""));
+        assertEquals(List.of(merge), query("\"branch\" AND NOT \"create\" AND dev"));
+        assertEquals(List.of(rebase), query("not"), "Lower case operators are words");
+    }
+
+    @Test
+    void testSyntaxErrorsAreReported() {
+        for (String bad :
+                new String[] {"", "merge AND", "(merge", "\"open", "NOT", "category:", ") merge"}) {
+            assertThrows(InvalidInputException.class, () -> GlossaryQuery.parse(bad), bad);
+        }
+        InvalidInputException error =
+                assertThrows(InvalidInputException.class, () -> GlossaryQuery.parse("a OR OR b"));
+        assertTrue(error.getMessage().contains("a OR OR b"));
+    }
+
+    @Test
+    void testPlannerStartsFromSmallestOperandAndChecksFewCandidates() throws InvalidInputException {
+        for (int i = 0; i < 200; i++) {
+            collection.add(
+                    new GlossaryEntry("cmd " + i, "merge and rebase notes", "", "Category " + i));
+        }
+
+        GlossaryQuery query = GlossaryQuery.parse("merge NOT rebase category:Branching");
+        assertEquals(
+                List.of("category index category:\"Branching\"", "check merge", "check NOT rebase"),
+                query.explain(collection));
+        assertEquals(List.of(merge), collection.query(query));
+
+        assertEquals(
+                List.of("token postings notes", "intersect", "token postings merge"),
+                GlossaryQuery.parse("merge notes").explain(collection).subList(0, 3));
+    }
+
+    @Test
+    void testEveryCollectionMatchesBruteForce() throws IOException, InvalidInputException {
+        String[] words = {"Branch", "merge", "commit", "remote", "stash", "tag", "cherry-pick"};
+        Random random = new Random(9);
+        GlossaryCollection heap = new GlossaryCollection();
+        List<GlossaryEntry> added = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            GlossaryEntry entry =
+                    new GlossaryEntry(
+                            "cmd " + words[random.nextInt(words.length)] + " " + i,
+                            words[random.nextInt(words.length)]
+                                    + " "
+                                    + words[random.nextInt(words.length)],
+                            words[random.nextInt(words.length)],
+                            "Category " + (i % 5));
+            heap.add(entry);
+            added.add(entry);
+        }
+        for (int i = 0; i < 400; i += 7) {
+            heap.remove(added.get(i));
+        }
+
+        Map<String, Predicate<GlossaryEntry>> queries = new LinkedHashMap<>();
+        queries.put(
+                "category:\"Category 1\" AND merge NOT tag",
+                e -> category(e, "Category 1") && token(e, "merge") && !token(e, "tag"));
+        queries.put(
+                "stash OR (commit NOT remote)",
+                e -> token(e, "stash") || (token(e, "commit") && !token(e, "remote")));
+        queries.put("cherry-pick", e -> token(e, "cherry") && token(e, "pick"));
+        queries.put(
+                "\"ch\" NOT category:\"Category 0\"",
+                e ->
+                        (contains(e.getCommand(), "ch") || contains(e.getDefinition(), "ch"))
+                                && !category(e, "Category 0"));
+        queries.put("NOT branch NOT merge", e -> !token(e, "branch") && !token(e, "merge"));
+
+        Path file = tempDir.resolve("glossary.store");
+        MappedGlossaryCollection.write(heap, file);
+        MappedGlossaryCollection mapped = MappedGlossaryCollection.open(file);
+        Files.delete(tempDir.resolve("glossary.store.terms"));
+        Files.delete(tempDir.resolve("glossary.store.trigrams"));
+        MappedGlossaryCollection scanning = MappedGlossaryCollection.open(file);
+        ConcurrentGlossaryCollection concurrent = new ConcurrentGlossaryCollection(heap);
+
+        for (Map.Entry<String, Predicate<GlossaryEntry>> query : queries.entrySet()) {
+            List<GlossaryEntry> expected =
+                    heap.getAllEntries().stream()
+                            .filter(query.getValue())
+                            .collect(Collectors.toList());
+            GlossaryQuery parsed = GlossaryQuery.parse(query.getKey());
+            assertFalse(expected.isEmpty(), query.getKey());
+            assertEquals(expected, heap.query(parsed), query.getKey());
+            assertEquals(expected, mapped.query(parsed), query.getKey());
+            assertEquals(expected, scanning.query(parsed), query.getKey());
+            assertEquals(expected, concurrent.query(parsed), query.getKey());
+        }
+    }
+
+    private static boolean category(GlossaryEntry entry, String category) {
+        return category.equals(entry.getCategory());
+    }
+
+    private static boolean token(GlossaryEntry entry, String token) {
+        return InvertedIndex.tokenize(
+                        String.join(
+                                " ",
+                                entry.getCommand(),
+                                entry.getDefinition(),
+                                entry.getExample(),
+                                entry.getCategory()))
+                .contains(token);
+    }
+
+    private static boolean contains(String text, String keyword) {
+        return text.toLowerCase().contains(keyword);
+    }
+}
@@ -0,0 +1,92 @@
+package com.cliapp.collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IndexSegmentTest {
+
+    @TempDir Path tempDir;
+
+    private IndexSegment write(List<List<String>> documents, long checksum) throws IOException {
+        Path file = tempDir.resolve("test.segment");
+        IndexSegment.write(documents, checksum, file);
+        return IndexSegment.open(file);
+    }
+
+    @Test
+    void testTermDictionaryAndPostings() throws IOException {
+        IndexSegment segment =
+                write(
+                        List.of(
+                                List.of("git", "commit", "commit"),
+                                List.of("git", "push"),
+                                List.of("merge")),
+                        42L);
+
+        assertEquals(42L, segment.getChecksum());
+        assertEquals(3, segment.getDocumentCount());
+        assertEquals(4, segment.getTermCount());
+        assertArrayEquals(new int[] {0, 1}, segment.documentsContaining("git"));
+        assertArrayEquals(new int[] {2}, segment.documentsContaining("merge"));
+        assertArrayEquals(new int[0], segment.documentsContaining("rebase"));
+        assertArrayEquals(new int[0], segment.documentsContaining(null));
+    }
+
+    @Test
+    void testTermsRoundTripExactly() throws IOException {
+        // A trigram can split a surrogate pair; such terms must not collapse into one another
+        String emoji = "😀";
+        IndexSegment segment =
+                write(List.of(List.of("a" + emoji.charAt(0)), List.of("a" + emoji.charAt(1))), 0L);
+
+        assertArrayEquals(new int[] {0}, segment.documentsContaining("a" + emoji.charAt(0)));
+        assertArrayEquals(new int[] {1}, segment.documentsContaining("a" + emoji.charAt(1)));
+    }
+
+    @Test
+    void testSearchMatchesInvertedIndex() throws IOException {
+        String[] words = {"branch", "merge", "commit", "remote", "stash", "tag", "log", "diff"};
+        Random random = new Random(11);
+        InvertedIndex index = new InvertedIndex();
+        List<List<String>> documents = new ArrayList<>();
+        for (int doc = 0; doc < 500; doc++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = random.nextInt(6); i >= 0; i--) {
+                text.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            index.add(doc, text.toString());
+            documents.add(InvertedIndex.tokenize(text.toString()));
+        }
+        IndexSegment segment = write(documents, 0L);
+
+        for (String query : new String[] {"merge", "tag log", "stash diff branch", "none"}) {
+            List<InvertedIndex.Hit> expected = index.search(query, 15);
+            List<InvertedIndex.Hit> actual = segment.search(query, 15);
+            assertEquals(expected.size(), actual.size(), query);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getDocId(), actual.get(i).getDocId(), query);
+                assertEquals(expected.get(i).getScore(), actual.get(i).getScore(), 1e-12, query);
+            }
+        }
+        assertTrue(segment.search("merge", 0).isEmpty());
+    }
+
+    @Test
+    void testEmptySegmentAndForeignFile() throws IOException {
+        IndexSegment empty = write(List.of(), 7L);
+        assertEquals(0, empty.getDocumentCount());
+        assertTrue(empty.search("git", 5).isEmpty());
+
+        Path foreign = tempDir.resolve("foreign.segment");
+        Files.writeString(foreign, "definitely not a segment file at all");
+        assertThrows(IOException.class, () -> IndexSegment.open(foreign));
+    }
+}
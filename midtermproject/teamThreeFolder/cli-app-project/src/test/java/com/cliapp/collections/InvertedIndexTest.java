@@ -0,0 +1,158 @@
+package com.cliapp.collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.add(0, "git commit", "Record changes to the repository");
+        index.add(1, "git push", "Upload local commits to a remote");
+        index.add(2, "git merge", "Join two branches together");
+    }
+
+    @Test
+    void testTokenizeSplitsOnPunctuationAndLowercases() {
+        assertEquals(
+                List.of("git", "commit", "m", "message"),
+                InvertedIndex.tokenize("git Commit -m \"message\""));
+        assertTrue(InvertedIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void testSearchRanksMatchingDocuments() {
+        List<InvertedIndex.Hit> hits = index.search("commit", 10);
+
+        assertEquals(1, hits.size(), "Only exact tokens should match");
+        assertEquals(0, hits.get(0).getDocId());
+        assertTrue(hits.get(0).getScore() > 0);
+    }
+
+    @Test
+    void testDocumentsMatchingMoreTermsRankHigher() {
+        List<InvertedIndex.Hit> hits = index.search("remote commits", 10);
+
+        assertEquals(1, hits.get(0).getDocId());
+        assertEquals(1, hits.size());
+        assertTrue(index.search("branches repository", 10).size() == 2);
+    }
+
+    @Test
+    void testLimitKeepsOnlyTheBestHits() {
+        List<InvertedIndex.Hit> hits = index.search("git", 2);
+
+        assertEquals(2, hits.size());
+        assertTrue(hits.get(0).getScore() >= hits.get(1).getScore());
+        assertTrue(index.search("git", 0).isEmpty());
+    }
+
+    @Test
+    void testRemovedDocumentsNoLongerMatch() {
+        assertTrue(index.remove(0));
+        assertFalse(index.remove(0));
+
+        assertTrue(index.search("commit", 10).isEmpty());
+        assertArrayEquals(new int[] {1, 2}, index.documentsContaining("GIT"));
+        assertEquals(2, index.getDocumentCount());
+        assertFalse(index.contains(0));
+    }
+
+    @Test
+    void testCompactionKeepsLiveDocuments() {
+        for (int id = 3; id < 200; id++) {
+            index.add(id, "filler text " + id);
+        }
+        for (int id = 3; id < 200; id++) {
+            index.remove(id);
+        }
+        index.compact();
+
+        assertEquals(3, index.getDocumentCount());
+        assertArrayEquals(new int[] {0, 1, 2}, index.documentsContaining("git"));
+        assertTrue(index.documentsContaining("filler").length == 0);
+    }
+
+    @Test
+    void testPrunedTopHitsMatchTheFullRanking() {
+        String[] words = {"git", "commit", "branch", "merge", "remote", "stash", "tag", "log"};
+        Random random = new Random(5);
+        InvertedIndex corpus = new InvertedIndex();
+        for (int id = 0; id < 3000; id++) {
+            StringBuilder text = new StringBuilder();
+            int length = 1 + random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                // Skewed so common and rare terms mix in one query
+                text.append(words[Math.min(random.nextInt(12), words.length - 1)]).append(' ');
+            }
+            corpus.add(id, text.toString());
+            if (random.nextInt(5) == 0) {
+                corpus.remove(id - random.nextInt(Math.min(id + 1, 50)));
+            }
+        }
+
+        for (String query :
+                new String[] {"git log", "log tag stash", "commit branch merge git", "tag"}) {
+            List<InvertedIndex.Hit> all = corpus.search(query, Integer.MAX_VALUE);
+            for (int limit : new int[] {1, 3, 10, 100}) {
+                List<InvertedIndex.Hit> top = corpus.search(query, limit);
+                assertEquals(all.subList(0, limit).size(), top.size(), query);
+                for (int i = 0; i < limit; i++) {
+                    assertEquals(all.get(i).getDocId(), top.get(i).getDocId(), query);
+                    assertEquals(all.get(i).getScore(), top.get(i).getScore(), query);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testIdsMustIncrease() {
+        assertThrows(IllegalArgumentException.class, () -> index.add(1, "again"));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> index.addAll(1, List.<String[]>of(new String[] {"again"})));
+    }
+
+    @Test
+    void testAddAllMatchesAddingOneByOne() {
+        String[] words = {"git", "commit", "branch", "merge", "remote", "stash"};
+        Random random = new Random(9);
+        InvertedIndex added = new InvertedIndex();
+        InvertedIndex batched = new InvertedIndex();
+        List<String[]> batch = new ArrayList<>();
+        for (int id = 0; id < 500; id++) {
+            String[] fields = {
+                words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)],
+                random.nextBoolean() ? null : words[random.nextInt(words.length)]
+            };
+            added.add(id, fields);
+            if (id < 100) {
+                batched.add(id, fields);
+            } else {
+                batch.add(fields);
+            }
+        }
+        batched.addAll(100, batch);
+        batched.addAll(600, List.of());
+
+        assertEquals(added.getDocumentCount(), batched.getDocumentCount());
+        assertEquals(added.getTermCount(), batched.getTermCount());
+        for (String query : new String[] {"git", "merge stash", "commit remote branch"}) {
+            List<InvertedIndex.Hit> expected = added.search(query, 20);
+            List<InvertedIndex.Hit> actual = batched.search(query, 20);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getDocId(), actual.get(i).getDocId(), query);
+                assertEquals(expected.get(i).getScore(), actual.get(i).getScore(), query);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> batched.add(499, "late"));
+    }
+}
@@ -0,0 +1,314 @@
+package com.cliapp.collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cliapp.domain.GlossaryEntry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedGlossaryCollectionTest {
+
+    @TempDir Path tempDir;
+
+    private GlossaryCollection heap;
+    private MappedGlossaryCollection mapped;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        heap = new GlossaryCollection();
+        heap.add(new GlossaryEntry("git commit", "Record staged changes", "git commit", "Basics"));
+        heap.add(new GlossaryEntry("git push", "Upload local commits", "git push", "Remote"));
+        heap.add(new GlossaryEntry("git pull", "Fetch and merge commits", null, "Remote"));
+        heap.add(new GlossaryEntry("Git Status", "Show the working tree state", "", "Basics"));
+        heap.add(new GlossaryEntry("git push", "Upload commits (updated)", "", "Remote"));
+        heap.add(new GlossaryEntry("git rebase", "Reapply commits on a new base", "", null));
+        mapped = store(heap);
+    }
+
+    private MappedGlossaryCollection store(Iterable<GlossaryEntry> entries) throws IOException {
+        Path file = tempDir.resolve("glossary.store");
+        MappedGlossaryCollection.write(entries, file);
+        return MappedGlossaryCollection.open(file);
+    }
+
+    @Test
+    void testRoundTripKeepsOrderAndFields() {
+        assertEquals(heap.size(), mapped.size());
+        assertEquals(heap.getAllEntries(), mapped.getAllEntries());
+
+        GlossaryEntry pull = mapped.getAllEntries().get(2);
+        assertEquals("Fetch and merge commits", pull.getDefinition());
+        assertNull(pull.getExample());
+        assertNull(mapped.getAllEntries().get(5).getCategory());
+    }
+
+    @Test
+    void testGetByCommandIgnoresCaseAndPrefersLatest() {
+        assertEquals(
+                "Show the working tree state", mapped.getByCommand("git status").getDefinition());
+        assertEquals("Upload commits (updated)", mapped.getByCommand("GIT PUSH").getDefinition());
+        assertNull(mapped.getByCommand(null));
+    }
+
+    @Test
+    void testBloomFilterAnswersMostMisses() throws IOException {
+        List<GlossaryEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.add(new GlossaryEntry("tool " + i, "definition " + i, "", "Tools"));
+        }
+        MappedGlossaryCollection large = store(entries);
+
+        for (int i = 0; i < 1000; i++) {
+            assertNotNull(large.getByCommand("TOOL " + i));
+            assertNull(large.getByCommand("missing " + i));
+        }
+        assertTrue(large.getBloomRejectionCount() <= 1000, "Hits must never be rejected");
+        assertTrue(
+                large.getBloomRejectionCount() > 950,
+                "About 1% false positives expected, got "
+                        + (1000 - large.getBloomRejectionCount()));
+    }
+
+    @Test
+    void testQueriesMatchHeapCollection() {
+        assertEquals(heap.completeCommand("GIT P", 5), mapped.completeCommand("GIT P", 5));
+        assertEquals(heap.completeCommand("git", 2), mapped.completeCommand("git", 2));
+        assertEquals(heap.searchFuzzy("git pusj", 2), mapped.searchFuzzy("git pusj", 2));
+        assertEquals(heap.searchEntries("COMMIT"), mapped.searchEntries("COMMIT"));
+        assertEquals(heap.getEntriesByCategory("Remote"), mapped.getEntriesByCategory("Remote"));
+        assertEquals(heap.getCategories(), mapped.getCategories());
+        assertEquals(heap.getCategorySize("Remote"), mapped.getCategorySize("Remote"));
+        assertEquals(heap.searchRanked("commits base", 3), mapped.searchRanked("commits base", 3));
+        assertTrue(mapped.searchRanked("nothing", 3).isEmpty());
+    }
+
+    @Test
+    void testRelatedEntriesMatchHeapCollection() throws IOException {
+        heap.add(new GlossaryEntry("git fetch", "Download objects; see push", "", "Remote"));
+        MappedGlossaryCollection store = store(heap);
+
+        List<String> related = new ArrayList<>();
+        for (GlossaryEntry entry : store.getRelated("git fetch")) {
+            related.add(entry.getCommand());
+        }
+        assertEquals(List.of("git push", "git pull"), related);
+        for (GlossaryEntry entry : heap) {
+            assertEquals(heap.getRelated(entry.getCommand()), store.getRelated(entry.getCommand()));
+        }
+    }
+
+    @Test
+    void testRankedSearchMatchesHeapOnRandomEntries() throws IOException {
+        String[] words = {"branch", "merge", "commit", "remote", "stash", "tag", "log", "diff"};
+        Random random = new Random(7);
+        GlossaryCollection randomHeap = new GlossaryCollection();
+        for (int i = 0; i < 300; i++) {
+            randomHeap.add(
+                    new GlossaryEntry(
+                            "cmd " + i,
+                            words[random.nextInt(words.length)]
+                                    + " "
+                                    + words[random.nextInt(words.length)],
+                            words[random.nextInt(words.length)],
+                            "Category " + (i % 4)));
+        }
+        MappedGlossaryCollection randomMapped = store(randomHeap);
+
+        for (String query : new String[] {"merge", "branch tag", "log diff stash"}) {
+            assertEquals(randomHeap.searchRanked(query, 10), randomMapped.searchRanked(query, 10));
+        }
+    }
+
+    @Test
+    void testSegmentsServeSearchesLikeScans() throws IOException {
+        String[] words = {"Branch", "merge", "commit", "remote", "stash", "tag", "log", "diff"};
+        Random random = new Random(3);
+        List<GlossaryEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            entries.add(
+                    new GlossaryEntry(
+                            "cmd " + words[random.nextInt(words.length)] + i,
+                            words[random.nextInt(words.length)]
+                                    + " the "
+                                    + words[random.nextInt(words.length)],
+                            "",
+                            "Category " + (i % 3)));
+        }
+        Path file = tempDir.resolve("segmented.store");
+        MappedGlossaryCollection.write(entries, 99L, file);
+        MappedGlossaryCollection indexed = MappedGlossaryCollection.open(file);
+        assertTrue(indexed.hasSearchSegments());
+        assertEquals(99L, indexed.getChecksum());
+
+        Files.delete(tempDir.resolve("segmented.store.terms"));
+        Files.delete(tempDir.resolve("segmented.store.trigrams"));
+        MappedGlossaryCollection scanning = MappedGlossaryCollection.open(file);
+        assertFalse(scanning.hasSearchSegments());
+
+        for (String keyword : new String[] {"BRANCH", "e the m", "ta", "cmd log1", "zzz"}) {
+            assertEquals(scanning.scanEntries(keyword), indexed.searchEntries(keyword), keyword);
+        }
+        assertEquals(scanning.searchRanked("merge tag", 5), indexed.searchRanked("merge tag", 5));
+    }
+
+    @Test
+    void testStaleSegmentsAreIgnored() throws IOException {
+        Path file = tempDir.resolve("glossary.store");
+        Path terms = tempDir.resolve("glossary.store.terms");
+        Path saved = tempDir.resolve("old.terms");
+        Files.copy(terms, saved);
+        MappedGlossaryCollection.write(heap, 5L, file);
+        Files.copy(saved, terms, StandardCopyOption.REPLACE_EXISTING);
+
+        MappedGlossaryCollection reopened = MappedGlossaryCollection.open(file);
+        assertFalse(reopened.hasSearchSegments(), "Segments of other content must not be used");
+        assertEquals(heap.searchRanked("commits", 3), reopened.searchRanked("commits", 3));
+    }
+
+    @Test
+    void testPagesAndIteratorDecodeLazily() {
+        GlossaryCollection.Page first = mapped.getPage(0, 4);
+        assertEquals(heap.getAllEntries().subList(0, 4), first.getEntries());
+        GlossaryCollection.Page second = mapped.getPage(first.getNextCursor(), 4);
+        assertEquals(2, second.getEntries().size());
+        assertFalse(second.hasNext());
+        assertTrue(mapped.getPage(-1, 4).getEntries().isEmpty());
+
+        Iterator<GlossaryEntry> iterator = mapped.iterator();
+        iterator.next();
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+    }
+
+    @Test
+    void testStoreIsReadOnly() {
+        GlossaryEntry entry = new GlossaryEntry("git tag", "Label", "", "Tagging");
+        assertThrows(UnsupportedOperationException.class, () -> mapped.add(entry));
+        assertThrows(UnsupportedOperationException.class, () -> mapped.remove(entry));
+        assertThrows(UnsupportedOperationException.class, () -> mapped.update("git push", entry));
+    }
+
+    @Test
+    void testEmptyStoreAndRejectsForeignFiles() throws IOException {
+        MappedGlossaryCollection empty = store(new ArrayList<>());
+        assertTrue(empty.isEmpty());
+        assertNull(empty.getByCommand("git commit"));
+        assertTrue(empty.completeCommand("git", 5).isEmpty());
+
+        Path foreign = tempDir.resolve("glossary.json");
+        Files.writeString(foreign, "{\"glossary\": [] , \"padding\": true}");
+        assertThrows(IOException.class, () -> MappedGlossaryCollection.open(foreign));
+    }
+
+    @Test
+    void testTruncatedOrCorruptStoresFailWithIOException() throws IOException {
+        Path file = tempDir.resolve("glossary.store");
+        byte[] bytes = Files.readAllBytes(file);
+        Path damaged = tempDir.resolve("damaged.store");
+
+        for (int length = 0; length < bytes.length; length++) {
+            Files.write(damaged, Arrays.copyOf(bytes, length));
+            assertThrows(IOException.class, () -> MappedGlossaryCollection.open(damaged));
+        }
+        // Counts and table sizes that point past the end of the file
+        for (int at = 16; at < 32; at++) {
+            byte[] corrupt = bytes.clone();
+            corrupt[at] = (byte) 0x7F;
+            Files.write(damaged, corrupt);
+            assertThrows(IOException.class, () -> MappedGlossaryCollection.open(damaged));
+        }
+    }
+
+    @Test
+    void testCorruptIndexValuesFailAtOpenOrAnswerSafely() throws IOException {
+        Path file = tempDir.resolve("glossary.store");
+        byte[] bytes = Files.readAllBytes(file);
+        Path damaged = tempDir.resolve("damaged.store");
+
+        for (int at = 32; at < bytes.length; at++) {
+            for (byte value : new byte[] {(byte) 0x7F, (byte) 0xFF, 1}) {
+                byte[] corrupt = bytes.clone();
+                corrupt[at] = value;
+                Files.write(damaged, corrupt);
+                MappedGlossaryCollection store;
+                try {
+                    store = MappedGlossaryCollection.open(damaged);
+                } catch (IOException e) {
+                    continue;
+                }
+                // Whatever passed validation must answer without a buffer exception
+                for (GlossaryEntry entry : store) {
+                    store.getByCommand(entry.getCommand());
+                    store.getRelated(entry.getCommand());
+                    store.getEntriesByCategory(entry.getCategory());
+                }
+                store.completeCommand("git", 10);
+                store.searchFuzzy("git pusj", 3);
+                store.searchEntries("commit");
+            }
+        }
+    }
+
+    @Test
+    void testFuzzySearchWalksStoredTreeLikeHeap() throws IOException {
+        Random random = new Random(7);
+        List<GlossaryEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            StringBuilder command = new StringBuilder("git ");
+            for (int c = 0; c < 3 + random.nextInt(6); c++) {
+                command.append((char) ('a' + random.nextInt(6)));
+            }
+            entries.add(new GlossaryEntry(command.toString(), "Definition " + i, "", "Tools"));
+        }
+        GlossaryCollection randomHeap = new GlossaryCollection();
+        entries.forEach(randomHeap::add);
+        MappedGlossaryCollection randomMapped = store(entries);
+
+        for (int i = 0; i < 50; i++) {
+            String query = entries.get(random.nextInt(entries.size())).getCommand() + "x";
+            for (int distance = 0; distance <= 2; distance++) {
+                assertEquals(
+                        randomHeap.searchFuzzy(query, distance),
+                        randomMapped.searchFuzzy(query, distance));
+            }
+        }
+        assertTrue(randomMapped.searchFuzzy("svn", 1).isEmpty());
+        assertTrue(store(new ArrayList<>()).searchFuzzy("git", 3).isEmpty());
+    }
+
+    @Test
+    void testCategoriesAndRelatedEntriesAreReadFromTheStore() throws IOException {
+        List<GlossaryEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            entries.add(
+                    new GlossaryEntry(
+                            "git tool" + (i % 150),
+                            "Works with tool" + ((i * 7) % 150) + " and tool" + (i % 11),
+                            "git tool" + ((i * 3) % 150),
+                            i % 5 == 0 ? null : "Category " + (i % 4)));
+        }
+        GlossaryCollection randomHeap = new GlossaryCollection();
+        entries.forEach(randomHeap::add);
+        MappedGlossaryCollection randomMapped = store(entries);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(
+                    randomHeap.getEntriesByCategory("Category " + i),
+                    randomMapped.getEntriesByCategory("Category " + i));
+        }
+        assertTrue(randomMapped.getEntriesByCategory(null).isEmpty());
+        for (int i = 0; i < 150; i++) {
+            assertEquals(
+                    randomHeap.getRelated("git tool" + i), randomMapped.getRelated("git tool" + i));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.cliapp.collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PrefixIndexTest {
+
+    private PrefixIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PrefixIndex();
+        for (String key : List.of("git reset", "git add", "git rebase", "git remote", "gitk")) {
+            index.add(key);
+        }
+    }
+
+    @Test
+    void testCompletesPrefixInSortedOrder() {
+        assertEquals(
+                List.of("git rebase", "git remote", "git reset"), index.complete("git re", 10));
+        assertEquals(List.of("git rebase"), index.complete("git re", 1));
+        assertEquals(List.of("gitk"), index.complete("gitk", 10));
+    }
+
+    @Test
+    void testNoMatchesOrNoLimit() {
+        assertTrue(index.complete("svn", 10).isEmpty());
+        assertTrue(index.complete("git", 0).isEmpty());
+        assertTrue(index.complete(null, 10).isEmpty());
+        assertEquals(5, index.complete("", 10).size());
+    }
+
+    @Test
+    void testAddAndRemoveKeepKeysDistinct() {
+        assertFalse(index.add("git add"));
+        assertTrue(index.remove("git remote"));
+        assertFalse(index.remove("git remote"));
+
+        assertEquals(List.of("git rebase", "git reset"), index.complete("git re", 10));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void testGrowsPastInitialCapacity() {
+        for (int i = 0; i < 100; i++) {
+            index.add(String.format("cmd %03d", i));
+        }
+
+        assertEquals(List.of("cmd 050", "cmd 051"), index.complete("cmd 05", 2));
+        assertEquals(105, index.size());
+    }
+
+    @Test
+    void testAddAllMergesWithExistingKeys() {
+        assertEquals(2, index.addAll(List.of("git stash", "git add", "git stash", "git status")));
+
+        assertEquals(7, index.size());
+        assertEquals(List.of("git stash", "git status"), index.complete("git s", 5));
+        assertEquals(List.of("git add", "git rebase"), index.complete("git", 2));
+        assertTrue(index.add("git tag"));
+        assertFalse(index.add("git stash"));
+    }
+
+    @Test
+    void testPendingAddsAndRemovesFoldInOnNextCompletion() {
+        assertTrue(index.remove("git add"));
+        assertTrue(index.add("git add"));
+        assertTrue(index.add("git apply"));
+        assertTrue(index.remove("git apply"));
+        assertTrue(index.add("git am"));
+        assertTrue(index.remove("git reset"));
+        assertFalse(index.remove("git reset"));
+        assertEquals(5, index.size());
+
+        assertEquals(List.of("git add", "git am"), index.complete("git a", 10));
+        assertEquals(List.of("git rebase", "git remote"), index.complete("git re", 10));
+        assertTrue(index.add("git reset"));
+        assertEquals(6, index.size());
+        assertEquals(
+                List.of("git rebase", "git remote", "git reset"), index.complete("git re", 10));
+    }
+}
@@ -0,0 +1,136 @@
+package com.cliapp.collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TextColumnTest {
+
+    private TextColumn column;
+
+    @BeforeEach
+    void setUp() {
+        column = new TextColumn();
+        column.put(0, "git stash", "Temporarily shelve changes");
+        column.put(1, "git rebase -i", "Rewrite commits interactively");
+        column.put(2, "git rebase", "Replay commits on top of another base");
+    }
+
+    private static BitSet ids(int... ids) {
+        BitSet set = new BitSet();
+        for (int id : ids) {
+            set.set(id);
+        }
+        return set;
+    }
+
+    @Test
+    void testFindsSubstringsIgnoringCase() {
+        assertEquals(ids(0), column.search("STASH"));
+        assertEquals(ids(1), column.search("-i"));
+        assertEquals(ids(1, 2), column.search("commits"));
+        assertEquals(ids(0, 1, 2), column.search("git"));
+        assertEquals(ids(0, 1, 2), column.search(""));
+        assertEquals(ids(), column.search("zzz"));
+    }
+
+    @Test
+    void testMatchesNeverSpanFieldsOrDocuments() {
+        // "stash" + "temporarily" and "-i" + "rewrite" are adjacent in the buffer
+        assertEquals(ids(), column.search("stashtemp"));
+        assertEquals(ids(), column.search("-irewrite"));
+        assertEquals(ids(), column.search("interactivelygit"));
+    }
+
+    @Test
+    void testReplaceAndRemove() {
+        column.put(1, "git tag", null);
+        assertEquals(ids(2), column.search("rebase"));
+        assertEquals(ids(1), column.search("tag"));
+
+        assertTrue(column.remove(0));
+        assertFalse(column.remove(0));
+        assertEquals(ids(), column.search("stash"));
+        assertEquals(2, column.size());
+    }
+
+    @Test
+    void testCompactionKeepsLiveText() {
+        for (int round = 0; round < 50; round++) {
+            for (int id = 0; id < 20; id++) {
+                column.put(id, "command " + id + " round " + round, "definition text " + id);
+            }
+        }
+
+        assertTrue(column.getByteCount() < 4096 + 2 * 20 * 40, "Retired bytes should be dropped");
+        assertEquals(ids(7), column.search("command 7 round 49"));
+        assertEquals(ids(), column.search("round 48"));
+        assertEquals(20, column.search("definition").cardinality());
+    }
+
+    @Test
+    void testMultiByteAndUnpairedSurrogates() {
+        column.put(3, "ÜBERSICHT 😀", "caf\uD800é");
+
+        assertEquals(ids(3), column.search("übersicht"));
+        assertEquals(ids(3), column.search("😀"));
+        assertEquals(ids(3), column.search("é"));
+        assertNull(column.search("\uD800"), "Unencodable keywords are left to the caller");
+    }
+
+    @Test
+    void testWordAtATimeMatchesScalarAndContains() {
+        Random random = new Random(11);
+        String alphabet = "abcab é";
+        TextColumn randomColumn = new TextColumn();
+        String[][] texts = new String[200][2];
+        for (int id = 0; id < texts.length; id++) {
+            for (int field = 0; field < 2; field++) {
+                StringBuilder text = new StringBuilder();
+                for (int i = random.nextInt(30); i > 0; i--) {
+                    text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                texts[id][field] = text.toString();
+            }
+            randomColumn.put(id, texts[id]);
+        }
+
+        for (int q = 0; q < 300; q++) {
+            int start = random.nextInt(texts.length);
+            String source = texts[start][random.nextInt(2)];
+            int from = random.nextInt(source.length() + 1);
+            String keyword =
+                    source.substring(from, from + random.nextInt(source.length() - from + 1))
+                            + (q % 5 == 0 ? "b" : "");
+
+            BitSet expected = new BitSet();
+            for (int id = 0; id < texts.length; id++) {
+                if (texts[id][0].contains(keyword) || texts[id][1].contains(keyword)) {
+                    expected.set(id);
+                }
+            }
+            assertEquals(expected, randomColumn.search(keyword), keyword);
+            assertEquals(expected, randomColumn.search(keyword, false), keyword);
+        }
+    }
+
+    @Test
+    void testIndexOfAtWordBoundaries() {
+        byte[] haystack = "aaaaaaaxaaaaaaaabxyzb".getBytes(StandardCharsets.UTF_8);
+        for (String needle : new String[] {"x", "xa", "ab", "bx", "xyzb", "b", "zb", "q"}) {
+            byte[] pattern = needle.getBytes(StandardCharsets.UTF_8);
+            for (int from = 0; from <= haystack.length; from++) {
+                for (int to = from; to <= haystack.length; to++) {
+                    assertEquals(
+                            TextColumn.indexOfScalar(haystack, from, to, pattern),
+                            TextColumn.indexOf(haystack, from, to, pattern),
+                            needle + " in [" + from + ", " + to + ")");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.cliapp.collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.add(0, "git stash", "Temporarily shelve changes");
+        index.add(1, "git rebase -i", "Rewrite commits interactively");
+        index.add(2, "git rebase", "Replay commits on top of another base");
+    }
+
+    @Test
+    void testFindsSubstringsIgnoringCase() {
+        assertArrayEquals(new int[] {0}, index.search("STASH"));
+        assertArrayEquals(new int[] {1}, index.search("rebase -i"));
+        assertArrayEquals(new int[] {1, 2}, index.search("commits"));
+        assertArrayEquals(new int[] {0, 1, 2}, index.search("git"));
+    }
+
+    @Test
+    void testVerifiesCandidatesSharingAllTrigrams() {
+        // "abab" and "baba" share every trigram of "ababa" but contain neither occurrence
+        index.add(3, "abab baba", null);
+
+        assertEquals(0, index.search("ababa").length);
+    }
+
+    @Test
+    void testShortKeywordsFallBackToScan() {
+        assertArrayEquals(new int[] {1}, index.search("-i"));
+        assertArrayEquals(new int[] {0, 1, 2}, index.search(""));
+        assertEquals(0, index.search(null).length);
+    }
+
+    @Test
+    void testRemoveAndReplace() {
+        assertTrue(index.remove(0));
+        assertFalse(index.remove(0));
+        assertEquals(0, index.search("stash").length);
+
+        index.remove(1);
+        index.add(4, "git cherry-pick", null);
+        assertArrayEquals(new int[] {2}, index.search("rebase"));
+        assertArrayEquals(new int[] {4}, index.search("cherry"));
+        assertEquals(2, index.getDocumentCount());
+        assertThrows(IllegalArgumentException.class, () -> index.add(3, "old id"));
+    }
+
+    @Test
+    void testPurgeDropsPostingsOfRemovedDocuments() {
+        int before = index.getTrigramCount();
+        index.remove(0);
+        index.purge();
+
+        assertTrue(index.getTrigramCount() < before, "Trigrams only in 'stash' should go");
+        assertArrayEquals(new int[] {1, 2}, index.search("git"));
+    }
+
+    @Test
+    void testAddAllMatchesAddingOneByOne() {
+        TrigramIndex batched = new TrigramIndex();
+        batched.addAll(
+                0,
+                List.of(
+                        new String[] {"git stash", "Temporarily shelve changes"},
+                        new String[] {"git rebase -i", "Rewrite commits interactively"},
+                        new String[] {"git rebase", null}));
+
+        assertArrayEquals(new int[] {1, 2}, batched.search("REBASE"));
+        assertArrayEquals(new int[] {1}, batched.search("commits"));
+        assertEquals(index.getDocumentCount(), batched.getDocumentCount());
+        assertThrows(IllegalArgumentException.class, () -> batched.add(2, "again"));
+    }
+}
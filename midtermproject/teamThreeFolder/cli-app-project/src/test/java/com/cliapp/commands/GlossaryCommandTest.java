@@ -1,12 +1,17 @@
 package com.cliapp.commands;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.cliapp.collections.GlossaryCollection;
 import com.cliapp.domain.GlossaryEntry;
+import com.cliapp.models.UserSession;
 import com.cliapp.services.GlossaryService;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
@@ -135,4 +140,79 @@ public class GlossaryCommandTest {
         // Restore output
         System.setOut(originalOut);
     }
+
+    @Test
+    void testExecute_LookupGoesThroughSessionAwareService() {
+        UserSession session = new UserSession();
+        GlossaryEntry stash = new GlossaryEntry("git stash", "Shelve work", "git stash", "Stash");
+        when(glossaryService.getAllEntries()).thenReturn(Collections.emptyList());
+        when(glossaryService.getEntryByCommand("git stash", session)).thenReturn(stash);
+        when(glossaryService.searchEntries("shelve")).thenReturn(List.of(stash));
+
+        GlossaryCommand command = new GlossaryCommand(glossaryService, session);
+        command.execute(new String[] {});
+        command.execute(new String[] {"git", "stash"});
+        command.execute(new String[] {"shelve"});
+
+        String output = outputStream.toString();
+        assertTrue(output.contains("Definition: Shelve work"));
+        assertTrue(output.contains("Commands matching 'shelve':\n1. git stash - Shelve work"));
+        verify(glossaryService).getEntryByCommand("git stash", session);
+        verify(glossaryService).getEntryByCommand("shelve", session);
+        assertEquals(0, session.getGlossaryLookupCount(), "Counting is left to the service");
+        System.setOut(originalOut);
+    }
+
+    @Test
+    void testExecute_PagingModeShowsOnlyRequestedPage() {
+        GlossaryEntry add = new GlossaryEntry("git add", "Stage changes", "", "Basic");
+        GlossaryEntry commit = new GlossaryEntry("git commit", "Save changes", "", "Basic");
+        GlossaryEntry push = new GlossaryEntry("git push", "Upload commits", "", "Remote");
+        when(glossaryService.getEntryCount()).thenReturn(3);
+        when(glossaryService.getPage(0, 2))
+                .thenReturn(new GlossaryCollection.Page(Arrays.asList(add, commit), 5));
+        when(glossaryService.getPage(5, 2))
+                .thenReturn(new GlossaryCollection.Page(Arrays.asList(push), -1));
+
+        glossaryCommand.execute(new String[] {"--page", "2", "--page-size", "2"});
+
+        String output = outputStream.toString();
+        assertTrue(output.contains("page 2 of 2"));
+        assertTrue(output.contains("3. git push - Upload commits"));
+        assertFalse(output.contains("git add"));
+        assertFalse(output.contains("Next page"));
+        verify(glossaryService, never()).getAllEntries();
+        System.setOut(originalOut);
+    }
+
+    @Test
+    void testExecute_LargeGlossaryIsPagedByDefault() {
+        GlossaryEntry add = new GlossaryEntry("git add", "Stage changes", "", "Basic");
+        when(glossaryService.getEntryCount())
+                .thenReturn(GlossaryCommand.PAGED_LISTING_THRESHOLD + 1);
+        when(glossaryService.getPage(0, GlossaryCommand.DEFAULT_PAGE_SIZE))
+                .thenReturn(new GlossaryCollection.Page(List.of(add), 1));
+        when(glossaryService.getAllEntries()).thenReturn(List.of(add));
+
+        glossaryCommand.execute(new String[] {});
+        String paged = outputStream.toString();
+        glossaryCommand.execute(new String[] {"--all"});
+
+        assertTrue(paged.contains("page 1 of 6"));
+        assertTrue(paged.contains("Next page: glossary --page 2"));
+        verify(glossaryService).getAllEntries();
+        System.setOut(originalOut);
+    }
+
+    @Test
+    void testExecute_PagingModeRejectsBadOptions() {
+        glossaryCommand.execute(new String[] {"--page", "two"});
+        glossaryCommand.execute(new String[] {"--page", "1", "--page-size", "0"});
+
+        String output = outputStream.toString();
+        assertTrue(output.contains("Invalid page option"));
+        assertTrue(output.contains("--page-size"));
+        verify(glossaryService, never()).getPage(anyInt(), anyInt());
+        System.setOut(originalOut);
+    }
 }
@@ -0,0 +1,77 @@
+package com.cliapp.commands;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cliapp.collections.GlossaryCollection;
+import com.cliapp.domain.GlossaryEntry;
+import com.cliapp.services.GlossaryService;
+import com.cliapp.services.QuestService;
+import com.cliapp.services.QuestionBank;
+import com.cliapp.services.SearchService;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SearchCommandTest {
+
+    private GlossaryCollection collection;
+    private SearchService searchService;
+    private SearchCommand command;
+    private PrintStream originalOut;
+    private ByteArrayOutputStream output;
+
+    @BeforeEach
+    void setUp() {
+        collection = new GlossaryCollection();
+        collection.add(new GlossaryEntry("git reflog", "Show where refs pointed", "", "History"));
+        QuestionBank questions = QuestionBank.of(List.of());
+        searchService =
+                new SearchService(
+                        new QuestService(), () -> questions, new GlossaryService(collection));
+        command = new SearchCommand(searchService);
+
+        originalOut = System.out;
+        output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+        searchService.close();
+    }
+
+    @Test
+    void testExecute_ListsRankedHitsWithTheirType() {
+        command.execute(new String[] {"refs", "pointed"});
+
+        String result = output.toString();
+        assertTrue(result.contains("Results for 'refs pointed':"));
+        assertTrue(result.contains("1. [Glossary] git reflog"));
+    }
+
+    @Test
+    void testExecute_FollowsGlossaryChanges() {
+        command.execute(new String[] {"reflog"});
+        collection.remove(collection.getByCommand("git reflog"));
+        collection.add(new GlossaryEntry("git bisect", "Find the bad commit", "", "History"));
+        output.reset();
+
+        command.execute(new String[] {"reflog"});
+        assertTrue(output.toString().contains("Nothing matches 'reflog'."));
+        command.execute(new String[] {"bisect"});
+        assertTrue(output.toString().contains("1. [Glossary] git bisect"));
+    }
+
+    @Test
+    void testExecute_WithoutWordsShowsUsage() {
+        command.execute(new String[0]);
+
+        assertTrue(output.toString().contains("Usage: search <words>"));
+        assertFalse(command.validateArgs(new String[0]));
+        assertEquals("search", command.getName());
+    }
+}
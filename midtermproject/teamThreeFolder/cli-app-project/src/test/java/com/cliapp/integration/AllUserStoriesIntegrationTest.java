@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.cliapp.CLIApplication;
 import com.cliapp.domain.*;
 import com.cliapp.services.*;
+import com.cliapp.test.TestConsole;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.List;
@@ -52,6 +53,21 @@ public class AllUserStoriesIntegrationTest {
         System.out.println("✅ User Story 1: App launches and shows menu options");
     }
 
+    @Test
+    void testMenuPassesArgumentsToGlossaryAndSearch() {
+        TestConsole console = new TestConsole();
+        console.addInputs("search merge", "4 git stash", "search", "1 git", "5");
+
+        new CLIApplication(console).start();
+
+        String output = outputStream.toString();
+        assertTrue(output.contains("Results for 'merge':"), "Should rank matching content");
+        assertTrue(output.contains("[Glossary] git merge"), "Should find the glossary entry");
+        assertTrue(output.contains("Usage: search <words>"), "Should explain an empty search");
+        assertTrue(output.contains("Command: git stash"), "Should look up the command");
+        assertTrue(console.getAllOutput().contains("Invalid menu choice"));
+    }
+
     @Test
     void testUserStory3_GlossaryView_ShouldShowGitCommands() {
         // Test: User can view glossary with Git command references
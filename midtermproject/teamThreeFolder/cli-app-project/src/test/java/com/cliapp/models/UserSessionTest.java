@@ -67,5 +67,8 @@ class UserSessionTest {
         session.markQuestCompleted("q1");
         assertEquals(Arrays.asList("q1"), session.getCompletedQuestIds());
         assertEquals(0, session.getGlossaryLookupCount());
+
+        session.recordGlossaryLookup();
+        assertEquals(1, session.getGlossaryLookupCount());
     }
 }
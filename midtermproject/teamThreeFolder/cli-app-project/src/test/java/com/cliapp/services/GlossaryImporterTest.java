@@ -0,0 +1,192 @@
+package com.cliapp.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cliapp.collections.ConcurrentGlossaryCollection;
+import com.cliapp.collections.GlossaryCollection;
+import com.cliapp.domain.GlossaryEntry;
+import com.cliapp.utils.StringPool;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+public class GlossaryImporterTest {
+
+    private static final String CSV =
+            "category,Command,definition,example\r\n"
+                    + "Branching,git merge,\"Join two branches, keeping history\",git merge dev\r\n"
+                    + "\r\n"
+                    + "Stash,git stash,\"Shelve \"\"work\"\" for\nlater\",git stash\r\n"
+                    + "Branching,,No command,\r\n"
+                    + "Branching,GIT MERGE,Join branches,git merge main\r\n"
+                    + "Remote,git fetch\r\n";
+
+    private static final String MARKDOWN =
+            "# Vendor reference\n"
+                    + "\n"
+                    + "| Command | Definition | Example |\n"
+                    + "|---------|:-----------|---------|\n"
+                    + "| `git log` | Show history | `git log --oneline` |\n"
+                    + "| git grep | Search for a \\| in files | git grep foo |\n"
+                    + "\n"
+                    + "More commands:\n"
+                    + "\n"
+                    + "| Command | Definition | Example |\n"
+                    + "|---|---|---|\n"
+                    + "| git log | Show commits | |\n";
+
+    private static GlossaryImporter importer(int chunkChars) {
+        return new GlossaryImporter(new StringPool(), ForkJoinPool.commonPool(), chunkChars);
+    }
+
+    @Test
+    void testCsvQuotingHeaderOrderAndDuplicates() throws IOException {
+        GlossaryCollection collection = new GlossaryCollection();
+        GlossaryImporter.ImportStats stats =
+                importer(GlossaryImporter.DEFAULT_CHUNK_CHARS)
+                        .importText(CSV, GlossaryImporter.Format.CSV, collection);
+
+        assertEquals(5, stats.getRowCount());
+        assertEquals(2, stats.getAddedCount());
+        assertEquals(1, stats.getDuplicateCount());
+        assertEquals(2, stats.getSkippedCount());
+        assertEquals(0, stats.getReplacedCount());
+
+        List<GlossaryEntry> entries = collection.getAllEntries();
+        assertEquals("GIT MERGE", entries.get(0).getCommand(), "Last row wins, first position");
+        assertEquals("Join branches", entries.get(0).getDefinition());
+        assertEquals("Branching", entries.get(0).getCategory());
+        assertEquals("Shelve \"work\" for\nlater", entries.get(1).getDefinition());
+        assertEquals(List.of("GIT MERGE"), collection.completeCommand("git m", 5));
+    }
+
+    @Test
+    void testMarkdownTables() throws IOException {
+        GlossaryCollection collection = new GlossaryCollection();
+        GlossaryImporter.ImportStats stats =
+                importer(GlossaryImporter.DEFAULT_CHUNK_CHARS)
+                        .importText(MARKDOWN, GlossaryImporter.Format.MARKDOWN, collection);
+
+        assertEquals(3, stats.getRowCount());
+        assertEquals(2, stats.getAddedCount());
+        assertEquals("Show commits", collection.getByCommand("git log").getDefinition());
+        assertEquals("", collection.getByCommand("git log").getExample());
+        assertEquals("", collection.getByCommand("git log").getCategory());
+        assertEquals(
+                "Search for a | in files", collection.getByCommand("git grep").getDefinition());
+    }
+
+    @Test
+    void testChunkSizeDoesNotChangeTheResult() throws IOException {
+        StringBuilder csv = new StringBuilder("command,definition,example,category\n");
+        StringBuilder markdown = new StringBuilder("| command | definition |\n| --- | --- |\n");
+        for (int i = 0; i < 2000; i++) {
+            csv.append("tool ")
+                    .append(i % 700)
+                    .append(",\"Line one of ")
+                    .append(i)
+                    .append("\nline two, \"\"quoted\"\"\",tool ")
+                    .append(i)
+                    .append(",Tools\n");
+            markdown.append("| tool ").append(i % 700).append(" | Row ").append(i).append(" |\n");
+        }
+
+        List<String> expectedCsv = null;
+        List<String> expectedMarkdown = null;
+        for (int chunkChars : new int[] {1, 37, 1000, GlossaryImporter.DEFAULT_CHUNK_CHARS}) {
+            GlossaryImporter importer = importer(chunkChars);
+            GlossaryImporter.Chunk parsedCsv =
+                    importer.parse(csv.toString(), GlossaryImporter.Format.CSV);
+            GlossaryImporter.Chunk parsedMarkdown =
+                    importer.parse(markdown.toString(), GlossaryImporter.Format.MARKDOWN);
+            assertEquals(2000, parsedCsv.getRowCount());
+            assertEquals(2000, parsedMarkdown.getRowCount());
+            assertEquals(0, parsedCsv.getSkippedCount());
+            assertEquals(700, parsedCsv.getEntries().size());
+
+            List<String> csvEntries = describe(parsedCsv.getEntries());
+            List<String> markdownEntries = describe(parsedMarkdown.getEntries());
+            if (expectedCsv == null) {
+                expectedCsv = csvEntries;
+                expectedMarkdown = markdownEntries;
+            }
+            assertEquals(expectedCsv, csvEntries, "chunk size " + chunkChars);
+            assertEquals(expectedMarkdown, markdownEntries, "chunk size " + chunkChars);
+        }
+        assertEquals("tool 0|Line one of 1400\nline two, \"quoted\"", expectedCsv.get(0));
+        assertEquals("tool 699|Row 1399", expectedMarkdown.get(699));
+    }
+
+    @Test
+    void testImportReplacesExistingEntriesAndMatchesAdd() throws IOException {
+        GlossaryCollection collection = new GlossaryCollection();
+        collection.add(new GlossaryEntry("git fetch", "Download refs", "", "Remote"));
+        collection.add(new GlossaryEntry("git merge", "Old definition", "", "Branching"));
+        collection.buildCrossReferences();
+
+        GlossaryImporter.ImportStats stats =
+                importer(16).importText(CSV, GlossaryImporter.Format.CSV, collection);
+        assertEquals(1, stats.getAddedCount());
+        assertEquals(1, stats.getReplacedCount());
+        assertEquals(3, collection.size());
+        assertEquals("Join branches", collection.getByCommand("git merge").getDefinition());
+        assertEquals(
+                List.of(collection.getByCommand("git merge")), collection.searchRanked("join", 5));
+
+        GlossaryCollection added = new GlossaryCollection();
+        for (GlossaryEntry entry : collection) {
+            added.add(entry);
+        }
+        assertEquals(added.getAllEntries(), collection.getAllEntries());
+        assertEquals(added.searchEntries("la"), collection.searchEntries("la"));
+        assertEquals(added.searchFuzzy("git stahs", 2), collection.searchFuzzy("git stahs", 2));
+        assertEquals(added.getRelated("git stash"), collection.getRelated("git stash"));
+    }
+
+    @Test
+    void testConcurrentCollectionPublishesTheImportOnce() throws IOException {
+        ConcurrentGlossaryCollection collection = new ConcurrentGlossaryCollection();
+        long version = collection.getVersion();
+
+        importer(8).importText(MARKDOWN, GlossaryImporter.Format.MARKDOWN, collection);
+        assertEquals(version + 1, collection.getVersion());
+        assertEquals(2, collection.size());
+    }
+
+    @Test
+    void testBadInputIsReported() throws IOException {
+        GlossaryImporter importer = importer(GlossaryImporter.DEFAULT_CHUNK_CHARS);
+        GlossaryCollection collection = new GlossaryCollection();
+        assertThrows(
+                IOException.class,
+                () -> importer.importText("", GlossaryImporter.Format.CSV, collection));
+        assertThrows(
+                IOException.class,
+                () -> importer.importText("name,text\n", GlossaryImporter.Format.CSV, collection));
+        assertThrows(
+                IOException.class,
+                () ->
+                        importer.importText(
+                                "| a | b |\n", GlossaryImporter.Format.MARKDOWN, collection));
+        assertThrows(IOException.class, () -> GlossaryImporter.Format.of(Path.of("glossary.txt")));
+
+        GlossaryImporter.ImportStats stats =
+                importer.importText(
+                        "command,definition\ngit init,Start\n\"git add,Stage\n",
+                        GlossaryImporter.Format.CSV,
+                        collection);
+        assertEquals(1, stats.getAddedCount());
+        assertEquals(1, stats.getSkippedCount(), "Unterminated quote");
+    }
+
+    private static List<String> describe(List<GlossaryEntry> entries) {
+        List<String> result = new ArrayList<>();
+        for (GlossaryEntry entry : entries) {
+            result.add(entry.getCommand() + "|" + entry.getDefinition());
+        }
+        return result;
+    }
+}
@@ -4,13 +4,27 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.cliapp.collections.ConcurrentGlossaryCollection;
 import com.cliapp.domain.GlossaryEntry;
+import com.cliapp.exceptions.InvalidInputException;
+import com.cliapp.exceptions.ReadOnlyGlossaryException;
+import com.cliapp.models.UserSession;
+import com.cliapp.utils.SpaceSavingSketch;
+import com.cliapp.utils.StringPool;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class GlossaryServiceTest {
 
@@ -231,4 +245,273 @@ public class GlossaryServiceTest {
         assertNull(glossaryService.getEntryByCommand(null));
         assertNull(glossaryService.getEntryByCommand("does-not-exist"));
     }
+
+    @Test
+    void testLoadedCategoriesShareOneInstance() {
+        List<GlossaryEntry> branching = glossaryService.getEntriesByCategory("Branching");
+        assertTrue(branching.size() > 1, "Glossary should have several branching entries");
+
+        for (GlossaryEntry entry : branching) {
+            assertSame(
+                    branching.get(0).getCategory(),
+                    entry.getCategory(),
+                    "Repeated category names should be deduplicated at load time");
+        }
+        assertSame(StringPool.shared(), glossaryService.getStringPool());
+    }
+
+    @Test
+    void testSearchRankedPutsBestMatchFirst() {
+        List<GlossaryEntry> results = glossaryService.searchRanked("commit", 3);
+
+        assertFalse(results.isEmpty());
+        assertTrue(results.size() <= 3);
+        assertEquals("git commit", results.get(0).getCommand());
+    }
+
+    @Test
+    void testCompleteCommandReturnsFirstMatches() {
+        List<String> completions = glossaryService.completeCommand("git re", 2);
+
+        assertEquals(2, completions.size());
+        for (String command : completions) {
+            assertTrue(command.startsWith("git re"));
+        }
+        assertTrue(glossaryService.completeCommand("svn", 5).isEmpty());
+    }
+
+    @Test
+    void testSearchFuzzyToleratesTypos() {
+        List<GlossaryEntry> results = glossaryService.searchFuzzy("git chekout", 2);
+
+        assertFalse(results.isEmpty());
+        assertEquals("git checkout", results.get(0).getCommand());
+    }
+
+    @Test
+    void testCategorySizeMatchesCategoryFilter() {
+        for (String category : glossaryService.getAllCategories()) {
+            assertEquals(
+                    glossaryService.getEntriesByCategory(category).size(),
+                    glossaryService.getCategorySize(category));
+        }
+    }
+
+    @Test
+    void testSharedServiceIsLoadedOnceAndThreadSafe() {
+        GlossaryService shared = GlossaryService.shared();
+
+        assertSame(shared, GlossaryService.shared());
+        assertTrue(shared.getGlossaryCollection() instanceof ConcurrentGlossaryCollection);
+        assertEquals(glossaryService.getEntryCount(), shared.getEntryCount());
+    }
+
+    @Test
+    void testRepeatedSearchesAreServedFromCache() {
+        List<GlossaryEntry> first = glossaryService.searchEntries("Commit");
+        List<GlossaryEntry> second = glossaryService.searchEntries("COMMIT");
+
+        assertEquals(first, second);
+        assertEquals(1, glossaryService.getSearchCache().getHitCount());
+        assertEquals(1, glossaryService.getSearchCache().getMissCount());
+
+        second.clear();
+        assertEquals(first, glossaryService.searchEntries("commit"), "Cached list is not shared");
+    }
+
+    @Test
+    void testCollectionChangesInvalidateCachedSearches() {
+        int before = glossaryService.searchEntries("commit").size();
+
+        glossaryService.addEntry("git commit --amend", "Rewrite the last commit", "", "Commits");
+
+        assertEquals(before + 1, glossaryService.searchEntries("commit").size());
+        assertEquals(0, glossaryService.getSearchCache().getHitCount());
+    }
+
+    @Test
+    void testLookupsAreCountedAndHotEntriesTracked() {
+        for (int i = 0; i < 5; i++) {
+            glossaryService.getEntryByCommand("GIT COMMIT");
+        }
+        glossaryService.getEntryByCommand("git push");
+        glossaryService.getEntryByCommand("no such command");
+        glossaryService.searchEntries("Branch");
+        glossaryService.searchEntries("branch");
+        glossaryService.searchEntries(null);
+
+        assertEquals(7, glossaryService.getEntryLookupCount());
+        assertEquals(3, glossaryService.getSearchCount());
+        List<SpaceSavingSketch.Estimate<String>> hot = glossaryService.getHotEntries(2);
+        assertEquals("git commit", hot.get(0).getKey());
+        assertEquals(5, hot.get(0).getCount());
+        assertEquals("git push", hot.get(1).getKey());
+        assertEquals("branch", glossaryService.getHotQueries(1).get(0).getKey());
+    }
+
+    @Test
+    void testSessionAwareLookupsCountTowardsTheSession() {
+        UserSession session = new UserSession();
+
+        assertNotNull(glossaryService.getEntryByCommand("git commit", session));
+        assertNull(glossaryService.getEntryByCommand("git nothing", session));
+        assertFalse(glossaryService.searchEntries("commit", session).isEmpty());
+        glossaryService.getEntryByCommand("git commit");
+        glossaryService.searchEntries("commit", null);
+
+        assertEquals(3, session.getGlossaryLookupCount());
+        assertEquals(3, glossaryService.getEntryLookupCount());
+        assertEquals(2, glossaryService.getSearchCount());
+    }
+
+    @Test
+    void testWarmSearchCacheReplaysHotQueries() {
+        glossaryService.searchEntries("merge");
+        glossaryService.addEntry("git merge --abort", "Stop a merge", "", "Branching");
+
+        glossaryService.warmSearchCache(5);
+        long hits = glossaryService.getSearchCache().getHitCount();
+        List<GlossaryEntry> results = glossaryService.searchEntries("merge");
+
+        assertEquals(hits + 1, glossaryService.getSearchCache().getHitCount());
+        assertTrue(results.stream().anyMatch(e -> e.getCommand().equals("git merge --abort")));
+    }
+
+    @Test
+    void testQueryCombinesCategoryAndWords() throws Exception {
+        List<GlossaryEntry> results = glossaryService.query("category:\"Branching\" NOT checkout");
+
+        assertFalse(results.isEmpty());
+        for (GlossaryEntry entry : results) {
+            assertEquals("Branching", entry.getCategory());
+            assertFalse(entry.getCommand().contains("checkout"));
+        }
+        assertThrows(
+                InvalidInputException.class, () -> glossaryService.query("category:Branching AND"));
+    }
+
+    @Test
+    void testSearchSessionNarrowsAndReusesAncestors() {
+        GlossaryService.SearchSession session = glossaryService.newSearchSession();
+        for (String query : new String[] {"r", "re", "REB", "rebase", "reb", "re", "rem", "x"}) {
+            assertEquals(glossaryService.searchEntries(query), session.update(query), query);
+        }
+
+        assertEquals(2, session.getFullSearchCount(), "Only 'r' and 'x' start a new search");
+        assertEquals(4, session.getNarrowedSearchCount());
+        assertEquals(2, session.getReusedSearchCount());
+        assertTrue(session.update(null).isEmpty());
+    }
+
+    @Test
+    void testSearchSessionStartsOverWhenGlossaryChanges() {
+        GlossaryService.SearchSession session = glossaryService.newSearchSession();
+        session.update("stash");
+        glossaryService.addEntry("git stash pop", "Re-apply stashed changes", "", "Stashing");
+
+        List<GlossaryEntry> results = session.update("stash p");
+        assertEquals(glossaryService.searchEntries("stash p"), results);
+        assertTrue(results.stream().anyMatch(e -> e.getCommand().equals("git stash pop")));
+        assertEquals(2, session.getFullSearchCount());
+    }
+
+    @Test
+    void testRelatedEntriesFollowMentions() {
+        List<GlossaryEntry> related = glossaryService.getRelatedEntries("git remote");
+        assertTrue(related.contains(glossaryService.getEntryByCommand("git pull")));
+        assertFalse(related.contains(glossaryService.getEntryByCommand("git remote")));
+
+        glossaryService.addEntry("git gc", "Clean up after a rebase", "git gc", "Maintenance");
+        assertTrue(
+                glossaryService
+                        .getRelatedEntries("git rebase")
+                        .contains(glossaryService.getEntryByCommand("git gc")));
+        assertTrue(glossaryService.getRelatedEntries("git nothing").isEmpty());
+    }
+
+    @Test
+    void testImportFileAddsAndReplacesEntries(@TempDir Path dir) throws Exception {
+        Path csv = dir.resolve("vendor.csv");
+        Files.writeString(
+                csv,
+                "command,definition,example,category\n"
+                        + "git gc,Clean up and optimize the repository,git gc,Maintenance\n"
+                        + "git init,Create an empty repository,git init,Repository Setup\n");
+        int before = glossaryService.getEntryCount();
+
+        GlossaryImporter.ImportStats stats = glossaryService.importFile(csv);
+        assertEquals(1, stats.getAddedCount());
+        assertEquals(1, stats.getReplacedCount());
+        assertEquals(before + 1, glossaryService.getEntryCount());
+        assertEquals(
+                "Create an empty repository",
+                glossaryService.getEntryByCommand("git init").getDefinition());
+        assertEquals(
+                List.of(glossaryService.getEntryByCommand("git gc")),
+                glossaryService.searchEntries("optimize"));
+        assertThrows(
+                IOException.class, () -> glossaryService.importFile(dir.resolve("vendor.txt")));
+    }
+
+    @Test
+    void testOpenIndexedBuildsAndReusesSegments(@TempDir Path dir) throws Exception {
+        Path json = dir.resolve("glossary.json");
+        try (InputStream bundled = getClass().getResourceAsStream("/glossary.json")) {
+            Files.copy(bundled, json);
+        }
+
+        GlossaryService indexed = GlossaryService.openIndexed(json);
+        Path store = dir.resolve("glossary.store");
+        assertTrue(Files.exists(store));
+        assertTrue(Files.exists(dir.resolve("glossary.store.terms")));
+        assertEquals(glossaryService.getEntryCount(), indexed.getEntryCount());
+        assertEquals(glossaryService.searchEntries("branch"), indexed.searchEntries("branch"));
+        assertEquals(
+                glossaryService.searchRanked("remote branch", 5),
+                indexed.searchRanked("remote branch", 5));
+
+        FileTime built = Files.getLastModifiedTime(store);
+        Files.setLastModifiedTime(store, FileTime.fromMillis(built.toMillis() - 60_000));
+        FileTime aged = Files.getLastModifiedTime(store);
+        GlossaryService.openIndexed(json);
+        assertEquals(aged, Files.getLastModifiedTime(store), "Unchanged content is not rebuilt");
+
+        Files.writeString(
+                json,
+                "{\"glossaryEntries\": [{\"command\": \"git gc\", \"definition\": \"Clean up\","
+                        + " \"example\": \"git gc\", \"category\": \"Maintenance\"}]}");
+        GlossaryService rebuilt = GlossaryService.openIndexed(json);
+        assertEquals(1, rebuilt.getEntryCount());
+        assertTrue(rebuilt.isReadOnly());
+        assertFalse(glossaryService.isReadOnly());
+        assertThrows(
+                ReadOnlyGlossaryException.class,
+                () -> rebuilt.addEntry("git gc", "Collect garbage", "", "Maintenance"));
+        assertThrows(
+                ReadOnlyGlossaryException.class,
+                () -> rebuilt.importFile(dir.resolve("vendor.csv")));
+        assertEquals(1, rebuilt.getEntryCount());
+        assertEquals("Clean up", rebuilt.getEntryByCommand("GIT GC").getDefinition());
+        assertEquals(GlossaryService.checksum(json), GlossaryService.openStore(json).getChecksum());
+    }
+
+    @Test
+    void testMalformedExternalFileFallsBackToBundledGlossary(@TempDir Path dir) throws Exception {
+        Path json = dir.resolve("glossary.json");
+        Files.writeString(
+                json,
+                "{\"glossaryEntries\": [{\"command\": \"git gc\", \"definition\": \"Clean up\","
+                        + " \"example\": \"git gc\", \"category\": \"Maintenance\"},"
+                        + " {\"command\": \"git fsck\", \"definition\": \"Verify\","
+                        + " \"category\": \"Maintenance\"}]}");
+
+        IOException e = assertThrows(IOException.class, () -> GlossaryService.openIndexed(json));
+        assertEquals("Glossary entry 1 (git fsck) has no example", e.getMessage());
+        assertFalse(Files.exists(dir.resolve("glossary.store")));
+
+        GlossaryService shared = GlossaryService.createShared(json.toString());
+        assertFalse(shared.isReadOnly());
+        assertEquals(glossaryService.getEntryCount(), shared.getEntryCount());
+        assertNull(shared.getEntryByCommand("git gc"));
+    }
 }
@@ -0,0 +1,142 @@
+package com.cliapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cliapp.domain.Question;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedQuestionBankTest {
+
+    @TempDir Path tempDir;
+
+    private Path copyBundledQuestFile() throws IOException {
+        Path json = tempDir.resolve("Quest.json");
+        try (InputStream in = getClass().getResourceAsStream("/Quest.json")) {
+            Files.copy(in, json);
+        }
+        return json;
+    }
+
+    @Test
+    void testCompiledBankMatchesJson() throws IOException {
+        Path json = copyBundledQuestFile();
+        Path bin = tempDir.resolve("out/Quest.bin");
+
+        assertTrue(QuestionBankCompiler.compile(json, bin).isEmpty(), "Quest.json should be valid");
+
+        QuestionBank expected;
+        try (InputStream in = Files.newInputStream(json)) {
+            expected = QuestionBank.load(in);
+        }
+        MappedQuestionBank mapped = MappedQuestionBank.open(bin);
+
+        assertEquals(expected.size(), mapped.size());
+        assertEquals(expected.getLevels(), mapped.getLevels());
+        assertEquals(expected.size(), mapped.getLoadStats().getQuestionCount());
+        assertEquals(0, mapped.getLoadStats().getSkippedCount());
+        assertTrue(mapped.getLoadStats().getElapsedNanos() > 0);
+        for (String level : expected.getLevels()) {
+            assertEquals(expected.countForLevel(level), mapped.countForLevel(level));
+            for (int i = 0; i < expected.countForLevel(level); i++) {
+                assertSameQuestion(expected.getQuestion(level, i), mapped.getQuestion(level, i));
+            }
+        }
+    }
+
+    private void assertSameQuestion(Question expected, Question actual) {
+        assertEquals(expected.getLevel(), actual.getLevel());
+        assertEquals(expected.getScenario(), actual.getScenario());
+        assertEquals(expected.getCorrect(), actual.getCorrect());
+        assertEquals(expected.getOptions().size(), actual.getOptions().size());
+        for (int i = 0; i < expected.getOptions().size(); i++) {
+            assertEquals(expected.getOptions().get(i).getId(), actual.getOptions().get(i).getId());
+            assertEquals(
+                    expected.getOptions().get(i).getCommand(),
+                    actual.getOptions().get(i).getCommand());
+        }
+        assertEquals(expected.getFeedback().getCorrect(), actual.getFeedback().getCorrect());
+
+        Question.IncorrectFeedback expectedIncorrect = expected.getFeedback().getIncorrect();
+        Question.IncorrectFeedback actualIncorrect = actual.getFeedback().getIncorrect();
+        assertEquals(expectedIncorrect.getCommand(), actualIncorrect.getCommand());
+        assertEquals(expectedIncorrect.getDefinition(), actualIncorrect.getDefinition());
+        assertEquals(expectedIncorrect.getAnalogy(), actualIncorrect.getAnalogy());
+        assertEquals(expectedIncorrect.getExample(), actualIncorrect.getExample());
+        assertEquals(expectedIncorrect.isRetry(), actualIncorrect.isRetry());
+    }
+
+    @Test
+    void testQuestionsAreDecodedOnceAndCached() throws IOException {
+        Path bin = tempDir.resolve("Quest.bin");
+        QuestionBankCompiler.compile(copyBundledQuestFile(), bin);
+        MappedQuestionBank mapped = MappedQuestionBank.open(bin);
+
+        Question first = mapped.getQuestion("beginner", 0);
+
+        assertSame(first, mapped.getQuestion("Beginner", 0));
+        assertSame(first, mapped.getQuestions().get(0));
+        assertNull(mapped.getQuestion("beginner", 99));
+        assertNull(mapped.getQuestion("expert", 0));
+        assertEquals(0, mapped.countForLevel("expert"));
+    }
+
+    @Test
+    void testNullableFieldsRoundTrip() throws IOException {
+        Question bare = new Question("Beginner", "No feedback", List.of(), "a", null);
+        Path bin = tempDir.resolve("bare.bin");
+        try (var out = Files.newOutputStream(bin)) {
+            QuestionBankFormat.write(List.of(bare), out);
+        }
+
+        Question decoded = MappedQuestionBank.open(bin).getQuestion("beginner", 0);
+
+        assertEquals("No feedback", decoded.getScenario());
+        assertTrue(decoded.getOptions().isEmpty());
+        assertNull(decoded.getFeedback());
+    }
+
+    @Test
+    void testCompilerReportsInvalidQuestions() throws IOException {
+        Path json = tempDir.resolve("bad.json");
+        Files.writeString(
+                json,
+                "{\"questions\":["
+                        + "{\"level\":\"Beginner\",\"scenario\":\"s\",\"correct\":\"z\","
+                        + "\"options\":[{\"id\":\"a\",\"command\":\"git add\"},"
+                        + "{\"id\":\"a\",\"command\":\"git rm\"}]},"
+                        + "{\"level\":\"Beginner\"}]}");
+        Path bin = tempDir.resolve("bad.bin");
+
+        List<String> problems = QuestionBankCompiler.compile(json, bin);
+
+        assertFalse(Files.exists(bin), "Nothing should be written for an invalid source");
+        assertTrue(problems.get(0).contains("could not be parsed"));
+        assertTrue(problems.stream().anyMatch(p -> p.contains("duplicate option id 'a'")));
+        assertTrue(problems.stream().anyMatch(p -> p.contains("'z' is not an option")));
+        assertTrue(problems.stream().anyMatch(p -> p.contains("missing feedback")));
+    }
+
+    @Test
+    void testRejectsFilesThatAreNotCompiledBanks() throws IOException {
+        Path bogus = tempDir.resolve("bogus.bin");
+        Files.write(bogus, new byte[64]);
+
+        assertThrows(IOException.class, () -> MappedQuestionBank.open(bogus));
+    }
+
+    @Test
+    void testMissingResourceIsNotMapped() throws IOException {
+        assertNull(MappedQuestionBank.openResource("/does-not-exist.bin"));
+    }
+}
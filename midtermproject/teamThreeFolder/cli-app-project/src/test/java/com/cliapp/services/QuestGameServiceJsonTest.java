@@ -2,10 +2,7 @@ package com.cliapp.services;
 
 import com.cliapp.domain.Question;
 import com.cliapp.io.Console;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
-import java.lang.reflect.Method;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -21,12 +18,14 @@ class QuestGameServiceJsonTest {
                 "\"correct\":\"a\"," +
                 "\"feedback\": {\"correct\": \"Correct!\"} " +
                 "}";
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode node = mapper.readTree(json);
-        QuestGameService service = new QuestGameService(mock(Console.class));
-        Method method = QuestGameService.class.getDeclaredMethod("parseQuestion", JsonNode.class);
-        method.setAccessible(true);
-        Question question = (Question) method.invoke(service, node);
+        List<Question> parsed = new java.util.ArrayList<>();
+        new QuestionLoader()
+                .load(
+                        new java.io.ByteArrayInputStream(
+                                ("{\"questions\":[" + json + "]}").getBytes()),
+                        parsed::add);
+        assertEquals(1, parsed.size());
+        Question question = parsed.get(0);
         assertNotNull(question);
         assertEquals("beginner", question.getLevel());
         assertEquals("Scenario", question.getScenario());
@@ -40,9 +39,7 @@ class QuestGameServiceJsonTest {
     void testLoadQuestionsFromJson() throws Exception {
         Console console = mock(Console.class);
         QuestGameService service = new QuestGameService(console);
-        java.lang.reflect.Field questionsField = QuestGameService.class.getDeclaredField("questions");
-        questionsField.setAccessible(true);
-        List<Question> questions = (List<Question>) questionsField.get(service);
+        List<Question> questions = service.getQuestionBank().getQuestions();
         assertNotNull(questions);
         // If Quest.json is present, should have questions
         // If not, should be empty
@@ -0,0 +1,87 @@
+package com.cliapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.cliapp.domain.Question;
+import com.cliapp.io.Console;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QuestGameServiceLevelIndexTest {
+
+    private Console console;
+    private List<String> printed;
+
+    @BeforeEach
+    void setUp() {
+        console = mock(Console.class);
+        printed = new ArrayList<>();
+        doAnswer(
+                        invocation -> {
+                            printed.add(invocation.getArgument(0));
+                            return null;
+                        })
+                .when(console)
+                .println(anyString());
+        when(console.readLine()).thenReturn("a");
+    }
+
+    private QuestGameService serviceWith(Question... questions) {
+        return new QuestGameService(console, QuestionBank.of(List.of(questions)));
+    }
+
+    private Question question(String level, String scenario) {
+        return new Question(
+                level,
+                scenario,
+                List.of(new Question.Option("a", "git init")),
+                "a",
+                new Question.Feedback("Correct!", null));
+    }
+
+    @Test
+    void testSelectsOnlyQuestionsFromRequestedLevel() {
+        QuestGameService service =
+                serviceWith(
+                        question("Beginner", "beginner scenario"),
+                        question("Advanced", "advanced scenario"));
+
+        for (int i = 0; i < 20; i++) {
+            printed.clear();
+            service.playQuest("advanced");
+            assertEquals("🎯 advanced scenario", printed.get(2));
+        }
+    }
+
+    @Test
+    void testLevelLookupIsCaseInsensitive() {
+        QuestGameService service = serviceWith(question("INTERMEDIATE", "mixed case"));
+
+        service.playQuest("Intermediate");
+
+        assertEquals("🎯 mixed case", printed.get(2));
+    }
+
+    @Test
+    void testUnknownLevelReportsMissingQuestion() {
+        QuestGameService service = serviceWith(question("Beginner", "only beginner"));
+
+        service.playQuest("expert");
+
+        assertEquals(List.of("No question found for level: expert"), printed);
+    }
+
+    @Test
+    void testQuestionCountComesFromBank() {
+        QuestGameService service =
+                serviceWith(question("Beginner", "one"), question("Beginner", "two"));
+
+        assertEquals(2, service.getQuestionCount());
+    }
+}
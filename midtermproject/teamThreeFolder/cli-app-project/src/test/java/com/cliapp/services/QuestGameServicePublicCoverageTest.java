@@ -5,24 +5,11 @@ import static org.mockito.Mockito.*;
 
 import com.cliapp.domain.Question;
 import com.cliapp.io.Console;
-import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 
 class QuestGameServicePublicCoverageTest {
-    private void injectQuestion(QuestGameService service, Question question) {
-        try {
-            Field questionsField = QuestGameService.class.getDeclaredField("questions");
-            questionsField.setAccessible(true);
-            List<Question> questions = (List<Question>) questionsField.get(service);
-            questions.clear();
-            questions.add(question);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     @Test
     void testPlayQuestWithCorrectAnswer() {
         Console console = mock(Console.class);
@@ -31,8 +18,8 @@ class QuestGameServicePublicCoverageTest {
         Question.Feedback feedback = new Question.Feedback("Correct!", null);
         Question question =
                 new Question("beginner", "Scenario", Arrays.asList(option), "a", feedback);
-        QuestGameService service = new QuestGameService(console);
-        injectQuestion(service, question);
+        QuestGameService service =
+                new QuestGameService(console, QuestionBank.of(List.of(question)));
         // Only call public method
         service.playQuest("beginner");
         // Optionally verify console output
@@ -46,8 +33,8 @@ class QuestGameServicePublicCoverageTest {
         Question.Feedback feedback = new Question.Feedback("Correct!", null);
         Question question =
                 new Question("beginner", "Scenario", Arrays.asList(option), "a", feedback);
-        QuestGameService service = new QuestGameService(console);
-        injectQuestion(service, question);
+        QuestGameService service =
+                new QuestGameService(console, QuestionBank.of(List.of(question)));
         // Only call public method
         service.playQuest("beginner");
     }
@@ -0,0 +1,93 @@
+package com.cliapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.cliapp.domain.Question;
+import com.cliapp.io.Console;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class QuestionBankTest {
+
+    private Question question(String level, String scenario) {
+        return new Question(level, scenario, List.of(), "a", null);
+    }
+
+    @Test
+    void testDefaultBankIsLoadedOnceAndShared() {
+        QuestionBank first = QuestionBank.getDefault();
+
+        assertSame(first, QuestionBank.getDefault(), "Default bank should be a singleton");
+        assertFalse(first.isEmpty(), "Default bank should contain Quest.json questions");
+        assertNull(first.getLoadError());
+    }
+
+    @Test
+    void testServicesShareTheDefaultBank() {
+        QuestGameService first = new QuestGameService(mock(Console.class));
+        QuestGameService second = new QuestGameService(mock(Console.class));
+
+        assertSame(first.getQuestionBank(), second.getQuestionBank());
+    }
+
+    @Test
+    void testLevelIndex() {
+        QuestionBank bank =
+                QuestionBank.of(
+                        List.of(
+                                question("Beginner", "b1"),
+                                question("Advanced", "a1"),
+                                question("beginner", "b2")));
+
+        assertEquals(3, bank.size());
+        assertEquals(2, bank.countForLevel("BEGINNER"));
+        assertEquals(1, bank.countForLevel("advanced"));
+        assertEquals(0, bank.countForLevel("intermediate"));
+        assertEquals("b2", bank.getQuestion("Beginner", 1).getScenario());
+        assertNull(bank.getQuestion("Beginner", 2));
+        assertNull(bank.getQuestion("unknown", 0));
+        assertEquals(2, bank.getLevels().size());
+    }
+
+    @Test
+    void testBankIsImmutable() {
+        List<Question> source = new ArrayList<>(List.of(question("Beginner", "b1")));
+        QuestionBank bank = QuestionBank.of(source);
+
+        source.add(question("Beginner", "b2"));
+
+        assertEquals(1, bank.size(), "Bank should not see later changes to its source");
+        assertThrows(
+                UnsupportedOperationException.class,
+                () -> bank.getQuestions().add(question("Beginner", "b3")));
+    }
+
+    @Test
+    void testLoadFromStream() throws Exception {
+        String json =
+                "{\"questions\":[{\"level\":\"Intermediate\",\"scenario\":\"s\",\"correct\":\"a\"}]}";
+
+        QuestionBank bank =
+                QuestionBank.load(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(1, bank.countForLevel("intermediate"));
+        assertEquals(1, bank.getLoadStats().getQuestionCount());
+    }
+
+    @Test
+    void testEmptyBank() {
+        QuestionBank bank = QuestionBank.of(List.of());
+
+        assertTrue(bank.isEmpty());
+        assertNull(bank.getLoadStats());
+    }
+}
@@ -0,0 +1,159 @@
+package com.cliapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.cliapp.domain.Question;
+import com.cliapp.io.Console;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class QuestionDeckTest {
+
+    private QuestionDeck deck;
+
+    @BeforeEach
+    void setUp() {
+        deck = new QuestionDeck(new SplittableRandom(42));
+    }
+
+    private QuestionBank bank(String level, int count) {
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            questions.add(
+                    new Question(
+                            level,
+                            "scenario " + i,
+                            List.of(new Question.Option("a", "git init")),
+                            "a",
+                            new Question.Feedback("Correct!", null)));
+        }
+        return QuestionBank.of(questions);
+    }
+
+    @Test
+    void testDealsEveryQuestionOnceBeforeRepeating() {
+        QuestionBank bank = bank("Beginner", 50);
+
+        for (int round = 0; round < 3; round++) {
+            Set<Integer> dealt = new HashSet<>();
+            for (int i = 0; i < 50; i++) {
+                assertTrue(dealt.add(deck.nextIndex(bank, "beginner")), "No repeats in a round");
+            }
+            assertEquals(50, deck.getSeenCount("Beginner"));
+        }
+    }
+
+    @Test
+    void testEveryLevelSizeDealsAPermutation() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int count = 1; count <= 300; count++) {
+            QuestionDeck.LevelDeck levelDeck = new QuestionDeck.LevelDeck(count);
+            for (int round = 0; round < 2; round++) {
+                BitSet dealt = new BitSet();
+                for (int i = 0; i < count; i++) {
+                    int index = levelDeck.deal(random);
+                    assertTrue(index >= 0 && index < count);
+                    assertFalse(dealt.get(index), "No repeats in a round of " + count);
+                    dealt.set(index);
+                }
+            }
+        }
+
+        QuestionDeck.LevelDeck levelDeck = new QuestionDeck.LevelDeck(50);
+        List<Integer> rounds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rounds.add(levelDeck.deal(random));
+        }
+        assertNotEquals(rounds.subList(0, 50), rounds.subList(50, 100), "Each round reshuffles");
+    }
+
+    @Test
+    void testReshufflesWhenLevelIsExhausted() {
+        QuestionBank bank = bank("Beginner", 3);
+        for (int i = 0; i < 3; i++) {
+            deck.nextIndex(bank, "Beginner");
+        }
+
+        int next = deck.nextIndex(bank, "Beginner");
+
+        assertEquals(1, deck.getSeenCount("Beginner"));
+        assertTrue(deck.hasSeen("Beginner", next));
+    }
+
+    @Test
+    void testTracksSeenQuestionsPerLevel() {
+        QuestionBank bank = bank("Advanced", 4);
+
+        int index = deck.nextIndex(bank, "ADVANCED");
+
+        assertTrue(deck.hasSeen("advanced", index));
+        assertFalse(deck.hasSeen("beginner", index));
+        assertFalse(deck.hasSeen("advanced", -1));
+        assertEquals(0, deck.getSeenCount("beginner"));
+    }
+
+    @Test
+    void testEmptyLevelHasNothingToDeal() {
+        assertEquals(-1, deck.nextIndex(bank("Beginner", 2), "Advanced"));
+    }
+
+    @Test
+    void testNewBankSnapshotStartsAfresh() {
+        QuestionBank first = bank("Beginner", 5);
+        deck.nextIndex(first, "Beginner");
+        deck.nextIndex(first, "Beginner");
+
+        deck.nextIndex(bank("Beginner", 5), "Beginner");
+
+        assertEquals(1, deck.getSeenCount("Beginner"));
+    }
+
+    @Test
+    void testQuestSessionDoesNotRepeatQuestions() {
+        Console console = mock(Console.class);
+        when(console.readLine()).thenReturn("a");
+        List<String> scenarios = new ArrayList<>();
+        QuestionBank bank = bank("Beginner", 10);
+        QuestGameService service = new QuestGameService(console, bank);
+
+        for (int i = 0; i < 10; i++) {
+            service.playQuest("Beginner");
+        }
+
+        for (int i = 0; i < 10; i++) {
+            if (service.getQuestionDeck().hasSeen("Beginner", i)) {
+                scenarios.add(bank.getQuestion("Beginner", i).getScenario());
+            }
+        }
+        assertEquals(10, scenarios.size(), "Ten plays should cover all ten questions");
+    }
+
+    @Test
+    void testServicesSharingADeckDoNotRepeatQuestions() {
+        Console console = mock(Console.class);
+        when(console.readLine()).thenReturn("a");
+        QuestionBank bank = bank("Beginner", 10);
+        QuestionDeck sessionDeck = new QuestionDeck();
+
+        for (int visit = 0; visit < 5; visit++) {
+            QuestGameService service = new QuestGameService(console, () -> bank, sessionDeck);
+            service.playQuest("Beginner");
+            service.playQuest("Beginner");
+            assertSame(sessionDeck, service.getQuestionDeck());
+        }
+
+        assertEquals(10, sessionDeck.getSeenCount("Beginner"), "Each visit deals unseen questions");
+    }
+}
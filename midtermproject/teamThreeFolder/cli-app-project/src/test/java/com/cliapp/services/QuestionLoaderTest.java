@@ -0,0 +1,156 @@
+package com.cliapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cliapp.domain.Question;
+import com.cliapp.utils.StringPool;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class QuestionLoaderTest {
+
+    private QuestionLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        loader = new QuestionLoader();
+    }
+
+    private InputStream json(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLoadsBundledQuestFile() throws IOException {
+        List<Question> questions = new ArrayList<>();
+        QuestionLoader.LoadStats stats =
+                loader.load(getClass().getResourceAsStream("/Quest.json"), questions::add);
+
+        assertEquals(questions.size(), stats.getQuestionCount());
+        assertTrue(stats.getQuestionCount() > 0, "Should load questions from Quest.json");
+        assertEquals(0, stats.getSkippedCount(), "Bundled questions should all be valid");
+        assertTrue(stats.getElapsedNanos() > 0, "Should record load time");
+    }
+
+    @Test
+    void testParsesFullQuestion() throws IOException {
+        String content =
+                "{\"questions\":[{"
+                        + "\"level\":\"Beginner\",\"scenario\":\"Save work\","
+                        + "\"options\":[{\"id\":\"a\",\"command\":\"git commit\"},"
+                        + "{\"id\":\"b\",\"command\":\"git push\"}],"
+                        + "\"correct\":\"a\","
+                        + "\"feedback\":{\"correct\":\"Nice!\",\"incorrect\":{"
+                        + "\"command\":\"git commit\",\"definition\":\"Saves changes\","
+                        + "\"analogy\":\"Like sealing a folder\",\"retry\":true}}}]}";
+
+        List<Question> questions = new ArrayList<>();
+        loader.load(json(content), questions::add);
+
+        assertEquals(1, questions.size());
+        Question question = questions.get(0);
+        assertEquals("Beginner", question.getLevel());
+        assertEquals(2, question.getOptions().size());
+        assertEquals("git push", question.getOptions().get(1).getCommand());
+        assertEquals("Nice!", question.getFeedback().getCorrect());
+
+        Question.IncorrectFeedback incorrect = question.getFeedback().getIncorrect();
+        assertEquals("git commit", incorrect.getCommand());
+        assertTrue(incorrect.isRetry());
+        assertEquals(
+                "Like sealing a folder",
+                incorrect.getExample(),
+                "Example should fall back to the analogy");
+    }
+
+    @Test
+    void testSkipsInvalidQuestionsAndUnknownFields() throws IOException {
+        String content =
+                "{\"version\":{\"major\":1},\"questions\":["
+                        + "{\"level\":\"Beginner\",\"scenario\":\"No answer\"},"
+                        + "\"not an object\","
+                        + "{\"level\":\"Advanced\",\"scenario\":\"Ok\",\"correct\":\"c\","
+                        + "\"extra\":[1,2,3]}]}";
+
+        List<Question> questions = new ArrayList<>();
+        QuestionLoader.LoadStats stats = loader.load(json(content), questions::add);
+
+        assertEquals(1, stats.getQuestionCount());
+        assertEquals(2, stats.getSkippedCount());
+        Question question = questions.get(0);
+        assertEquals("Advanced", question.getLevel());
+        assertNotNull(question.getOptions(), "Missing options should default to empty");
+        assertTrue(question.getOptions().isEmpty());
+    }
+
+    @Test
+    void testSkipsQuestionWhoseFieldsDoNotBind() throws IOException {
+        String valid =
+                "{\"level\":\"Beginner\",\"scenario\":\"%s\",\"correct\":\"a\","
+                        + "\"options\":[{\"id\":\"a\",\"command\":\"git add\"}]}";
+        String content =
+                "{\"questions\":["
+                        + String.format(valid, "First")
+                        + ",{\"level\":\"Beginner\",\"correct\":\"a\",\"options\":\"not a list\","
+                        + "\"feedback\":{\"incorrect\":{\"retry\":[1,{\"x\":[2]}]}},"
+                        + "\"scenario\":\"Broken\"},"
+                        + "{\"level\":{\"nested\":[1,2]},\"scenario\":\"Also\",\"correct\":\"a\"},"
+                        + String.format(valid, "Last")
+                        + "],\"after\":true}";
+
+        List<Question> questions = new ArrayList<>();
+        QuestionLoader.LoadStats stats = loader.load(json(content), questions::add);
+
+        assertEquals(2, stats.getQuestionCount());
+        assertEquals(2, stats.getSkippedCount());
+        assertEquals("First", questions.get(0).getScenario());
+        assertEquals("Last", questions.get(1).getScenario());
+    }
+
+    @Test
+    void testRepeatedStringsShareOneInstance() throws IOException {
+        String question =
+                "{\"level\":\"Beginner\",\"scenario\":\"%s\",\"correct\":\"a\","
+                        + "\"options\":[{\"id\":\"a\",\"command\":\"git add\"}],"
+                        + "\"feedback\":{\"correct\":\"Great, you Git it!\"}}";
+        String content =
+                "{\"questions\":["
+                        + String.format(question, "first")
+                        + ","
+                        + String.format(question, "second")
+                        + "]}";
+        StringPool pool = new StringPool();
+
+        List<Question> questions = new ArrayList<>();
+        new QuestionLoader(pool).load(json(content), questions::add);
+
+        Question first = questions.get(0);
+        Question second = questions.get(1);
+        assertSame(first.getLevel(), second.getLevel());
+        assertSame(first.getFeedback().getCorrect(), second.getFeedback().getCorrect());
+        assertSame(first.getOptions().get(0).getCommand(), second.getOptions().get(0).getCommand());
+        assertTrue(pool.getBytesSaved() > 0, "Duplicates should be reported as savings");
+    }
+
+    @Test
+    void testRejectsNonObjectDocument() {
+        assertThrows(IOException.class, () -> loader.load(json("[]"), question -> {}));
+    }
+
+    @Test
+    void testLoadStatsSummary() {
+        QuestionLoader.LoadStats stats = new QuestionLoader.LoadStats(3, 1, 2_500_000);
+        assertEquals(2.5, stats.getLoadTimeMillis(), 0.0001);
+        assertTrue(stats.toString().contains("Loaded 3 questions"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.cliapp.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.cliapp.io.Console;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ReloadingQuestionBankTest {
+
+    @TempDir Path tempDir;
+
+    private Path questFile;
+    private QuestionBank fallback;
+
+    @BeforeEach
+    void setUp() {
+        questFile = tempDir.resolve("Quest.json");
+        fallback = QuestionBank.of(List.of());
+    }
+
+    private String questions(String... scenarios) {
+        StringBuilder json = new StringBuilder("{\"questions\":[");
+        for (int i = 0; i < scenarios.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"level\":\"Beginner\",\"scenario\":\"")
+                    .append(scenarios[i])
+                    .append("\",\"correct\":\"a\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    /** Replace the file the way editors do, so watchers never see a half-written file */
+    private void publish(String content) throws IOException {
+        Path staging = tempDir.resolve("staging.tmp");
+        Files.writeString(staging, content);
+        Files.move(staging, questFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Test
+    void testLoadsExternalFileOnCreation() throws IOException {
+        Files.writeString(questFile, questions("one", "two"));
+
+        ReloadingQuestionBank bank = new ReloadingQuestionBank(questFile, fallback);
+
+        assertEquals(2, bank.get().size());
+        assertEquals(1, bank.getReloadCount());
+    }
+
+    @Test
+    void testMissingFileServesFallback() {
+        ReloadingQuestionBank bank = new ReloadingQuestionBank(questFile, fallback);
+
+        assertSame(fallback, bank.get());
+        assertEquals(0, bank.getReloadCount());
+    }
+
+    @Test
+    void testBrokenOrEmptyFileKeepsCurrentSnapshot() throws IOException {
+        Files.writeString(questFile, questions("one"));
+        ReloadingQuestionBank bank = new ReloadingQuestionBank(questFile, fallback);
+        QuestionBank snapshot = bank.get();
+
+        Files.writeString(questFile, "{\"questions\":[{\"level\":");
+        assertFalse(bank.reload());
+        assertSame(snapshot, bank.get());
+
+        Files.writeString(questFile, questions());
+        assertFalse(bank.reload());
+        assertSame(snapshot, bank.get());
+    }
+
+    @Test
+    void testReloadPublishesNewSnapshotToRunningSessions() throws IOException {
+        Files.writeString(questFile, questions("one"));
+        ReloadingQuestionBank bank = new ReloadingQuestionBank(questFile, fallback);
+        QuestGameService service = new QuestGameService(mock(Console.class), bank);
+        QuestionBank before = service.getQuestionBank();
+
+        Files.writeString(questFile, questions("one", "two", "three"));
+        assertTrue(bank.reload());
+
+        assertEquals(3, service.getQuestionCount());
+        assertEquals(1, before.size(), "Old snapshot must stay intact for in-flight readers");
+    }
+
+    @Test
+    void testWatcherPicksUpEdits() throws Exception {
+        Files.writeString(questFile, questions("one"));
+        try (ReloadingQuestionBank bank = new ReloadingQuestionBank(questFile, fallback)) {
+            bank.startWatching();
+
+            publish(questions("one", "two"));
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (bank.get().size() != 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(2, bank.get().size(), "Watcher should publish the edited file");
+        }
+    }
+
+    @Test
+    void testDefaultSourceUsesDefaultBankWithoutReloadPath() {
+        assertSame(QuestionBank.getDefault(), QuestionBank.defaultSource().get());
+    }
+}
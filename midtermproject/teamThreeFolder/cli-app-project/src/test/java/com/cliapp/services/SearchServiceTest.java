@@ -0,0 +1,142 @@
+package com.cliapp.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.cliapp.collections.ConcurrentGlossaryCollection;
+import com.cliapp.collections.ContentIndex;
+import com.cliapp.collections.GlossaryCollection;
+import com.cliapp.domain.GlossaryEntry;
+import com.cliapp.domain.Quest;
+import com.cliapp.domain.Question;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SearchServiceTest {
+
+    private QuestService questService;
+    private GlossaryService glossaryService;
+    private AtomicReference<QuestionBank> questions;
+    private SearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        questService = new QuestService();
+        GlossaryCollection collection = new GlossaryCollection();
+        collection.add(
+                new GlossaryEntry(
+                        "git rebase", "Reapply commits on top of another base", "", "Branching"));
+        collection.add(new GlossaryEntry("git fetch", "Download remote refs", "", "Remote"));
+        glossaryService = new GlossaryService(collection);
+        questions =
+                new AtomicReference<>(
+                        QuestionBank.of(
+                                List.of(
+                                        question(
+                                                "Advanced",
+                                                "Your feature branch is behind main",
+                                                "git rebase"))));
+        searchService = new SearchService(questService, questions::get, glossaryService);
+    }
+
+    private static Question question(String level, String scenario, String command) {
+        return new Question(
+                level,
+                scenario,
+                List.of(new Question.Option("a", command), new Question.Option("b", "git init")),
+                "a",
+                null);
+    }
+
+    private static List<String> hits(List<ContentIndex.Hit> hits) {
+        List<String> keys = new ArrayList<>();
+        for (ContentIndex.Hit hit : hits) {
+            keys.add(hit.getType() + ":" + hit.getKey());
+        }
+        return keys;
+    }
+
+    @Test
+    void testSearchReturnsEveryContentTypeTogether() {
+        List<String> merge = hits(searchService.search("merging merge", 10));
+        assertTrue(merge.contains("QUEST:git-branching"));
+        assertTrue(merge.contains("MODULE:" + SearchService.moduleKey("git-branching", 2)));
+
+        List<String> rebase = hits(searchService.search("rebase", 10));
+        assertTrue(rebase.contains("GLOSSARY:git rebase"));
+        assertTrue(rebase.contains("QUESTION:" + SearchService.questionKey("advanced", 0)));
+        assertFalse(
+                hits(searchService.search("init", 10)).stream()
+                        .anyMatch(k -> k.startsWith("QUESTION")),
+                "Wrong answers are not indexed");
+        assertEquals(1, searchService.search("merge", 1).size());
+    }
+
+    @Test
+    void testGlossaryChangesAreIndexedOnNextSearch() throws Exception {
+        glossaryService.addEntry("git cherry-pick", "Apply a single commit", "", "Branching");
+        GlossaryCollection collection = glossaryService.getGlossaryCollection();
+        collection.remove(collection.getByCommand("git fetch"));
+
+        assertEquals(List.of("GLOSSARY:git cherry-pick"), hits(searchService.search("cherry", 5)));
+        assertTrue(searchService.search("download", 5).isEmpty());
+    }
+
+    @Test
+    void testReloadedQuestionsReplaceOldOnes() {
+        searchService.search("rebase", 5);
+        questions.set(
+                QuestionBank.of(List.of(question("Beginner", "Save your work", "git stash"))));
+
+        assertTrue(searchService.search("behind", 5).isEmpty());
+        assertEquals(
+                List.of("QUESTION:" + SearchService.questionKey("beginner", 0)),
+                hits(searchService.search("stash", 5)));
+    }
+
+    @Test
+    void testReindexingAndRemovingQuests() {
+        Quest branching = questService.getQuestById("git-branching");
+        int indexed = searchService.getIndexedCount();
+        branching.setLearningModules(List.of("Squash commits with interactive rebase"));
+        searchService.indexQuest(branching);
+
+        assertEquals(indexed - 3, searchService.getIndexedCount());
+        assertTrue(hits(searchService.search("conflicts", 5)).isEmpty());
+        assertTrue(
+                hits(searchService.search("squash", 5))
+                        .contains("MODULE:" + SearchService.moduleKey("git-branching", 0)));
+
+        assertTrue(searchService.removeQuest("git-branching"));
+        assertFalse(searchService.removeQuest("git-branching"));
+        assertTrue(searchService.search("squash", 5).isEmpty());
+    }
+
+    @Test
+    void testSharedGlossaryEditsArriveThroughTheListener() {
+        ConcurrentGlossaryCollection shared =
+                new ConcurrentGlossaryCollection(
+                        List.of(new GlossaryEntry("git tag", "Name a release", "", "History")));
+        SearchService search =
+                new SearchService(questService, questions::get, new GlossaryService(shared));
+        assertEquals(List.of("GLOSSARY:git tag"), hits(search.search("release", 5)));
+
+        shared.update("git tag", new GlossaryEntry("git tag", "Mark a commit", "", "History"));
+        shared.apply(
+                copy -> {
+                    copy.add(new GlossaryEntry("git blame", "Who changed a line", "", "History"));
+                    copy.add(
+                            new GlossaryEntry(
+                                    "git blame", "Who last changed a line", "", "History"));
+                });
+        assertTrue(search.search("release", 5).isEmpty());
+        assertEquals(List.of("GLOSSARY:git tag"), hits(search.search("mark", 5)));
+        assertEquals(List.of("GLOSSARY:git blame"), hits(search.search("last", 5)));
+
+        search.close();
+        shared.remove(shared.getByCommand("git tag"));
+        assertEquals(List.of("GLOSSARY:git tag"), hits(search.search("mark", 5)));
+    }
+}
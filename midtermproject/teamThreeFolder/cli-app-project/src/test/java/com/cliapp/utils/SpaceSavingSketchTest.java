@@ -0,0 +1,61 @@
+package com.cliapp.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class SpaceSavingSketchTest {
+
+    @Test
+    void testCountsExactlyWhileUnderCapacity() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(10);
+        sketch.record("commit");
+        sketch.record("commit");
+        sketch.record("push");
+        sketch.record(null);
+
+        List<SpaceSavingSketch.Estimate<String>> top = sketch.top(5);
+        assertEquals(2, top.size());
+        assertEquals("commit", top.get(0).getKey());
+        assertEquals(2, top.get(0).getCount());
+        assertEquals(0, top.get(0).getError());
+        assertEquals(3, sketch.getTotal());
+        assertEquals("commit=2", top.get(0).toString());
+    }
+
+    @Test
+    void testHeavyHittersSurviveALongTail() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(16);
+        Random random = new Random(3);
+        for (int i = 0; i < 20000; i++) {
+            int roll = random.nextInt(100);
+            if (roll < 30) {
+                sketch.record("git add");
+            } else if (roll < 50) {
+                sketch.record("git commit");
+            } else {
+                sketch.record("rare " + random.nextInt(5000));
+            }
+        }
+
+        List<SpaceSavingSketch.Estimate<String>> top = sketch.top(2);
+        assertEquals("git add", top.get(0).getKey());
+        assertEquals("git commit", top.get(1).getKey());
+        assertTrue(top.get(0).getCount() - top.get(0).getError() <= 6000 + 300);
+        assertTrue(top.get(0).getCount() >= 5700);
+    }
+
+    @Test
+    void testTopHandlesOutOfRangeRequests() {
+        SpaceSavingSketch<Integer> sketch = new SpaceSavingSketch<>(4);
+        sketch.record(1);
+
+        assertTrue(sketch.top(0).isEmpty());
+        assertTrue(sketch.top(-1).isEmpty());
+        assertEquals(1, sketch.top(10).size());
+        assertEquals(0, sketch.getDroppedCount());
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSavingSketch<String>(0));
+    }
+}
@@ -0,0 +1,85 @@
+package com.cliapp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class StringPoolTest {
+
+    private StringPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new StringPool();
+    }
+
+    @Test
+    void testReturnsCanonicalInstance() {
+        String first = new String("Great, you Git it!");
+        String second = new String("Great, you Git it!");
+
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second), "Duplicate should map to the first instance");
+        assertEquals(1, pool.size());
+        assertEquals(1, pool.getHitCount());
+    }
+
+    @Test
+    void testInterningCanonicalInstanceIsNotAHit() {
+        String value = pool.intern("Beginner");
+
+        pool.intern(value);
+
+        assertEquals(0, pool.getHitCount());
+        assertEquals(0, pool.getBytesSaved());
+    }
+
+    @Test
+    void testCountsBytesSaved() {
+        pool.intern(new String("Branching"));
+        pool.intern(new String("Branching"));
+        pool.intern(new String("Branching"));
+
+        assertEquals(2, pool.getHitCount());
+        assertEquals(2 * StringPool.estimateSize("Branching"), pool.getBytesSaved());
+        assertTrue(pool.toString().contains("duplicates=2"));
+    }
+
+    @Test
+    void testEstimateSizeAccountsForEncoding() {
+        // 24 byte String + 16 byte array header + 8 Latin-1 bytes
+        assertEquals(48, StringPool.estimateSize("abcdefgh"));
+        // Non Latin-1 text needs two bytes per char
+        assertEquals(56, StringPool.estimateSize("abcdefg’"));
+    }
+
+    @Test
+    void testNullPassesThrough() {
+        assertNull(pool.intern(null));
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    void testUnreferencedStringsAreReleased() throws InterruptedException {
+        String kept = pool.intern(new String("Beginner"));
+        for (int i = 0; i < 1000; i++) {
+            pool.intern(new String("Scenario " + i));
+        }
+
+        for (int attempt = 0; attempt < 50 && pool.size() > 1; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(1, pool.size(), "Only the string still referenced stays pooled");
+        assertSame(kept, pool.intern(new String("Beginner")));
+    }
+
+    @Test
+    void testSharedPoolIsSingleton() {
+        assertSame(StringPool.shared(), StringPool.shared());
+    }
+}
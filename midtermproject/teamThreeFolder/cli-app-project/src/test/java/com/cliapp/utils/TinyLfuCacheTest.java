@@ -0,0 +1,85 @@
+package com.cliapp.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TinyLfuCacheTest {
+
+    private TinyLfuCache<String, Integer> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TinyLfuCache<>(100);
+    }
+
+    @Test
+    void testGetAndPutCountHitsAndMisses() {
+        assertNull(cache.get("commit"));
+        cache.put("commit", 1);
+
+        assertEquals(1, cache.get("commit"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate(), 0.0001);
+        assertTrue(cache.toString().contains("hits=1"));
+    }
+
+    @Test
+    void testPutReplacesExistingValue() {
+        cache.put("push", 1);
+        cache.put("push", 2);
+
+        assertEquals(2, cache.get("push"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testSizeStaysBounded() {
+        for (int i = 0; i < 1000; i++) {
+            cache.put("key " + i, i);
+        }
+
+        assertTrue(cache.size() <= 100, "Size was " + cache.size());
+    }
+
+    @Test
+    void testFrequentKeysSurviveAScanOfOneOffKeys() {
+        for (int round = 0; round < 5; round++) {
+            for (int hot = 0; hot < 20; hot++) {
+                String key = "hot " + hot;
+                if (cache.get(key) == null) {
+                    cache.put(key, hot);
+                }
+            }
+        }
+        for (int i = 0; i < 500; i++) {
+            cache.get("scan " + i);
+            cache.put("scan " + i, i);
+        }
+
+        int survivors = 0;
+        for (int hot = 0; hot < 20; hot++) {
+            if (cache.get("hot " + hot) != null) {
+                survivors++;
+            }
+        }
+        assertEquals(20, survivors, "A one-off scan should not flush the hot keys");
+        assertTrue(cache.frequency("hot 0") > cache.frequency("scan 1"));
+    }
+
+    @Test
+    void testClearDropsValues() {
+        cache.put("merge", 1);
+        cache.clear();
+
+        assertNull(cache.get("merge"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testRejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TinyLfuCache<String, String>(0));
+    }
+}